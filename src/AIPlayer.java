@@ -1,866 +1,719 @@
-import javax.swing.*;
-import java.awt.event.ActionEvent;
-import java.awt.event.ActionListener;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Random;
-import java.util.Queue;
-import java.util.LinkedList;
-import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Engine minimax alpha-beta sâu dần, tìm song song nhiều luồng (Lazy SMP)
+public class AIPlayer extends ComputerPlayer {
+    // Tìm kiếm sâu dần tới khi hết thời gian cho mỗi nước đi
+    private static final int MAX_SEARCH_DEPTH = 64;
+    // Dùng cho tìm kiếm theo độ sâu cố định (benchmark)
+    public static final long NO_TIME_LIMIT = 365L * 24 * 3600 * 1000;
+    private int completedDepth;
+    private int bestScore;
+    private long nodesExplored = 0;
+    // Thống kê sắp xếp nước đi của lần tìm gần nhất (cộng dồn mọi worker)
+    private boolean moveOrdering = true;
+    private long cutoffs;
+    private long firstMoveCutoffs;
+    // PVS và cửa sổ mong đợi; biến chính và số lần tìm lại ở gốc của lần tìm gần nhất
+    private boolean principalVariationSearch = true;
+    private List<Move> principalVariation = new ArrayList<>();
+    private long aspirationResearches;
+    // Tìm tĩnh qua các nước nổ ở nút lá; số nút tìm tĩnh của lần tìm gần nhất
+    private boolean quiescence = true;
+    private long quiescenceNodes;
+    // Tìm kiếm chọn lọc: giảm độ sâu nước muộn (LMR), cắt tỉa vô vọng và razoring gần lá; bộ đếm của lần tìm gần nhất.
+    // Mặc định tắt: ít nút hơn nhưng không mạnh hơn rõ rệt khi tự đấu (EngineBenchmark selective, 96 ván 20 ms/nước:
+    // LMR 52-44, futility 47-49, razoring 51-45, cả ba 54-42)
+    private boolean lateMoveReductions = false;
+    private boolean futilityPruning = false;
+    private boolean razoring = false;
+    private long lmrReductions;
+    private long lmrResearches;
+    private long futilityPrunes;
+    private long razorCutoffs;
+    // Bộ giải df-pn chạy trước tìm kiếm để chứng minh thắng/thua bắt buộc; thống kê cộng dồn mọi lượt
+    private boolean solver = true;
+    // Bộ giải dùng tối đa 1/SOLVER_TIME_SHARE thời gian của lượt, phần còn lại cho tìm kiếm
+    private static final int SOLVER_TIME_SHARE = 4;
+    private final ProofNumberSearch proofNumberSearch = new ProofNumberSearch();
+    private long solverRuns;
+    private long solverWins;
+    private long solverLosses;
+    private long solverNodes;
+
+    // Bảng chuyển vị dùng chung cho mọi lượt của ván hiện tại (2^18 entry, 4 MB)
+    // và cho mọi luồng tìm kiếm
+    private static final int TT_SIZE_BITS = 18;
+    private final TranspositionTable transpositionTable = new TranspositionTable(TT_SIZE_BITS);
+
+    // Sách khai cuộc (file ánh xạ bộ nhớ, dùng chung mọi AIPlayer), null nếu không có
+    private OpeningBook openingBook = OpeningBook.getDefault();
+
+    // Mạng đánh giá NNUE (đọc một lần, dùng chung), null nếu không có file: dùng hàm đánh giá cổ điển
+    private NeuralNetwork neuralNetwork = NeuralNetwork.getDefault();
+
+    // Bảng tàn cuộc (file ánh xạ bộ nhớ, dùng chung), null nếu không có
+    private EndgameTablebase tablebase = EndgameTablebase.getDefault();
+    private long tablebaseHits;
+
+    // Suy nghĩ trước (ponder) trong lượt của người chơi: kết quả cho thế cờ sau từng nước trả lời,
+    // theo khóa Zobrist. Mỗi nước được tìm tới khi đủ thời gian của một lượt hoặc khi bị dừng.
+    // Luồng suy nghĩ trước không ghi vào completedDepth, bestScore, principalVariation hay các bộ đếm:
+    // kết quả chỉ đi qua PonderReply, được luồng tìm nước đi đọc sau khi đã chờ luồng suy nghĩ trước dừng.
+    private static final long MIN_PONDER_SLICE_MS = 50;
+    private boolean pondering = true;
+    private Thread ponderThread;
+    private AtomicBoolean ponderStop;
+    // Cờ dừng của lần tìm đang chạy trong luồng suy nghĩ trước (mỗi lần tìm một cờ riêng)
+    private volatile AtomicBoolean ponderSearchStop;
+    // Mỗi lần suy nghĩ trước ghi vào bảng riêng, nên luồng cũ đã được báo dừng nhưng chưa kết thúc
+    // không ghi lẫn vào kết quả của lần sau
+    private volatile Map<Long, PonderReply> replyCache = new ConcurrentHashMap<>();
+    private long ponderHits;
+    private long ponderMisses;
+
+    private static final class PonderReply {
+        // Chỉ số ô theo hướng chuẩn của thế cờ
+        final int move;
+        final int depth;
+        final int score;
+        // Biến chính bắt đầu bằng move, chỉ số ô theo hướng chuẩn
+        final int[] principalVariation;
+        // Tổng thời gian đã tìm cho thế cờ này
+        final long millis;
+
+        PonderReply(int move, int depth, int score, int[] principalVariation, long millis) {
+            this.move = move;
+            this.depth = depth;
+            this.score = score;
+            this.principalVariation = principalVariation;
+            this.millis = millis;
+        }
+    }
 
-public class AIPlayer {
-    private final GameLogic gameLogic;
-    private final boolean isRed;
-    private final int GRID_SIZE;
-    private Timer timer;
-    private long startTime;
+    // Kết quả một lần tìm: nước đi (null nếu không có), độ sâu đã xong, điểm và biến chính (chỉ số ô)
+    private static final class SearchResult {
+        final Move move;
+        final int depth;
+        final int score;
+        final int[] principalVariation;
 
-    private byte[][] simulationGrid;
-    private boolean simulationRedTurn;
-    private boolean simulationRedMoved;
-    private boolean simulationBlueMoved;
+        SearchResult(Move move, int depth, int score, int[] principalVariation) {
+            this.move = move;
+            this.depth = depth;
+            this.score = score;
+            this.principalVariation = principalVariation;
+        }
+    }
 
-    private static final int MAX_DEPTH = 4;
-    private int nodesExplored = 0;
-    private static final int MAX_NODES = 50000;
+    // Số luồng tìm kiếm, mặc định dùng hết số lõi
+    private int threads;
+    private SearchWorker[] workers;
+    private ExecutorService helperPool;
 
     public AIPlayer(GameLogic gameLogic, boolean isRed) {
-        this.gameLogic = gameLogic;
-        this.isRed = isRed;
-        this.GRID_SIZE = gameLogic.GRID_SIZE;
-        this.simulationGrid = new byte[GRID_SIZE][GRID_SIZE];
+        this(gameLogic, isRed, DEFAULT_THINK_TIME_MS);
+    }
+
+    public AIPlayer(GameLogic gameLogic, boolean isRed, long thinkTimeMillis) {
+        this(gameLogic, isRed, thinkTimeMillis, Runtime.getRuntime().availableProcessors());
     }
 
-    public void activate() {
-        if (timer != null) {
-            timer.stop();
+    public AIPlayer(GameLogic gameLogic, boolean isRed, long thinkTimeMillis, int threads) {
+        super(gameLogic, isRed, thinkTimeMillis);
+        setThreads(threads);
+    }
+
+    public void setThreads(int threads) {
+        threads = Math.max(1, threads);
+        if (helperPool != null) {
+            helperPool.shutdownNow();
+            helperPool = null;
+        }
+        this.threads = threads;
+        workers = new SearchWorker[threads];
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new SearchWorker(i, isRed, transpositionTable);
+            workers[i].getMoveOrdering().setEnabled(moveOrdering);
+            workers[i].setPvsEnabled(principalVariationSearch);
+            workers[i].setQuiescenceEnabled(quiescence);
+            workers[i].setLateMoveReductions(lateMoveReductions);
+            workers[i].setFutilityPruning(futilityPruning);
+            workers[i].setRazoring(razoring);
+            workers[i].setTablebase(tablebase);
+            workers[i].setNeuralNetwork(neuralNetwork);
+        }
+        if (threads > 1) {
+            helperPool = Executors.newFixedThreadPool(threads - 1, r -> {
+                Thread thread = new Thread(r, "AIPlayer-helper");
+                thread.setPriority(Thread.MIN_PRIORITY);
+                thread.setDaemon(true);
+                return thread;
+            });
         }
+    }
 
-        boolean isAITurn = (isRed && gameLogic.isRedTurn()) || (!isRed && !gameLogic.isRedTurn());
-        
-        if (!isAITurn) {
-            return;
+    public int getThreads() {
+        return threads;
+    }
+
+    // Dừng các luồng phụ khi không dùng AI này nữa
+    @Override
+    public void shutdown() {
+        super.shutdown();
+        if (helperPool != null) {
+            helperPool.shutdownNow();
         }
-        
-        timer = new Timer(100, e -> {
-            if ((isRed && gameLogic.isRedTurn()) || (!isRed && !gameLogic.isRedTurn())) {
-                makeMove();
-            }
-        });
-        timer.setRepeats(false);
-        timer.start();
     }
 
-    public void deactivate() {
-        if (timer != null) {
-            timer.stop();
+    // Bật/tắt killer và history (tắt thì chỉ còn nước từ bảng chuyển vị đi trước), dùng để so sánh
+    public void setMoveOrdering(boolean enabled) {
+        moveOrdering = enabled;
+        for (SearchWorker worker : workers) {
+            worker.getMoveOrdering().setEnabled(enabled);
         }
     }
 
+    public boolean isMoveOrdering() {
+        return moveOrdering;
+    }
 
-    //Tao nuoc di
-    private void makeMove() {
-        SwingWorker<Move, Void> worker = new SwingWorker<Move, Void>() {
-            @Override
-            protected Move doInBackground() {
-                try {
-                    startTime = System.currentTimeMillis();
-                    Move bestMove = findBestMove();
-                    return bestMove;
-                } catch (Exception e) {
-                    e.printStackTrace();
-                    return null;
-                }
-            }
+    // Bật/tắt PVS (cửa sổ rỗng cho các nước sau nước đầu) và cửa sổ mong đợi ở gốc, dùng để so sánh
+    public void setPrincipalVariationSearch(boolean enabled) {
+        principalVariationSearch = enabled;
+        for (SearchWorker worker : workers) {
+            worker.setPvsEnabled(enabled);
+        }
+    }
 
-            @Override
-            protected void done() {
-                try {
-                    Move bestMove = get();
-                    if (bestMove != null) {
-                        SwingUtilities.invokeLater(() -> {
-                            try {
-                                gameLogic.makeMove(bestMove.row, bestMove.col);
-                            } catch (Exception e) {
-                                e.printStackTrace();
-                            }
-                        });
-                    }
-                } catch (Exception e) {
-                    e.printStackTrace();
-                }
-            }
-        };
-        worker.execute();
+    public boolean isPrincipalVariationSearch() {
+        return principalVariationSearch;
     }
 
-    // Tìm nước đi tốt nhất bằng thuật toán minimax với alpha-beta
-    private Move findBestMove() {
-        nodesExplored = 0;
-        startTime = System.currentTimeMillis();
-        
-        List<Move> possibleMoves = getPossibleMoves(false);
-        if (possibleMoves.isEmpty()) {
-            return null;
-        }
-        
-        // First check if we have any moves that create explosions and prioritize them
-        for (Move move : possibleMoves) {
-            Cell cell = gameLogic.getGrid()[move.row][move.col];
-            CellState state = cell.getState();
-            
-            // If this is a 3-dot piece, prioritize it immediately for explosion
-            if ((isRed && state == CellState.RED_THREE) || (!isRed && state == CellState.BLUE_THREE)) {
-                return move;
-            }
+    // Bật/tắt tìm tĩnh qua các nước nổ quân 3 điểm ở nút lá, dùng để so sánh
+    public void setQuiescence(boolean enabled) {
+        quiescence = enabled;
+        for (SearchWorker worker : workers) {
+            worker.setQuiescenceEnabled(enabled);
         }
+    }
 
-        Move bestMove = null;
-        int bestScore = Integer.MIN_VALUE;
-        int alpha = Integer.MIN_VALUE;
-        int beta = Integer.MAX_VALUE;
-
-        // Áp dụng minimax với alpha-beta cho tất cả nước đi
-        for (Move move : possibleMoves) {
-            prepareSimulation();
-            simulateMove(move);
-            int score = minimax(MAX_DEPTH - 1, alpha, beta, false);
+    public boolean isQuiescence() {
+        return quiescence;
+    }
 
-            if (score > bestScore) {
-                bestScore = score;
-                bestMove = move;
-            }
-            alpha = Math.max(alpha, score);
+    // Số nút tìm tĩnh (đã tính trong getNodesExplored) của lần tìm gần nhất
+    public long getQuiescenceNodes() {
+        return quiescenceNodes;
+    }
 
-            if (isTimeUp() || nodesExplored > MAX_NODES) {
-                break;
-            }
+    // Bật/tắt từng kỹ thuật tìm kiếm chọn lọc, dùng để so sánh số nút tiết kiệm với độ mạnh khi tự đấu
+    public void setLateMoveReductions(boolean enabled) {
+        lateMoveReductions = enabled;
+        for (SearchWorker worker : workers) {
+            worker.setLateMoveReductions(enabled);
         }
-
-        return bestMove != null ? bestMove : possibleMoves.get(0);
     }
 
-    private boolean isTimeUp() {
-        long elapsedTime = System.currentTimeMillis() - startTime;
-        return elapsedTime > 5000;
+    public boolean isLateMoveReductions() {
+        return lateMoveReductions;
     }
 
-    //Tạo bảng mô phỏng
-    private void prepareSimulation() {
-        Cell[][] originalGrid = gameLogic.getGrid();
-        for (int row = 0; row < GRID_SIZE; row++) {
-            for (int col = 0; col < GRID_SIZE; col++) {
-                simulationGrid[row][col] = convertStateToCode(originalGrid[row][col].getState());
-            }
+    public void setFutilityPruning(boolean enabled) {
+        futilityPruning = enabled;
+        for (SearchWorker worker : workers) {
+            worker.setFutilityPruning(enabled);
         }
-        simulationRedTurn = gameLogic.isRedTurn();
-        simulationRedMoved = gameLogic.isRedHasMoved();
-        simulationBlueMoved = gameLogic.isBlueHasMoved();
-    }
-
-    //Chuyển trạng thái ô thành mã số
-    private byte convertStateToCode(CellState state) {
-        switch (state) {
-            case EMPTY: return 0;
-            case RED_ONE: return 1;
-            case RED_TWO: return 2;
-            case RED_THREE: return 3;
-            case RED_FOUR: return 4;
-            case BLUE_ONE: return 5;
-            case BLUE_TWO: return 6;
-            case BLUE_THREE: return 7;
-            case BLUE_FOUR: return 8;
-            default: return 0;
-        }
-    }
-
-    //Chuyển mã số thành trạng thái ô
-    private CellState convertCodeToState(byte code) {
-        switch (code) {
-            case 0: return CellState.EMPTY;
-            case 1: return CellState.RED_ONE;
-            case 2: return CellState.RED_TWO;
-            case 3: return CellState.RED_THREE;
-            case 4: return CellState.RED_FOUR;
-            case 5: return CellState.BLUE_ONE;
-            case 6: return CellState.BLUE_TWO;
-            case 7: return CellState.BLUE_THREE;
-            case 8: return CellState.BLUE_FOUR;
-            default: return CellState.EMPTY;
-        }
-    }
-
-    private void simulateMove(Move move) {
-        byte state = simulationGrid[move.row][move.col];
-        CellState cellState = convertCodeToState(state);
-
-        if (cellState == CellState.EMPTY) {
-            simulationGrid[move.row][move.col] = convertStateToCode(
-                isRed ? CellState.RED_THREE : CellState.BLUE_THREE
-            );
-            if (isRed) {
-                simulationRedMoved = true;
-            } else {
-                simulationBlueMoved = true;
-            }
-        } else {
-            CellState nextState = cellState.getNextState();
-            simulationGrid[move.row][move.col] = convertStateToCode(nextState);
-            if (nextState == CellState.RED_FOUR || nextState == CellState.BLUE_FOUR) {
-                simulateExplosion(move.row, move.col, nextState);
-            }
+    }
+
+    public boolean isFutilityPruning() {
+        return futilityPruning;
+    }
+
+    public void setRazoring(boolean enabled) {
+        razoring = enabled;
+        for (SearchWorker worker : workers) {
+            worker.setRazoring(enabled);
         }
-        simulationRedTurn = !simulationRedTurn;
     }
 
-    //Mô phỏng nổ
-    private void simulateExplosion(int row, int col, CellState explodingState) {
-        int[][] explosionQueue = new int[GRID_SIZE * GRID_SIZE][2];
-        int queueStart = 0;
-        int queueEnd = 0;
-        
-        explosionQueue[queueEnd][0] = row;
-        explosionQueue[queueEnd][1] = col;
-        queueEnd++;
+    public boolean isRazoring() {
+        return razoring;
+    }
 
-        while (queueStart < queueEnd && queueEnd < GRID_SIZE * GRID_SIZE) {
-            int r = explosionQueue[queueStart][0];
-            int c = explosionQueue[queueStart][1];
-            queueStart++;
+    // Số nước được tìm giảm độ sâu / số lần phải tìm lại đủ sâu vì nước giảm độ sâu vượt cửa sổ
+    public long getLmrReductions() {
+        return lmrReductions;
+    }
 
-            simulationGrid[r][c] = 0;
-            boolean isRed = explodingState.isRed();
+    public long getLmrResearches() {
+        return lmrResearches;
+    }
 
-            int[][] directions = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}};
-            for (int[] dir : directions) {
-                int newRow = r + dir[0], newCol = c + dir[1];
+    // Số nước bị bỏ qua do cắt tỉa vô vọng
+    public long getFutilityPrunes() {
+        return futilityPrunes;
+    }
 
-                if (isValidPosition(newRow, newCol)) {
-                    byte neighborCode = simulationGrid[newRow][newCol];
-                    if (neighborCode == 0) {
-                        simulationGrid[newRow][newCol] = (byte)(isRed ? 1 : 5);
-                        continue;
-                    }
+    // Số nút trả về sớm do razoring
+    public long getRazorCutoffs() {
+        return razorCutoffs;
+    }
 
-                    CellState neighborState = convertCodeToState(neighborCode);
-                    if (isOppositeColor(explodingState, neighborState)) {
-                        // Tăng số điểm của quân đối phương
-                        byte newCode = (byte)(neighborCode + 1);
-                        if (newCode > 8) newCode = 8; // Giới hạn tối đa
-                        simulationGrid[newRow][newCol] = newCode;
-                        
-                        // Kiểm tra nổ
-                        if (newCode == 4 || newCode == 8) { // RED_FOUR hoặc BLUE_FOUR
-                            if (queueEnd < GRID_SIZE * GRID_SIZE) {
-                                explosionQueue[queueEnd][0] = newRow;
-                                explosionQueue[queueEnd][1] = newCol;
-                                queueEnd++;
-                            }
-                        }
-                    } else if ((isRed && neighborState.isRed()) || (!isRed && neighborState.isBlue())) {
-                        byte newCode = (byte)(neighborCode + 1);
-                        if (newCode > 8) newCode = 8;
-                        simulationGrid[newRow][newCol] = newCode;
-                        
-                        // Kiểm tra nổ
-                        if (newCode == 4 || newCode == 8) {
-                            if (queueEnd < GRID_SIZE * GRID_SIZE) {
-                                explosionQueue[queueEnd][0] = newRow;
-                                explosionQueue[queueEnd][1] = newCol;
-                                queueEnd++;
-                            }
-                        }
-                    }
-                }
-            }
-        }
+    // Bật/tắt bộ giải df-pn chạy trước mỗi lượt đi (findBestMove(BitBoard)); tìm theo độ sâu cố định không dùng bộ giải
+    public void setSolver(boolean enabled) {
+        solver = enabled;
     }
 
-    private int minimax(int depth, int alpha, int beta, boolean isMaximizing) {
-        nodesExplored++;
-        
-        if (nodesExplored > MAX_NODES || depth == 0 || isSimulationGameOver()) {
-            return evaluateSimulationBoard();
-        }
+    public boolean isSolver() {
+        return solver;
+    }
 
-        List<Move> possibleMoves = getPossibleMoves(true);
-        if (possibleMoves.isEmpty()) {
-            return evaluateSimulationBoard();
-        }
-        
-        // Lưu trạng thái hiện tại
-        byte[][] backupGrid = new byte[GRID_SIZE][GRID_SIZE];
-        for (int i = 0; i < GRID_SIZE; i++) {
-            System.arraycopy(simulationGrid[i], 0, backupGrid[i], 0, GRID_SIZE);
+    // Giới hạn của bộ giải: số nút mỗi lượt và bộ nhớ bảng (2^sizeBits entry, 16 byte mỗi entry)
+    public void setSolverLimits(long nodeLimit, int tableSizeBits) {
+        proofNumberSearch.setNodeLimit(nodeLimit);
+        if (tableSizeBits != proofNumberSearch.getTableSizeBits()) {
+            proofNumberSearch.setTableSize(tableSizeBits);
         }
-        boolean backupRedTurn = simulationRedTurn;
-        boolean backupRedMoved = simulationRedMoved;
-        boolean backupBlueMoved = simulationBlueMoved;
+    }
 
-        if (isMaximizing) {
-            int maxEval = Integer.MIN_VALUE;
-            for (Move move : possibleMoves) {
-                simulateMove(move);
-                int eval = minimax(depth - 1, alpha, beta, false);
-                
-                // Khôi phục trạng thái
-                for (int i = 0; i < GRID_SIZE; i++) {
-                    System.arraycopy(backupGrid[i], 0, simulationGrid[i], 0, GRID_SIZE);
-                }
-                simulationRedTurn = backupRedTurn;
-                simulationRedMoved = backupRedMoved;
-                simulationBlueMoved = backupBlueMoved;
-
-                maxEval = Math.max(maxEval, eval);
-                alpha = Math.max(alpha, eval);
-                if (beta <= alpha) {
-                    break; // Cắt tỉa beta
-                }
-            }
-            return maxEval;
-        } else {
-            int minEval = Integer.MAX_VALUE;
-            for (Move move : possibleMoves) {
-                simulateMove(move);
-                int eval = minimax(depth - 1, alpha, beta, true);
-                
-                // Khôi phục trạng thái
-                for (int i = 0; i < GRID_SIZE; i++) {
-                    System.arraycopy(backupGrid[i], 0, simulationGrid[i], 0, GRID_SIZE);
-                }
-                simulationRedTurn = backupRedTurn;
-                simulationRedMoved = backupRedMoved;
-                simulationBlueMoved = backupBlueMoved;
-
-                minEval = Math.min(minEval, eval);
-                beta = Math.min(beta, eval);
-                if (beta <= alpha) {
-                    break; // Cắt tỉa alpha
-                }
-            }
-            return minEval;
-        }
+    // Số lần chạy bộ giải và số lần chứng minh được bên AI thắng / thua (tỷ lệ giải được = (thắng + thua) / số lần)
+    public long getSolverRuns() {
+        return solverRuns;
     }
 
-    //Kiểm tra xem trò chơi đã kết thúc hay chưa
-    private boolean isSimulationGameOver() {
-        if (!simulationRedMoved || !simulationBlueMoved) {
-            return false;
-        }
+    public long getSolverWins() {
+        return solverWins;
+    }
 
-        int redCount = 0;
-        int blueCount = 0;
+    public long getSolverLosses() {
+        return solverLosses;
+    }
 
-        for (int row = 0; row < GRID_SIZE; row++) {
-            for (int col = 0; col < GRID_SIZE; col++) {
-                CellState state = convertCodeToState(simulationGrid[row][col]);
-                if (state.isRed()) {
-                    redCount++;
-                } else if (state.isBlue()) {
-                    blueCount++;
-                }
-            }
-        }
+    // Tổng số nút bộ giải đã duyệt
+    public long getSolverNodes() {
+        return solverNodes;
+    }
 
-        return (redCount == 0 || blueCount == 0) && (redCount + blueCount > 1);
+    // Biến chính của lần tìm gần nhất: nước được chọn rồi chuỗi trả lời tốt nhất dự kiến của hai bên.
+    // Rỗng nếu nước đi lấy từ sách, bảng tàn cuộc hoặc luật nổ bắt buộc.
+    public List<Move> getPrincipalVariation() {
+        return principalVariation;
     }
 
-    //Đánh giá các nước đi
-    private int evaluateSimulationBoard() {
-        int score = 0;
+    // Số lần phải tìm lại ở gốc vì điểm rơi ra ngoài cửa sổ mong đợi
+    public long getAspirationResearches() {
+        return aspirationResearches;
+    }
 
-        // Đánh giá số lượng quân và điểm
-        int myPieces = 0, oppPieces = 0;
-        int myDots = 0, oppDots = 0;
-        int myThreeDots = 0, oppThreeDots = 0;
-        int chainPotentialScore = 0;
-        int opponentChainThreat = 0;
-        int positionScore = 0;  // Thêm điểm vị trí
+    // Độ sâu của vòng lặp sâu dần cuối cùng đã tìm xong
+    public int getCompletedDepth() {
+        return completedDepth;
+    }
 
-        for (int row = 0; row < GRID_SIZE; row++) {
-            for (int col = 0; col < GRID_SIZE; col++) {
-                CellState state = convertCodeToState(simulationGrid[row][col]);
-                if ((isRed && state.isRed()) || (!isRed && state.isBlue())) {
-                    myPieces++;
-                    int dots = getDotCount(state);
-                    myDots += dots;
-                    if (dots == 3) myThreeDots++;
-                    if (dots >= 2) {
-                        chainPotentialScore += evaluateChainPotential(simulationGrid, row, col, isRed);
-                    }
-                    
-                    // Đánh giá vị trí chiến lược
-                    positionScore += evaluatePosition(row, col, dots, isRed);
-                } else if ((isRed && state.isBlue()) || (!isRed && state.isRed())) {
-                    oppPieces++;
-                    int dots = getDotCount(state);
-                    oppDots += dots;
-                    if (dots == 3) {
-                        oppThreeDots++;
-                    }
-                    if (dots >= 2) {
-                        opponentChainThreat += evaluateOpponentChainThreat(simulationGrid, row, col, isRed);
-                    }
-                }
-            }
+    // Điểm của nước đi tốt nhất ở độ sâu đó
+    public int getBestScore() {
+        return bestScore;
+    }
+
+    public void setOpeningBook(OpeningBook openingBook) {
+        this.openingBook = openingBook;
+    }
+
+    public OpeningBook getOpeningBook() {
+        return openingBook;
+    }
+
+    // Dùng mạng đánh giá thay cho hàm đánh giá cổ điển; null để quay lại hàm cổ điển
+    public void setNeuralNetwork(NeuralNetwork neuralNetwork) {
+        this.neuralNetwork = neuralNetwork;
+        for (SearchWorker worker : workers) {
+            worker.setNeuralNetwork(neuralNetwork);
         }
+    }
 
-        // Kiểm tra trạng thái kết thúc
-        if (myPieces == 0) return -100000;
-        if (oppPieces == 0) return 100000;
+    public NeuralNetwork getNeuralNetwork() {
+        return neuralNetwork;
+    }
 
-        // Tính điểm tổng hợp với trọng số mới
-        score = (myPieces - oppPieces) * 200 +                    // Trọng số cho số lượng quân
-                (myDots - oppDots) * 180 +                        // Tăng trọng số cho tổng số điểm
-                (myThreeDots) * 1000 +                            // Tăng mạnh trọng số cho quân 3 điểm
-                chainPotentialScore * 750 -                       // Tăng trọng số khả năng tạo chuỗi nổ
-                opponentChainThreat * 500 +                       // Tăng trọng số cho mối đe dọa từ đối phương
-                positionScore * 300;                              // Thêm điểm vị trí chiến lược
+    public void setTablebase(EndgameTablebase tablebase) {
+        this.tablebase = tablebase;
+        for (SearchWorker worker : workers) {
+            worker.setTablebase(tablebase);
+        }
+    }
 
-        // Tỷ lệ quân tương đối
-        if (oppPieces > 0) {
-            float pieceRatio = (float) myPieces / oppPieces;
-            if (pieceRatio > 1.5) {
-                score += 800;  
+    public EndgameTablebase getTablebase() {
+        return tablebase;
+    }
+
+    // Số nút lấy kết quả từ bảng tàn cuộc trong lần tìm gần nhất
+    public long getTablebaseHits() {
+        return tablebaseHits;
+    }
+
+    // Tìm nước đi tốt nhất bằng minimax alpha-beta sâu dần tới hạn thời gian.
+    // Với nhiều luồng, các worker phụ cùng tìm (Lazy SMP) và chia sẻ bảng chuyển vị với worker chính.
+    @Override
+    public Move findBestMove(BitBoard root) {
+        // Thế cờ có trong sách khai cuộc thì đi ngay, để dành thời gian cho trung cuộc
+        if (openingBook != null) {
+            Move move = openingBook.probe(root);
+            if (move != null && root.isLegal(move.row * GRID_SIZE + move.col)) {
+                completedDepth = 0;
+                bestScore = 0;
+                principalVariation = new ArrayList<>();
+                return move;
             }
         }
-        
-        // Điểm phạt khi bị đối thủ bao vây
-        int surroundedPenalty = evaluateSurroundedPieces(simulationGrid, isRed);
-        score -= surroundedPenalty * 250;
-        
-        // Thêm điểm thưởng cho các tình huống đặc biệt
-        if (myPieces > oppPieces) {
-            score += 500;
-        }
-        
-        if (myThreeDots > 0) {
-            score += 900; // Tăng điểm thưởng cho việc có quân 3 điểm
-        }
-
-        return score;
-    }
-
-    // Đánh giá vị trí chiến lược
-    private int evaluatePosition(int row, int col, int dots, boolean isRed) {
-        int posScore = 0;
-        
-        // Vị trí góc có giá trị cao vì khó bị bao vây
-        if ((row == 0 || row == GRID_SIZE-1) && (col == 0 || col == GRID_SIZE-1)) {
-            posScore += 50;
-        }
-        
-        // Vị trí cạnh có giá trị trung bình
-        else if (row == 0 || row == GRID_SIZE-1 || col == 0 || col == GRID_SIZE-1) {
-            posScore += 25;
-        }
-        
-        // Vị trí trung tâm có giá trị cho việc kiểm soát bàn cờ
-        int center = GRID_SIZE / 2;
-        int distanceToCenter = Math.abs(row - center) + Math.abs(col - center);
-        if (distanceToCenter <= 1) {
-            posScore += 40;
-        }
-        
-        // Quân 3 điểm ở vị trí tốt có giá trị rất cao
-        if (dots == 3) {
-            posScore += 30;
-            
-            // Đặc biệt cao nếu ở vị trí có thể gây chuỗi nổ
-            int[][] directions = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}};
-            for (int[] dir : directions) {
-                int newRow = row + dir[0], newCol = col + dir[1];
-                if (isValidPosition(newRow, newCol)) {
-                    CellState neighborState = convertCodeToState(simulationGrid[newRow][newCol]);
-                    // Tăng giá trị nếu kế bên là quân cùng màu
-                    if ((isRed && neighborState.isRed()) || (!isRed && neighborState.isBlue())) {
-                        posScore += 40;
+
+        // Người chơi đi đúng nước đã suy nghĩ trước: đủ thời gian thì đi ngay,
+        // chưa đủ thì chỉ tìm thêm phần còn thiếu (bảng chuyển vị đã có sẵn kết quả)
+        long timeMillis = thinkTimeMillis;
+        if (!replyCache.isEmpty()) {
+            // Khóa và nước đi trong bộ nhớ đệm theo hướng chuẩn của thế cờ
+            int t = root.canonicalTransform();
+            PonderReply reply = replyCache.get(root.hash(t));
+            replyCache.clear();
+            int move = reply == null ? -1 : Symmetry.transformCell(reply.move, Symmetry.inverse(t));
+            if (reply != null && root.isLegal(move)) {
+                ponderHits++;
+                if (reply.millis >= thinkTimeMillis) {
+                    completedDepth = reply.depth;
+                    bestScore = reply.score;
+                    principalVariation = new ArrayList<>();
+                    for (int index : reply.principalVariation) {
+                        index = Symmetry.transformCell(index, Symmetry.inverse(t));
+                        principalVariation.add(new Move(index / GRID_SIZE, index % GRID_SIZE));
                     }
+                    return new Move(move / GRID_SIZE, move % GRID_SIZE);
                 }
+                timeMillis = thinkTimeMillis - reply.millis;
+            } else {
+                ponderMisses++;
             }
         }
-        
-        return posScore;
-    }
-
-    //Đánh giá mức độ bị bao vây
-    private int evaluateSurroundedPieces(byte[][] grid, boolean isRed) {
-        int surroundedCount = 0;
-        
-        for (int row = 0; row < GRID_SIZE; row++) {
-            for (int col = 0; col < GRID_SIZE; col++) {
-                CellState state = convertCodeToState(grid[row][col]);
-                
-                // Chỉ xét quân của chúng ta
-                if ((isRed && state.isRed()) || (!isRed && state.isBlue())) {
-                    int opponentNeighbors = 0;
-                    int totalNeighbors = 0;
-                    
-                    int[][] directions = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}};
-                    for (int[] dir : directions) {
-                        int newRow = row + dir[0], newCol = col + dir[1];
-                        if (isValidPosition(newRow, newCol)) {
-                            totalNeighbors++;
-                            CellState neighborState = convertCodeToState(grid[newRow][newCol]);
-                            if ((isRed && neighborState.isBlue()) || (!isRed && neighborState.isRed())) {
-                                opponentNeighbors++;
-                            }
-                        }
-                    }
-                    
-                    // Nếu đa số hàng xóm là quân đối phương, quân này bị bao vây
-                    if (opponentNeighbors > totalNeighbors / 2) {
-                        surroundedCount++;
-                    }
-                }
+        if (solver) {
+            long start = System.nanoTime();
+            Move move = solve(root, timeMillis);
+            if (move != null) {
+                return move;
             }
+            timeMillis = Math.max(1, timeMillis - (System.nanoTime() - start) / 1_000_000L);
         }
-        
-        return surroundedCount;
-    }
-
-
-    //Đánh giá khả năng tạo chuỗi nổ
-    private int evaluateChainPotential(byte[][] grid, int row, int col, boolean isRed) {
-        int chainScore = 0;
-        int[][] directions = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}};
-        
-        // Đánh giá quân hiện tại
-        CellState currentState = convertCodeToState(grid[row][col]);
-        int currentDots = getDotCount(currentState);
-        
-        // Quân càng nhiều điểm càng có khả năng tạo chuỗi nổ
-        chainScore += currentDots * 20;
-
-        // Đánh giá các quân xung quanh
-        for (int[] dir : directions) {
-            int newRow = row + dir[0];
-            int newCol = col + dir[1];
-
-            if (isValidPosition(newRow, newCol)) {
-                CellState neighborState = convertCodeToState(grid[newRow][newCol]);
-                
-                // Tăng điểm cho chuỗi nổ tiềm năng với quân cùng màu
-                if ((isRed && neighborState.isRed()) || (!isRed && neighborState.isBlue())) {
-                    int neighborDots = getDotCount(neighborState);
-
-                    chainScore += 40 + neighborDots * 15;
-                    
-                    // Đặc biệt ưu tiên chuỗi có quân 3 điểm
-                    if (neighborDots == 3 || currentDots == 3) {
-                        chainScore += 100;
-                    }
+        return findBestMove(root, MAX_SEARCH_DEPTH, timeMillis);
+    }
 
-                    if ((currentDots == 2 && neighborDots == 3) || 
-                        (currentDots == 3 && neighborDots == 2) ||
-                        (currentDots == 2 && neighborDots == 2) ||
-                        (currentDots == 3 && neighborDots == 3)) {
-                        chainScore += 120;
-                    }
-                }
-                
-                // Tăng điểm cho khả năng ảnh hưởng đến quân đối phương
-                if ((isRed && neighborState.isBlue()) || (!isRed && neighborState.isRed())) {
-                    chainScore += 60;
-                    
-                    // Nếu quân đối phương có nhiều điểm, gây ảnh hưởng có giá trị cao
-                    int oppDots = getDotCount(neighborState);
-                    if (oppDots >= 2) {
-                        chainScore += oppDots * 20;
-                    }
-                }
-            }
+    // Bắt đầu suy nghĩ trước cho thế cờ hiện tại trên giao diện (lượt của người chơi).
+    // Nước trả lời dự đoán (nước tốt nhất của người chơi trong bảng chuyển vị) được tìm trước với
+    // trọn thời gian một lượt, sau đó lần lượt các nước còn lại với thời gian tăng gấp đôi mỗi vòng.
+    // Được gọi trên luồng giao diện nên không chờ: lần suy nghĩ trước cũ chỉ được báo dừng,
+    // luồng mới chờ nó kết thúc (các worker và bộ đếm dùng chung) rồi mới bắt đầu.
+    @Override
+    public synchronized void startPondering() {
+        cancelPondering();
+        replyCache = new ConcurrentHashMap<>();
+        if (!pondering || gameLogic == null) {
+            return;
         }
-        
-        // Đánh giá chuỗi mở rộng hơn (kiểm tra các quân cách 2 ô)
-        if (currentDots >= 2) {
-            for (int[] dir1 : directions) {
-                for (int[] dir2 : directions) {
-                    int extendedRow = row + dir1[0] + dir2[0];
-                    int extendedCol = col + dir1[1] + dir2[1];
-                    
-                    if (isValidPosition(extendedRow, extendedCol)) {
-                        CellState extendedState = convertCodeToState(grid[extendedRow][extendedCol]);
-                        if ((isRed && extendedState.isRed() && getDotCount(extendedState) >= 2) ||
-                            (!isRed && extendedState.isBlue() && getDotCount(extendedState) >= 2)) {
-                            chainScore += 30;
-                        }
-                    }
-                }
-            }
+        BitBoard position = ((BitBoard) gameLogic.getBoard()).copy();
+        if (position.isGameOver() || position.isRedTurn() == isRed) {
+            return;
         }
-        
-        return chainScore;
-    }
-
-    // Cải thiện đánh giá mối đe dọa từ đối phương
-    private int evaluateOpponentChainThreat(byte[][] grid, int row, int col, boolean isRed) {
-        int threatScore = 0;
-        int[][] directions = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}};
-        
-        CellState currentState = convertCodeToState(grid[row][col]);
-        int currentDots = getDotCount(currentState);
-        
-        // Quân đối phương càng nhiều điểm càng nguy hiểm
-        threatScore += currentDots * 30;
-
-        for (int[] dir : directions) {
-            int newRow = row + dir[0];
-            int newCol = col + dir[1];
-
-            if (isValidPosition(newRow, newCol)) {
-                CellState neighborState = convertCodeToState(grid[newRow][newCol]);
-                
-                // Đánh giá mối đe dọa từ quân khác của đối phương
-                if ((isRed && neighborState.isBlue()) || (!isRed && neighborState.isRed())) {
-                    int neighborDots = getDotCount(neighborState);
-                    threatScore += 50 + neighborDots * 20;
-                    
-                    // Mối đe dọa cao với chuỗi 2-2, 2-3, 3-2, 3-3
-                    if ((currentDots == 2 && neighborDots == 2) ||
-                        (currentDots == 2 && neighborDots == 3) ||
-                        (currentDots == 3 && neighborDots == 2) ||
-                        (currentDots == 3 && neighborDots == 3)) {
-                        threatScore += 150;
-                    }
-                    
-                    // Đánh giá mối đe dọa từ quân 3 điểm đối phương (từ hàm evaluateThreeDotThreat)
-                    if (neighborDots == 3) {
-                        threatScore += 100;
-                    }
+        transpositionTable.newSearch();
+        AtomicBoolean stop = new AtomicBoolean(false);
+        Thread previous = ponderThread;
+        Map<Long, PonderReply> replies = replyCache;
+        ponderStop = stop;
+        ponderThread = new Thread(() -> {
+            try {
+                if (previous != null) {
+                    previous.join();
                 }
-                
-                // Đánh giá mối đe dọa đến quân của chúng ta
-                if ((isRed && neighborState.isRed()) || (!isRed && neighborState.isBlue())) {
-                    threatScore += 40; // Quân đối phương gần quân của chúng ta
+                if (!stop.get()) {
+                    ponder(position, stop, replies);
                 }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RejectedExecutionException e) {
+                // AI đã bị tắt (shutdown) trong lúc suy nghĩ trước
             }
+        }, "AIPlayer-ponder");
+        ponderThread.setDaemon(true);
+        ponderThread.start();
+    }
+
+    // Báo dừng suy nghĩ trước, không chờ luồng nền (dùng được trên luồng giao diện)
+    @Override
+    public synchronized void cancelPondering() {
+        if (ponderStop != null) {
+            ponderStop.set(true);
         }
-        
-        // Kiểm tra mẫu hình đe dọa đặc biệt: quân 3 điểm có thể gây chuỗi nổ
-        if (currentDots == 3) {
-            int threatCount = 0;
-            for (int[] dir : directions) {
-                int newRow = row + dir[0];
-                int newCol = col + dir[1];
-                
-                if (isValidPosition(newRow, newCol)) {
-                    CellState neighborState = convertCodeToState(grid[newRow][newCol]);
-                    // Nếu hàng xóm cùng màu với đối phương
-                    if ((isRed && neighborState.isBlue()) || (!isRed && neighborState.isRed())) {
-                        threatCount++;
-                    }
-                }
+        AtomicBoolean searchStop = ponderSearchStop;
+        if (searchStop != null) {
+            searchStop.set(true);
+        }
+    }
+
+    // Báo dừng và chờ luồng suy nghĩ trước kết thúc; gọi từ luồng tìm nước đi trước khi dùng các worker
+    @Override
+    public void stopPondering() {
+        Thread thread;
+        synchronized (this) {
+            cancelPondering();
+            thread = ponderThread;
+            ponderThread = null;
+            ponderStop = null;
+        }
+        if (thread == null) {
+            return;
+        }
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Suy nghĩ trước cho thế cờ position (người chơi đi), chạy trong luồng nền tới khi bị dừng
+    // hoặc mọi nước trả lời đã được tìm đủ thời gian một lượt
+    void ponder(BitBoard position, AtomicBoolean stop, Map<Long, PonderReply> replyCache) {
+        int symmetry = position.canonicalTransform();
+        long entry = transpositionTable.probe(position.hash(symmetry));
+        int predicted = entry != 0 ? TranspositionTable.moveOf(entry) : TranspositionTable.NO_MOVE;
+        if (predicted != TranspositionTable.NO_MOVE) {
+            predicted = Symmetry.transformCell(predicted, Symmetry.inverse(symmetry));
+        }
+        List<BitBoard> replies = new ArrayList<>();
+        Set<Long> seen = new HashSet<>();
+        // Nước dự đoán được xét đầu tiên (k = -1) để luôn đứng đầu danh sách
+        boolean predictedFirst = false;
+        for (int k = -1; k < BitBoard.CELLS; k++) {
+            int i = k < 0 ? predicted : k;
+            if ((k >= 0 && i == predicted) || i < 0 || !position.isLegal(i)) {
+                continue;
             }
-            
-            // Nếu quân 3 điểm có ít nhất 2 quân liền kề cùng màu, tăng mạnh điểm đe dọa
-            if (threatCount >= 2) {
-                threatScore += 250;
+            BitBoard reply = position.copy();
+            reply.applyMove(i);
+            // Ván kết thúc sau nước của người chơi thì AI không cần đi;
+            // các nước cho thế cờ đối xứng nhau chỉ cần tìm một lần
+            if (reply.isGameOver() || !seen.add(Symmetry.canonicalKey(reply))) {
+                continue;
             }
-        }
-        
-        return threatScore;
-    }
-
-    private int getDotCount(CellState state) {
-        switch (state) {
-            case RED_ONE:
-            case BLUE_ONE:
-                return 1;
-            case RED_TWO:
-            case BLUE_TWO:
-                return 2;
-            case RED_THREE:
-            case BLUE_THREE:
-                return 3;
-            case RED_FOUR:
-            case BLUE_FOUR:
-                return 4;
-            default:
-                return 0;
-        }
-    }
-
-    private boolean isValidPosition(int row, int col) {
-        return row >= 0 && row < GRID_SIZE && col >= 0 && col < GRID_SIZE;
-    }
-
-    private boolean isOppositeColor(CellState s1, CellState s2) {
-        return (s1.isRed() && s2.isBlue()) || (s1.isBlue() && s2.isRed());
-    }
-
-
-     //Tìm tất cả các nước đi có thể cho AI trong bất kỳ trạng thái nào.
-     // isSimulation true nếu đang trong mô phỏng (sử dụng simulationGrid), false nếu đang tìm nước đi thực tế
-
-    private List<Move> getPossibleMoves(boolean isSimulation) {
-        List<Move> moves = new ArrayList<>();
-        
-        // Xác định trạng thái và dữ liệu hiện tại dựa trên mode
-        boolean isCurrentRedTurn, isRedHasMoved, isBlueHasMoved;
-        
-        if (isSimulation) {
-            isCurrentRedTurn = simulationRedTurn;
-            isRedHasMoved = simulationRedMoved;
-            isBlueHasMoved = simulationBlueMoved;
-        } else {
-            isCurrentRedTurn = gameLogic.isRedTurn();
-            isRedHasMoved = gameLogic.isRedHasMoved();
-            isBlueHasMoved = gameLogic.isBlueHasMoved();
-        }
-        
-        // 1. Ưu tiên nước đi nổ từ quân 3 điểm (quân có 3 điểm)
-        for (int row = 0; row < GRID_SIZE; row++) {
-            for (int col = 0; col < GRID_SIZE; col++) {
-                CellState state;
-                
-                if (isSimulation) {
-                    state = convertCodeToState(simulationGrid[row][col]);
-                } else {
-                    state = gameLogic.getGrid()[row][col].getState();
-                }
-                
-                if ((isCurrentRedTurn && state == CellState.RED_THREE) || 
-                    (!isCurrentRedTurn && state == CellState.BLUE_THREE)) {
-                    return Collections.singletonList(new Move(row, col)); // Ưu tiên cao nhất, trả về ngay
+            predictedFirst |= k < 0;
+            replies.add(reply);
+        }
+
+        long slice = Math.max(MIN_PONDER_SLICE_MS, thinkTimeMillis / Math.max(1, replies.size()));
+        boolean pending = true;
+        for (int round = 0; pending && !stop.get(); round++, slice *= 2) {
+            pending = false;
+            for (int r = 0; r < replies.size() && !stop.get(); r++) {
+                BitBoard reply = replies.get(r);
+                int t = reply.canonicalTransform();
+                long key = reply.hash(t);
+                PonderReply previous = replyCache.get(key);
+                long spent = previous == null ? 0 : previous.millis;
+                if (spent >= thinkTimeMillis) {
+                    continue;
                 }
-            }
-        }
-        
-        // 2. Xử lý nước đi đầu tiên của mỗi màu
-        if ((isCurrentRedTurn && !isRedHasMoved) || (!isCurrentRedTurn && !isBlueHasMoved)) {
-            int center = GRID_SIZE / 2;
-            List<Move> strategicMoves = new ArrayList<>();
-            
-            // Nếu trong mô phỏng và đối thủ đã di chuyển, ưu tiên các vị trí xa đối thủ
-            if (isSimulation && ((!isCurrentRedTurn && isRedHasMoved) || (isCurrentRedTurn && isBlueHasMoved))) {
-                // Tìm vị trí quân của đối thủ
-                int opponentRow = -1, opponentCol = -1;
-                
-                for (int row = 0; row < GRID_SIZE; row++) {
-                    for (int col = 0; col < GRID_SIZE; col++) {
-                        CellState state = convertCodeToState(simulationGrid[row][col]);
-                        if ((isCurrentRedTurn && state.isBlue()) || (!isCurrentRedTurn && state.isRed())) {
-                            opponentRow = row;
-                            opponentCol = col;
-                            break;
-                        }
-                    }
-                    if (opponentRow != -1) break;
+                // Nước dự đoán được tìm trọn thời gian ngay từ vòng đầu
+                long budget = round == 0 && r == 0 && predictedFirst
+                        ? thinkTimeMillis : Math.min(slice, thinkTimeMillis - spent);
+                AtomicBoolean searchStop = new AtomicBoolean(false);
+                ponderSearchStop = searchStop;
+                if (stop.get()) {
+                    break;
                 }
-                
-                // Nếu tìm thấy quân đối thủ
-                if (opponentRow != -1) {
-                    // Ưu tiên các góc xa quân đối thủ
-                    int[][] corners = {{0, 0}, {0, GRID_SIZE-1}, {GRID_SIZE-1, 0}, {GRID_SIZE-1, GRID_SIZE-1}};
-                    for (int[] corner : corners) {
-                        CellState cornerState = isSimulation ? 
-                            convertCodeToState(simulationGrid[corner[0]][corner[1]]) : 
-                            gameLogic.getGrid()[corner[0]][corner[1]].getState();
-                            
-                        if (cornerState == CellState.EMPTY &&
-                            Math.abs(corner[0] - opponentRow) + Math.abs(corner[1] - opponentCol) >= 3) {
-                            strategicMoves.add(new Move(corner[0], corner[1]));
-                        }
-                    }
-                    
-                    // Nếu không có góc phù hợp, tìm các vị trí cách xa đối thủ
-                    if (strategicMoves.isEmpty()) {
-                        for (int row = 0; row < GRID_SIZE; row++) {
-                            for (int col = 0; col < GRID_SIZE; col++) {
-                                CellState cellState = isSimulation ? 
-                                    convertCodeToState(simulationGrid[row][col]) : 
-                                    gameLogic.getGrid()[row][col].getState();
-                                    
-                                if (cellState == CellState.EMPTY) {
-                                    int distance = Math.abs(row - opponentRow) + Math.abs(col - opponentCol);
-                                    if (distance >= 3) { // Vị trí cách xa đối thủ
-                                        strategicMoves.add(new Move(row, col));
-                                    }
-                                }
-                            }
-                        }
-                    }
-                    
-                    if (!strategicMoves.isEmpty()) {
-                        return strategicMoves;
-                    }
+                long start = System.nanoTime();
+                SearchResult result = search(reply, MAX_SEARCH_DEPTH, start + budget * 1_000_000L, searchStop, false);
+                long elapsed = (System.nanoTime() - start) / 1_000_000L;
+                if (result.move == null) {
+                    continue;
                 }
-            }
-            
-            // Nếu không có thông tin về đối thủ hoặc vẫn chưa tìm được vị trí chiến lược
-            // Ưu tiên vị trí trung tâm và các góc
-            CellState centerState = isSimulation ? 
-                convertCodeToState(simulationGrid[center][center]) : 
-                gameLogic.getGrid()[center][center].getState();
-                
-            if (centerState == CellState.EMPTY) {
-                strategicMoves.add(new Move(center, center));
-            }
-            
-            int[][] corners = {{0, 0}, {0, GRID_SIZE-1}, {GRID_SIZE-1, 0}, {GRID_SIZE-1, GRID_SIZE-1}};
-            for (int[] corner : corners) {
-                CellState cornerState = isSimulation ? 
-                    convertCodeToState(simulationGrid[corner[0]][corner[1]]) : 
-                    gameLogic.getGrid()[corner[0]][corner[1]].getState();
-                    
-                if (cornerState == CellState.EMPTY) {
-                    strategicMoves.add(new Move(corner[0], corner[1]));
+                // Tìm xong trước hạn mà không bị dừng: kết quả không thay đổi nếu tìm thêm
+                if (!stop.get() && elapsed < budget) {
+                    elapsed = thinkTimeMillis;
                 }
-            }
-            
-            if (!strategicMoves.isEmpty()) {
-                return strategicMoves;
-            }
-            
-            // Nếu không có vị trí chiến lược, thêm tất cả các ô trống
-            for (int row = 0; row < GRID_SIZE; row++) {
-                for (int col = 0; col < GRID_SIZE; col++) {
-                    CellState cellState = isSimulation ? 
-                        convertCodeToState(simulationGrid[row][col]) : 
-                        gameLogic.getGrid()[row][col].getState();
-                        
-                    if (cellState == CellState.EMPTY) {
-                        moves.add(new Move(row, col));
+                if (previous == null || result.depth >= previous.depth) {
+                    int canonicalMove = Symmetry.transformCell(result.move.row * GRID_SIZE + result.move.col, t);
+                    int[] line = result.principalVariation.clone();
+                    for (int i = 0; i < line.length; i++) {
+                        line[i] = Symmetry.transformCell(line[i], t);
                     }
+                    replyCache.put(key, new PonderReply(canonicalMove, result.depth, result.score, line, spent + elapsed));
+                } else {
+                    replyCache.put(key, new PonderReply(previous.move, previous.depth, previous.score,
+                            previous.principalVariation, spent + elapsed));
                 }
+                pending |= spent + elapsed < thinkTimeMillis;
             }
-            
-            return moves;
-        }
-        
-        // 3. Xử lý các nước đi tiếp theo - cho cả quân 1 điểm và 2 điểm
-        List<Move> highDotMoves = new ArrayList<>();   // Ưu tiên quân 2 điểm
-        List<Move> lowDotMoves = new ArrayList<>();    // Sau đó đến quân 1 điểm
-        
-        for (int row = 0; row < GRID_SIZE; row++) {
-            for (int col = 0; col < GRID_SIZE; col++) {
-                CellState state;
-                
-                if (isSimulation) {
-                    state = convertCodeToState(simulationGrid[row][col]);
-                } else {
-                    state = gameLogic.getGrid()[row][col].getState();
+        }
+    }
+
+    public void setPondering(boolean enabled) {
+        pondering = enabled;
+        if (!enabled) {
+            cancelPondering();
+        }
+    }
+
+    public boolean isPondering() {
+        return pondering;
+    }
+
+    // Số lượt người chơi đi đúng một nước đã suy nghĩ trước / đi nước khác
+    public long getPonderHits() {
+        return ponderHits;
+    }
+
+    public long getPonderMisses() {
+        return ponderMisses;
+    }
+
+    public Move findBestMove(BitBoard root, int maxDepth, long timeMillis) {
+        completedDepth = 0;
+        bestScore = 0;
+        nodesExplored = 0;
+        cutoffs = 0;
+        firstMoveCutoffs = 0;
+        tablebaseHits = 0;
+        aspirationResearches = 0;
+        quiescenceNodes = 0;
+        lmrReductions = 0;
+        lmrResearches = 0;
+        futilityPrunes = 0;
+        razorCutoffs = 0;
+        transpositionTable.newSearch();
+        long deadline = System.nanoTime() + timeMillis * 1_000_000L;
+        SearchResult result = search(root, maxDepth, deadline, new AtomicBoolean(false), true);
+        completedDepth = result.depth;
+        bestScore = result.score;
+        principalVariation = new ArrayList<>();
+        for (int index : result.principalVariation) {
+            principalVariation.add(new Move(index / GRID_SIZE, index % GRID_SIZE));
+        }
+        return result.move;
+    }
+
+    // Chạy bộ giải df-pn với tối đa 1/SOLVER_TIME_SHARE thời gian của lượt.
+    // Chứng minh được thắng bắt buộc thì trả về nước thắng; chứng minh thua hoặc chưa rõ thì trả về null
+    // để tìm như thường (khi thua, tìm kiếm chọn nước cầm cự lâu nhất theo hàm đánh giá).
+    private Move solve(BitBoard root, long timeMillis) {
+        solverRuns++;
+        long deadline = System.nanoTime() + timeMillis * 1_000_000L / SOLVER_TIME_SHARE;
+        int result = proofNumberSearch.solve(root, deadline, new AtomicBoolean(false));
+        solverNodes += proofNumberSearch.getNodes();
+        if (result == ProofNumberSearch.LOSS) {
+            solverLosses++;
+        }
+        if (result != ProofNumberSearch.WIN) {
+            return null;
+        }
+        solverWins++;
+        int move = proofNumberSearch.getProvingMove();
+        completedDepth = 0;
+        bestScore = SearchWorker.WIN_SCORE - ProofNumberSearch.MAX_DEPTH;
+        principalVariation = new ArrayList<>();
+        return new Move(move / GRID_SIZE, move % GRID_SIZE);
+    }
+
+    // Tìm tới deadline hoặc tới khi stopFlag được bật (dùng chung cho lượt đi và suy nghĩ trước).
+    // Không ghi vào các trường kết quả; recordStats thì cộng số nút và các bộ đếm của worker vào AIPlayer
+    // (chỉ lượt đi, luồng suy nghĩ trước không ghi).
+    private SearchResult search(BitBoard root, int maxDepth, long deadline, AtomicBoolean stopFlag, boolean recordStats) {
+        // Thế cờ có kết quả chính xác trong bảng tàn cuộc: đi theo bảng, không cần tìm
+        if (tablebase != null) {
+            int move = tablebase.bestMove(root);
+            if (move >= 0) {
+                return new SearchResult(new Move(move / GRID_SIZE, move % GRID_SIZE), 0, 0, new int[0]);
+            }
+        }
+
+        // First check if we have any moves that create explosions and prioritize them
+        long ownThrees = root.ownMask(isRed) & root.dotMask(3);
+        if (ownThrees != 0) {
+            int index = Long.numberOfTrailingZeros(ownThrees);
+            return new SearchResult(new Move(index / GRID_SIZE, index % GRID_SIZE), 0, 0, new int[0]);
+        }
+
+        List<Future<Move>> helpers = new ArrayList<>();
+        for (int i = 1; i < threads; i++) {
+            SearchWorker helper = workers[i];
+            helpers.add(helperPool.submit(() -> helper.search(root, maxDepth, deadline, stopFlag)));
+        }
+
+        SearchWorker main = workers[0];
+        Move bestMove = main.search(root, maxDepth, deadline, stopFlag);
+        SearchWorker best = main;
+        int bestDepth = main.getCompletedDepth();
+        int score = main.getBestScore();
+        stopFlag.set(true);
+
+        // Lấy kết quả sâu nhất; hòa độ sâu thì ưu tiên worker chính
+        if (recordStats) {
+            nodesExplored = main.getNodesExplored();
+            addWorkerStats(main);
+        }
+        for (int i = 1; i < threads; i++) {
+            try {
+                Move move = helpers.get(i - 1).get();
+                SearchWorker helper = workers[i];
+                if (recordStats) {
+                    nodesExplored += helper.getNodesExplored();
+                    addWorkerStats(helper);
                 }
-                
-                if ((isCurrentRedTurn && state.isRed()) || (!isCurrentRedTurn && state.isBlue())) {
-                    int dots = getDotCount(state);
-                    if (dots == 2) {
-                        highDotMoves.add(new Move(row, col));
-                    } else if (dots == 1) {
-                        lowDotMoves.add(new Move(row, col));
-                    }
-                    // Quân 3 điểm đã được xử lý ở trên
+                if (move != null && helper.getCompletedDepth() > bestDepth) {
+                    bestMove = move;
+                    best = helper;
+                    bestDepth = helper.getCompletedDepth();
+                    score = helper.getBestScore();
                 }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                e.printStackTrace();
             }
         }
-        
-        // Thêm theo thứ tự ưu tiên
-        moves.addAll(highDotMoves);
-        moves.addAll(lowDotMoves);
-        
-        return moves.isEmpty() ? Collections.emptyList() : moves;
+        return new SearchResult(bestMove, bestDepth, score, best.getPrincipalVariation());
+    }
+
+    private void addWorkerStats(SearchWorker worker) {
+        cutoffs += worker.getMoveOrdering().getCutoffs();
+        firstMoveCutoffs += worker.getMoveOrdering().getFirstMoveCutoffs();
+        tablebaseHits += worker.getTablebaseHits();
+        aspirationResearches += worker.getAspirationResearches();
+        quiescenceNodes += worker.getQuiescenceNodes();
+        lmrReductions += worker.getLmrReductions();
+        lmrResearches += worker.getLmrResearches();
+        futilityPrunes += worker.getFutilityPrunes();
+        razorCutoffs += worker.getRazorCutoffs();
+    }
+
+    public TranspositionTable getTranspositionTable() {
+        return transpositionTable;
+    }
+
+    public long getNodesExplored() {
+        return nodesExplored;
+    }
+
+    public long getCutoffs() {
+        return cutoffs;
+    }
+
+    // Tỉ lệ nút bị cắt tỉa ngay ở nước đầu tiên (fail-high first)
+    public double getFirstMoveCutoffRate() {
+        return cutoffs == 0 ? 0 : (double) firstMoveCutoffs / cutoffs;
     }
-}
\ No newline at end of file
+}
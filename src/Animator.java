@@ -0,0 +1,97 @@
+import java.util.ArrayList;
+import java.util.List;
+import javax.swing.Timer;
+
+// Bộ lập lịch hiệu ứng duy nhất của giao diện: một javax.swing.Timer (gộp các nhịp bị trễ) chạy mọi hiệu ứng
+// đang chạy ở mỗi khung hình trên luồng giao diện, tự dừng khi không còn hiệu ứng nào.
+// Chế độ turbo bỏ qua hiệu ứng: hiệu ứng mới kết thúc ngay khi được thêm vào.
+class Animator {
+    static final int FRAME_MILLIS = 16;
+
+    // Một hiệu ứng; tick trả về false khi đã xong, finish đưa hiệu ứng tới trạng thái cuối ngay lập tức
+    interface Animation {
+        boolean tick(long nowNanos);
+
+        void finish();
+    }
+
+    private final List<Animation> running = new ArrayList<>();
+    private final Timer timer;
+    private boolean turbo;
+
+    // Thống kê thời gian xử lý một khung hình (mọi hiệu ứng, không gồm thời gian vẽ của Swing)
+    private long frames;
+    private long frameNanos;
+    private long maxFrameNanos;
+
+    Animator() {
+        timer = new Timer(FRAME_MILLIS, e -> tick());
+        timer.setCoalesce(true);
+    }
+
+    void start(Animation animation) {
+        if (turbo) {
+            animation.finish();
+            return;
+        }
+        running.add(animation);
+        if (!timer.isRunning()) {
+            timer.start();
+        }
+    }
+
+    // Kết thúc ngay mọi hiệu ứng đang chạy (hiệu ứng có thể thêm hiệu ứng mới khi kết thúc)
+    void finishAll() {
+        while (!running.isEmpty()) {
+            running.remove(running.size() - 1).finish();
+        }
+        timer.stop();
+    }
+
+    void setTurbo(boolean turbo) {
+        this.turbo = turbo;
+        if (turbo) {
+            finishAll();
+        }
+    }
+
+    boolean isTurbo() {
+        return turbo;
+    }
+
+    private void tick() {
+        long start = System.nanoTime();
+        // Duyệt theo chỉ số vì hiệu ứng có thể thêm hiệu ứng mới trong lúc chạy
+        for (int i = 0; i < running.size(); i++) {
+            if (!running.get(i).tick(start)) {
+                running.remove(i--);
+            }
+        }
+        if (running.isEmpty()) {
+            timer.stop();
+        }
+        long elapsed = System.nanoTime() - start;
+        frames++;
+        frameNanos += elapsed;
+        maxFrameNanos = Math.max(maxFrameNanos, elapsed);
+    }
+
+    long getFrames() {
+        return frames;
+    }
+
+    double getAverageFrameMicros() {
+        return frames == 0 ? 0 : frameNanos / 1000.0 / frames;
+    }
+
+    double getMaxFrameMicros() {
+        return maxFrameNanos / 1000.0;
+    }
+
+    // Hàm làm mượt: chạy vượt nhẹ rồi dừng lại ở 1 (ease-out-back), t trong [0, 1]
+    static double easeOutBack(double t) {
+        double c1 = 1.70158;
+        double u = t - 1;
+        return 1 + (c1 + 1) * u * u * u + c1 * u * u;
+    }
+}
@@ -0,0 +1,634 @@
+// Trạng thái ván cờ và luật chơi, không phụ thuộc Swing: dùng chung cho GameLogic (giao diện chỉ hiển thị
+// bàn cờ này) và cho tìm kiếm của AI.
+// Mỗi ô là một bit (ô i = row * SIZE + col), quyền sở hữu và số điểm được lưu
+// trong vài số long nên bàn 5x5 nằm gọn trong thanh ghi.
+public class BitBoard implements GameBoard {
+    public static final int SIZE = 5;
+    public static final int CELLS = SIZE * SIZE;
+    public static final long FULL = (1L << CELLS) - 1;
+
+    // Mã trạng thái ô giống mã byte cũ của AIPlayer: 0 trống, 1-4 đỏ, 5-8 xanh
+    public static final int EMPTY = 0;
+    public static final int RED_THREE = 3;
+    public static final int BLUE_THREE = 7;
+
+    private static final long FIRST_COL;
+    private static final long LAST_COL;
+    private static final long[] NEIGHBORS = new long[CELLS];
+    private static final Neighbors ADJACENT = Neighbors.of(SIZE);
+
+    // Giới hạn an toàn cho chuỗi nổ để tìm kiếm không bao giờ bị treo.
+    // Chuỗi nổ chỉ có thể lặp vô hạn khi bàn cờ đã toàn một màu, trường hợp đó dừng sớm hơn bên dưới.
+    static final int MAX_EXPLOSIONS = 1024;
+    // Mỗi lần nổ thêm tối đa 4 ô vào hàng đợi nên hàng đợi vòng này không bao giờ bị tràn
+    private static final int QUEUE_CAPACITY = 4 * MAX_EXPLOSIONS;
+
+    // Độ sâu tối đa của ngăn xếp hoàn tác (số nước makeMove chưa unmakeMove)
+    public static final int MAX_PLY = 256;
+
+    // Khóa Zobrist cho (ô, mã trạng thái) và cho tổ hợp (lượt đỏ, đỏ đã đi, xanh đã đi).
+    // Seed cố định để giá trị băm giống nhau giữa các lần chạy.
+    private static final long ZOBRIST_SEED = 0x5EEDC0104A25L;
+    private static final long[][] ZOBRIST_CELLS = new long[CELLS][9];
+    private static final long[] ZOBRIST_FLAGS = new long[8];
+    // ZOBRIST_SYMMETRIC[(ô * 9 + mã) * 8 + t] = khóa của ô đó sau phép đối xứng t (xem Symmetry)
+    private static final long[] ZOBRIST_SYMMETRIC = new long[CELLS * 9 * Symmetry.COUNT];
+
+    static {
+        long first = 0, last = 0;
+        for (int row = 0; row < SIZE; row++) {
+            first |= 1L << (row * SIZE);
+            last |= 1L << (row * SIZE + SIZE - 1);
+        }
+        FIRST_COL = first;
+        LAST_COL = last;
+        for (int i = 0; i < CELLS; i++) {
+            NEIGHBORS[i] = spread(1L << i);
+        }
+
+        java.util.Random random = new java.util.Random(ZOBRIST_SEED);
+        for (int i = 0; i < CELLS; i++) {
+            // Ô trống có khóa 0 để bàn trống có giá trị băm 0
+            for (int code = 1; code < 9; code++) {
+                ZOBRIST_CELLS[i][code] = random.nextLong();
+            }
+        }
+        for (int flags = 0; flags < 8; flags++) {
+            ZOBRIST_FLAGS[flags] = random.nextLong();
+        }
+        for (int i = 0; i < CELLS; i++) {
+            for (int code = 0; code < 9; code++) {
+                for (int t = 0; t < Symmetry.COUNT; t++) {
+                    ZOBRIST_SYMMETRIC[(i * 9 + code) * Symmetry.COUNT + t] = ZOBRIST_CELLS[Symmetry.transformCell(i, t)][code];
+                }
+            }
+        }
+    }
+
+    // Quyền sở hữu
+    long red;
+    long blue;
+    // Số điểm dạng one-hot: mỗi ô có quân nằm trong đúng một mặt phẳng
+    long ones;
+    long twos;
+    long threes;
+    long fours;
+
+    boolean redTurn = true;
+    boolean redMoved;
+    boolean blueMoved;
+
+    // Giá trị băm Zobrist của các ô, cập nhật dần khi ô thay đổi
+    private long cellHash;
+
+    private final int[] cascadeQueue = new int[QUEUE_CAPACITY];
+    // Chuỗi nổ giải theo từng lớp khi ghi MoveRecord: số ô đã nổ và hai mảng lớp (nới rộng khi cần)
+    private int waveExplosions;
+    private int[] wave = new int[4 * CELLS];
+    private int[] nextWave = new int[4 * CELLS];
+
+    // Ngăn xếp hoàn tác cấp phát sẵn: mỗi phần tử là (ô << 4 | mã cũ) của một ô bị nước đi chạm vào
+    private final int[] undoCells = new int[MAX_PLY * CELLS];
+    private final int[] frameStart = new int[MAX_PLY];
+    private final int[] frameFlags = new int[MAX_PLY];
+    private int undoTop;
+    private int frameTop;
+    private boolean recording;
+    private long touched;
+
+    // Các ô kề (trên, dưới, trái, phải) của mọi bit trong mask, tính bằng phép dịch
+    public static long spread(long mask) {
+        return ((mask << SIZE) | (mask >>> SIZE)
+                | ((mask & ~FIRST_COL) >>> 1)
+                | ((mask & ~LAST_COL) << 1)) & FULL;
+    }
+
+    public static long neighbors(int index) {
+        return NEIGHBORS[index];
+    }
+
+    // Đặt lượt đi và hai cờ "đã đi" (dùng khi dựng thế cờ bằng setCode)
+    public void setFlags(boolean redTurn, boolean redMoved, boolean blueMoved) {
+        this.redTurn = redTurn;
+        this.redMoved = redMoved;
+        this.blueMoved = blueMoved;
+    }
+
+    public void clear() {
+        undoTop = frameTop = 0;
+        cellHash = 0;
+        red = blue = 0;
+        ones = twos = threes = fours = 0;
+        redTurn = true;
+        redMoved = false;
+        blueMoved = false;
+    }
+
+    public void copyFrom(BitBoard other) {
+        undoTop = frameTop = 0;
+        cellHash = other.cellHash;
+        red = other.red;
+        blue = other.blue;
+        ones = other.ones;
+        twos = other.twos;
+        threes = other.threes;
+        fours = other.fours;
+        redTurn = other.redTurn;
+        redMoved = other.redMoved;
+        blueMoved = other.blueMoved;
+    }
+
+    // Chép thế cờ other sau phép đối xứng t (ô i chuyển tới Symmetry.transformCell(i, t)).
+    // Không chép ngăn xếp hoàn tác.
+    public void copyFrom(BitBoard other, int t) {
+        undoTop = frameTop = 0;
+        red = Symmetry.transform(other.red, t);
+        blue = Symmetry.transform(other.blue, t);
+        ones = Symmetry.transform(other.ones, t);
+        twos = Symmetry.transform(other.twos, t);
+        threes = Symmetry.transform(other.threes, t);
+        fours = Symmetry.transform(other.fours, t);
+        redTurn = other.redTurn;
+        redMoved = other.redMoved;
+        blueMoved = other.blueMoved;
+        cellHash = cellKeys(red | blue);
+    }
+
+    public BitBoard copy() {
+        BitBoard board = new BitBoard();
+        board.copyFrom(this);
+        return board;
+    }
+
+    @Override
+    public int size() {
+        return SIZE;
+    }
+
+    public long occupied() {
+        return red | blue;
+    }
+
+    public long redMask() {
+        return red;
+    }
+
+    public long blueMask() {
+        return blue;
+    }
+
+    public long ownMask(boolean isRed) {
+        return isRed ? red : blue;
+    }
+
+    public long dotMask(int dots) {
+        switch (dots) {
+            case 1: return ones;
+            case 2: return twos;
+            case 3: return threes;
+            case 4: return fours;
+            default: return ~(red | blue) & FULL;
+        }
+    }
+
+    public boolean isRedTurn() {
+        return redTurn;
+    }
+
+    public boolean isRedMoved() {
+        return redMoved;
+    }
+
+    public boolean isBlueMoved() {
+        return blueMoved;
+    }
+
+    public int dots(int index) {
+        long bit = 1L << index;
+        if ((ones & bit) != 0) return 1;
+        if ((twos & bit) != 0) return 2;
+        if ((threes & bit) != 0) return 3;
+        if ((fours & bit) != 0) return 4;
+        return 0;
+    }
+
+    public int code(int index) {
+        long bit = 1L << index;
+        if ((red & bit) != 0) return dots(index);
+        if ((blue & bit) != 0) return dots(index) + 4;
+        return EMPTY;
+    }
+
+    // Giá trị băm của cả thế cờ: các ô cộng với lượt đi và hai cờ "đã đi"
+    public long hash() {
+        return cellHash ^ flagsKey();
+    }
+
+    // Giá trị băm của thế cờ sau phép đối xứng t, bằng hash(Symmetry.permutation(t))
+    public long hash(int t) {
+        if (t == Symmetry.IDENTITY) {
+            return hash();
+        }
+        long key = flagsKey();
+        for (long m = red | blue; m != 0; m &= m - 1) {
+            int index = Long.numberOfTrailingZeros(m);
+            key ^= ZOBRIST_SYMMETRIC[(index * 9 + code(index)) * Symmetry.COUNT + t];
+        }
+        return key;
+    }
+
+    // Phép đưa thế cờ về hướng chuẩn: hướng có giá trị băm nhỏ nhất.
+    // Tính khóa của cả 8 hướng trong một lượt duyệt các ô có quân.
+    public int canonicalTransform() {
+        long h0 = 0, h1 = 0, h2 = 0, h3 = 0, h4 = 0, h5 = 0, h6 = 0, h7 = 0;
+        for (long m = red | blue; m != 0; m &= m - 1) {
+            int index = Long.numberOfTrailingZeros(m);
+            int base = (index * 9 + code(index)) * Symmetry.COUNT;
+            h0 ^= ZOBRIST_SYMMETRIC[base];
+            h1 ^= ZOBRIST_SYMMETRIC[base + 1];
+            h2 ^= ZOBRIST_SYMMETRIC[base + 2];
+            h3 ^= ZOBRIST_SYMMETRIC[base + 3];
+            h4 ^= ZOBRIST_SYMMETRIC[base + 4];
+            h5 ^= ZOBRIST_SYMMETRIC[base + 5];
+            h6 ^= ZOBRIST_SYMMETRIC[base + 6];
+            h7 ^= ZOBRIST_SYMMETRIC[base + 7];
+        }
+        long flags = flagsKey();
+        int best = Symmetry.IDENTITY;
+        long bestKey = h0 ^ flags;
+        long key;
+        if ((key = h1 ^ flags) < bestKey) { bestKey = key; best = 1; }
+        if ((key = h2 ^ flags) < bestKey) { bestKey = key; best = 2; }
+        if ((key = h3 ^ flags) < bestKey) { bestKey = key; best = 3; }
+        if ((key = h4 ^ flags) < bestKey) { bestKey = key; best = 4; }
+        if ((key = h5 ^ flags) < bestKey) { bestKey = key; best = 5; }
+        if ((key = h6 ^ flags) < bestKey) { bestKey = key; best = 6; }
+        if ((key = h7 ^ flags) < bestKey) { best = 7; }
+        return best;
+    }
+
+    private long flagsKey() {
+        return ZOBRIST_FLAGS[(redTurn ? 1 : 0) | (redMoved ? 2 : 0) | (blueMoved ? 4 : 0)];
+    }
+
+    // Giá trị băm của thế cờ sau khi chuyển ô i tới ô permutation[i] (dùng cho đối xứng bàn cờ)
+    public long hash(int[] permutation) {
+        long key = flagsKey();
+        for (long m = red | blue; m != 0; m &= m - 1) {
+            int index = Long.numberOfTrailingZeros(m);
+            key ^= ZOBRIST_CELLS[permutation[index]][code(index)];
+        }
+        return key;
+    }
+
+    // Tổng XOR khóa Zobrist của các ô trong mask theo trạng thái hiện tại
+    private long cellKeys(long mask) {
+        long keys = 0;
+        for (long m = mask & (red | blue); m != 0; m &= m - 1) {
+            int index = Long.numberOfTrailingZeros(m);
+            keys ^= ZOBRIST_CELLS[index][code(index)];
+        }
+        return keys;
+    }
+
+    public void setCode(int index, int code) {
+        cellHash ^= ZOBRIST_CELLS[index][code(index)] ^ ZOBRIST_CELLS[index][code];
+        long bit = 1L << index;
+        long keep = ~bit;
+        red &= keep;
+        blue &= keep;
+        ones &= keep;
+        twos &= keep;
+        threes &= keep;
+        fours &= keep;
+        if (code == EMPTY) {
+            return;
+        }
+        if (code <= 4) {
+            red |= bit;
+        } else {
+            blue |= bit;
+        }
+        switch ((code - 1) & 3) {
+            case 0: ones |= bit; break;
+            case 1: twos |= bit; break;
+            case 2: threes |= bit; break;
+            default: fours |= bit; break;
+        }
+    }
+
+    public CellState getState(int row, int col) {
+        return stateOf(code(row * SIZE + col));
+    }
+
+    public int redPieces() {
+        return Long.bitCount(red);
+    }
+
+    public int bluePieces() {
+        return Long.bitCount(blue);
+    }
+
+    public int pieces(boolean isRed) {
+        return Long.bitCount(isRed ? red : blue);
+    }
+
+    public int totalDots(boolean isRed) {
+        long own = isRed ? red : blue;
+        return Long.bitCount(own & ones)
+                + 2 * Long.bitCount(own & twos)
+                + 3 * Long.bitCount(own & threes)
+                + 4 * Long.bitCount(own & fours);
+    }
+
+    // Ván kết thúc: một bên hết quân sau khi cả hai đã đi
+    public boolean isGameOver() {
+        if (!redMoved || !blueMoved) {
+            return false;
+        }
+        return (red == 0 || blue == 0) && Long.bitCount(red | blue) > 1;
+    }
+
+    // Bên đang đi còn được đặt quân 3 điểm đầu tiên hay không
+    public boolean canPlace() {
+        return redTurn ? !redMoved : !blueMoved;
+    }
+
+    // Nước đi hợp lệ: đặt quân đầu tiên vào ô trống hoặc chạm vào quân của mình
+    public boolean isLegal(int index) {
+        long bit = 1L << index;
+        if (((red | blue) & bit) == 0) {
+            return canPlace();
+        }
+        return ((redTurn ? red : blue) & bit) != 0;
+    }
+
+    // Các ô đi được: quân của bên đi, thêm mọi ô trống khi bên đi còn được đặt quân đầu tiên
+    public long legalMoveMask() {
+        long own = redTurn ? red : blue;
+        return canPlace() ? own | (~(red | blue) & FULL) : own;
+    }
+
+    // Ghi các nước đi hợp lệ (chỉ số ô, tăng dần) vào moves, trả về số nước
+    public int legalMoves(int[] moves) {
+        int count = 0;
+        for (long m = legalMoveMask(); m != 0; m &= m - 1) {
+            moves[count++] = Long.numberOfTrailingZeros(m);
+        }
+        return count;
+    }
+
+    //Thực hiện nước đi và ghi lại các ô bị chạm để unmakeMove khôi phục
+    public boolean makeMove(int index) {
+        if (frameTop == MAX_PLY) {
+            throw new IllegalStateException("Undo stack is full");
+        }
+        int start = undoTop;
+        int flags = (redTurn ? 1 : 0) | (redMoved ? 2 : 0) | (blueMoved ? 4 : 0);
+        touched = 0;
+        recording = true;
+        boolean applied = applyMove(index);
+        recording = false;
+        if (!applied) {
+            return false;
+        }
+        frameStart[frameTop] = start;
+        frameFlags[frameTop] = flags;
+        frameTop++;
+        return true;
+    }
+
+    //Hoàn tác nước makeMove gần nhất, chỉ khôi phục những ô chuỗi nổ đã chạm vào
+    public void unmakeMove() {
+        frameTop--;
+        int start = frameStart[frameTop];
+        while (undoTop > start) {
+            int entry = undoCells[--undoTop];
+            setCode(entry >>> 4, entry & 15);
+        }
+        int flags = frameFlags[frameTop];
+        redTurn = (flags & 1) != 0;
+        redMoved = (flags & 2) != 0;
+        blueMoved = (flags & 4) != 0;
+    }
+
+    public int ply() {
+        return frameTop;
+    }
+
+    //Thực hiện nước đi (không ghi hoàn tác): đặt quân 3 điểm đầu tiên vào ô trống hoặc tăng một điểm
+    // cho quân của mình, quân đạt 4 điểm thì giải quyết cả chuỗi nổ, rồi chuyển lượt
+    public boolean applyMove(int index) {
+        if (!isLegal(index)) {
+            return false;
+        }
+        if (beginMove(index)) {
+            explode(index, redTurn);
+        }
+        endMove();
+        return true;
+    }
+
+    // Thực hiện nước đi giống hệt applyMove, giải xong cả chuỗi nổ ngay trong lần gọi này nhưng theo từng lớp,
+    // và ghi trạng thái mới của các ô đổi ở mỗi lớp vào record để giao diện phát lại
+    public boolean applyMove(int index, MoveRecord record) {
+        if (!isLegal(index)) {
+            return false;
+        }
+        record.clear();
+        boolean explodes = beginMove(index);
+        record.addWave(this, 1L << index);
+        int size = 0;
+        if (explodes) {
+            wave[size++] = index;
+        }
+        while (size > 0) {
+            // Mỗi ô nổ thêm tối đa 4 ô vào lớp sau
+            if (nextWave.length < size * 4) {
+                nextWave = new int[size * 4];
+            }
+            long r = red, b = blue, d1 = ones, d2 = twos, d3 = threes, d4 = fours;
+            int next = explodeWave(wave, size, nextWave);
+            record.addWave(this, (red ^ r) | (blue ^ b) | (ones ^ d1) | (twos ^ d2) | (threes ^ d3) | (fours ^ d4));
+            int[] swap = wave;
+            wave = nextWave;
+            nextWave = swap;
+            size = next;
+        }
+        endMove();
+        return true;
+    }
+
+    // Các bước của nước đi: beginMove rồi (nếu phải nổ) explodeWave cho tới khi lớp sau rỗng, cuối cùng endMove.
+    // Nước index phải hợp lệ. Trả về true nếu quân được chạm đạt 4 điểm và phải nổ.
+    private boolean beginMove(int index) {
+        long bit = 1L << index;
+        touch(bit);
+        waveExplosions = 0;
+        if (((red | blue) & bit) == 0) {
+            setCode(index, redTurn ? RED_THREE : BLUE_THREE);
+            if (redTurn) {
+                redMoved = true;
+            } else {
+                blueMoved = true;
+            }
+            return false;
+        }
+        cellHash ^= cellKeys(bit);
+        increment(bit);
+        cellHash ^= cellKeys(bit);
+        return (fours & bit) != 0;
+    }
+
+    // Nổ một lớp của chuỗi nổ do bên đang đi gây ra: các ô wave[0..size) nổ theo thứ tự, ô kề đạt 4 điểm
+    // được ghi vào nextWave (cần chỗ cho 4 * size ô) theo thứ tự trên, dưới, trái, phải.
+    // Trả về số ô của lớp sau; 0 khi chuỗi kết thúc, kể cả khi dừng sớm như explode.
+    private int explodeWave(int[] wave, int size, int[] nextWave) {
+        boolean isRed = redTurn;
+        int nextSize = 0;
+        for (int i = 0; i < size; i++) {
+            if (waveExplosions == MAX_EXPLOSIONS) {
+                return 0;
+            }
+            waveExplosions++;
+            int cell = wave[i];
+            long ready = blast(cell, isRed);
+            if ((isRed ? blue : red) == 0) {
+                return 0;
+            }
+            int base = cell * 4;
+            for (int k = base, end = base + ADJACENT.adjacentCount[cell]; k < end && ready != 0; k++) {
+                int neighbor = ADJACENT.adjacent[k];
+                if ((ready & (1L << neighbor)) != 0) {
+                    nextWave[nextSize++] = neighbor;
+                }
+            }
+        }
+        return nextSize;
+    }
+
+    private void endMove() {
+        redTurn = !redTurn;
+    }
+
+    // Ghi mã cũ của các ô lần đầu bị nước đi hiện tại chạm vào
+    private void touch(long mask) {
+        if (!recording) {
+            return;
+        }
+        for (long m = mask & ~touched; m != 0; m &= m - 1) {
+            int index = Long.numberOfTrailingZeros(m);
+            undoCells[undoTop++] = (index << 4) | code(index);
+        }
+        touched |= mask;
+    }
+
+    // Tăng một điểm cho các ô trong mask (ô 4 điểm giữ nguyên, ô trống thành 1 điểm)
+    private void increment(long mask) {
+        mask &= ~fours;
+        long newFours = threes & mask;
+        long newThrees = twos & mask;
+        long newTwos = ones & mask;
+        long newOnes = mask & ~(ones | twos | threes);
+        ones = (ones & ~mask) | newOnes;
+        twos = (twos & ~mask) | newTwos;
+        threes = (threes & ~mask) | newThrees;
+        fours |= newFours;
+    }
+
+    //Giải quyết chuỗi nổ bắt đầu từ ô index.
+    // Hàng đợi FIFO cho kết quả giống hệt xử lý theo từng lớp bằng explodeWave.
+    private void explode(int index, boolean isRed) {
+        int head = 0;
+        int tail = 0;
+        int explosions = 0;
+        cascadeQueue[tail++] = index;
+
+        while (head != tail && explosions < MAX_EXPLOSIONS) {
+            int cell = cascadeQueue[head];
+            head = (head + 1) & (QUEUE_CAPACITY - 1);
+            explosions++;
+
+            long ready = blast(cell, isRed);
+            // Đối thủ đã bị xóa sạch: ván đã kết thúc, phần còn lại của chuỗi không đổi kết quả
+            if ((isRed ? blue : red) == 0) {
+                break;
+            }
+            if (ready == 0) {
+                continue;
+            }
+            // Thứ tự trên, dưới, trái, phải như explodeWave
+            int base = cell * 4;
+            for (int k = base, end = base + ADJACENT.adjacentCount[cell]; k < end; k++) {
+                int neighbor = ADJACENT.adjacent[k];
+                if ((ready & (1L << neighbor)) != 0) {
+                    tail = enqueue(tail, head, neighbor);
+                }
+            }
+        }
+    }
+
+    // Nổ ô cell của bên isRed: ô thành trống, các ô kề thêm một điểm và chuyển sang màu bên nổ.
+    // Trả về các ô kề đã đạt 4 điểm.
+    private long blast(int cell, boolean isRed) {
+        long hit = NEIGHBORS[cell];
+        touch(hit | (1L << cell));
+        cellHash ^= cellKeys(hit | (1L << cell));
+
+        long keep = ~(1L << cell);
+        red &= keep;
+        blue &= keep;
+        ones &= keep;
+        twos &= keep;
+        threes &= keep;
+        fours &= keep;
+
+        increment(hit);
+        if (isRed) {
+            red |= hit;
+            blue &= ~hit;
+        } else {
+            blue |= hit;
+            red &= ~hit;
+        }
+        cellHash ^= cellKeys(hit);
+        return hit & fours;
+    }
+
+    private int enqueue(int tail, int head, int cell) {
+        int next = (tail + 1) & (QUEUE_CAPACITY - 1);
+        if (next == head) {
+            return tail;
+        }
+        cascadeQueue[tail] = cell;
+        return next;
+    }
+
+    public static int codeOf(CellState state) {
+        switch (state) {
+            case RED_ONE: return 1;
+            case RED_TWO: return 2;
+            case RED_THREE: return 3;
+            case RED_FOUR: return 4;
+            case BLUE_ONE: return 5;
+            case BLUE_TWO: return 6;
+            case BLUE_THREE: return 7;
+            case BLUE_FOUR: return 8;
+            default: return EMPTY;
+        }
+    }
+
+    public static CellState stateOf(int code) {
+        switch (code) {
+            case 1: return CellState.RED_ONE;
+            case 2: return CellState.RED_TWO;
+            case 3: return CellState.RED_THREE;
+            case 4: return CellState.RED_FOUR;
+            case 5: return CellState.BLUE_ONE;
+            case 6: return CellState.BLUE_TWO;
+            case 7: return CellState.BLUE_THREE;
+            case 8: return CellState.BLUE_FOUR;
+            default: return CellState.EMPTY;
+        }
+    }
+}
@@ -4,22 +4,40 @@ import java.awt.geom.Ellipse2D;
 import java.awt.geom.RoundRectangle2D;
 import javax.swing.*;
 
-public class Cell extends JPanel {
+// Một ô trên bàn cờ, vẽ bởi GameLogic (không phải component riêng để bàn lớn không tạo hàng nghìn JPanel).
+// Đổi trạng thái chỉ vẽ lại vùng của ô trên owner.
+public class Cell {
+    // Ô nhỏ hơn chừng này (px) chỉ tô màu theo số điểm, không vẽ viền bo tròn và các điểm
+    static final int DETAIL_SIZE = 12;
     private int row, col;
+    private final JComponent owner;
+    private final int x, y, size;
     private CellState state = CellState.EMPTY;
     private final Color emptyColor;
     private final Color redTeamColor;
     private final Color blueTeamColor;
     private static final int DOT_RADIUS = 6;
+    private static final int ARC = 15;
+    private static final int PADDING = 5;
     private boolean highlighted = false;
+    // Tỉ lệ vẽ quân (hiệu ứng nảy khi ô đổi trạng thái), 1 là kích thước bình thường
+    private float scale = 1f;
 
-    public Cell(int row, int col, Color emptyColor, Color redTeamColor, Color blueTeamColor) {
+    public Cell(int row, int col, Color emptyColor, Color redTeamColor, Color blueTeamColor,
+                JComponent owner, int x, int y, int size) {
         this.row = row;
         this.col = col;
         this.emptyColor = emptyColor;
         this.redTeamColor = redTeamColor;
         this.blueTeamColor = blueTeamColor;
-        setOpaque(false);
+        this.owner = owner;
+        this.x = x;
+        this.y = y;
+        this.size = size;
+    }
+
+    private void repaint() {
+        owner.repaint(x, y, size, size);
     }
 
     public CellState getState() {
@@ -27,30 +45,67 @@ public class Cell extends JPanel {
     }
 
     public void setState(CellState state) {
-        this.state = state;
-        repaint();
+        if (this.state != state) {
+            this.state = state;
+            repaint();
+        }
     }
     
+    public void setScale(float scale) {
+        if (this.scale != scale) {
+            this.scale = scale;
+            repaint();
+        }
+    }
+
     public void setHighlighted(boolean highlighted) {
-        this.highlighted = highlighted;
-        repaint();
+        if (this.highlighted != highlighted) {
+            this.highlighted = highlighted;
+            repaint();
+        }
     }
 
-    @Override
-    protected void paintComponent(Graphics g) {
-        super.paintComponent(g);
-        Graphics2D g2d = (Graphics2D) g;
+    // Vẽ ô lên g của owner (g không bị đổi sau khi vẽ)
+    public void paint(Graphics2D g) {
+        if (size < DETAIL_SIZE) {
+            paintSimple(g);
+            return;
+        }
+        Graphics2D g2d = (Graphics2D) g.create(x, y, size, size);
+        try {
+            paintDetailed(g2d);
+        } finally {
+            g2d.dispose();
+        }
+    }
+
+    // Ô nhỏ: màu đội đậm dần theo số điểm
+    private void paintSimple(Graphics2D g) {
+        g.setColor(emptyColor);
+        g.fillRect(x, y, size, size);
+        if (state != CellState.EMPTY) {
+            Color team = state.isRed() ? redTeamColor : blueTeamColor;
+            int dots = state.isRed() ? state.ordinal() : state.ordinal() - 4;
+            g.setColor(new Color(team.getRed(), team.getGreen(), team.getBlue(), 63 + 48 * dots));
+            g.fillRect(x, y, size, size);
+        }
+    }
+
+    private void paintDetailed(Graphics2D g2d) {
         g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-        
+        // Kích thước bo góc, lề và điểm theo tỉ lệ ô (ô 80px giữ nguyên như cũ)
+        int arc = ARC * size / 80;
+        int dotRadius = Math.max(1, DOT_RADIUS * size / 80);
+
         // Draw regular cell (square background)
         g2d.setColor(emptyColor);
-        g2d.fillRoundRect(0, 0, getWidth(), getHeight(), 15, 15);
+        g2d.fillRoundRect(0, 0, size, size, arc, arc);
 
         if (state != CellState.EMPTY) {
-            int padding = 5;
+            int padding = Math.max(1, PADDING * size / 80);
 
-            Shape outerSquare = new RoundRectangle2D.Float(0, 0, getWidth(), getHeight(), 15, 15);
-            Shape innerCircle = new Ellipse2D.Float(padding, padding, getWidth() - padding*2, getHeight() - padding*2);
+            Shape outerSquare = new RoundRectangle2D.Float(0, 0, size, size, arc, arc);
+            Shape innerCircle = new Ellipse2D.Float(padding, padding, size - padding*2, size - padding*2);
             Area areaSquare = new Area(outerSquare);
             Area areaCircle = new Area(innerCircle);
             areaSquare.subtract(areaCircle);
@@ -70,13 +125,20 @@ public class Cell extends JPanel {
             g2d.setColor(areaColor);
             g2d.fill(areaSquare);
             
+            // Quân và các điểm được vẽ theo tỉ lệ quanh tâm ô
+            if (scale != 1f) {
+                g2d.translate(size / 2.0, size / 2.0);
+                g2d.scale(scale, scale);
+                g2d.translate(-size / 2.0, -size / 2.0);
+            }
+
             // Draw the colored circle
             if (state.isRed()) {
                 g2d.setColor(redTeamColor);
             } else {
                 g2d.setColor(blueTeamColor);
             }
-            g2d.fillOval(padding, padding, getWidth() - padding*2, getHeight() - padding*2);
+            g2d.fillOval(padding, padding, size - padding*2, size - padding*2);
             
             // Add a subtle glow if highlighted
             if (highlighted) {
@@ -94,8 +156,8 @@ public class Cell extends JPanel {
                     g2d.fillOval(
                         padding - i, 
                         padding - i, 
-                        getWidth() - padding*2 + i*2, 
-                        getHeight() - padding*2 + i*2
+                        size - padding*2 + i*2, 
+                        size - padding*2 + i*2
                     );
                 }
                 g2d.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 1.0f));
@@ -107,43 +169,38 @@ public class Cell extends JPanel {
             switch (state) {
                 case BLUE_ONE:
                 case RED_ONE:
-                    g2d.fillOval(getWidth()/2 - DOT_RADIUS, getHeight()/2 - DOT_RADIUS,
-                            DOT_RADIUS*2, DOT_RADIUS*2);
+                    g2d.fillOval(size/2 - dotRadius, size/2 - dotRadius,
+                            dotRadius*2, dotRadius*2);
                     break;
                 case RED_TWO:
                 case BLUE_TWO:
-                    g2d.fillOval(getWidth()/3 - DOT_RADIUS, getHeight()/2 - DOT_RADIUS,
-                            DOT_RADIUS*2, DOT_RADIUS*2);
-                    g2d.fillOval(2*getWidth()/3 - DOT_RADIUS, getHeight()/2 - DOT_RADIUS,
-                            DOT_RADIUS*2, DOT_RADIUS*2);
+                    g2d.fillOval(size/3 - dotRadius, size/2 - dotRadius,
+                            dotRadius*2, dotRadius*2);
+                    g2d.fillOval(2*size/3 - dotRadius, size/2 - dotRadius,
+                            dotRadius*2, dotRadius*2);
                     break;
                 case RED_THREE:
                 case BLUE_THREE:
-                    g2d.fillOval(getWidth()/2 - DOT_RADIUS, getHeight()/3 - DOT_RADIUS,
-                            DOT_RADIUS*2, DOT_RADIUS*2);
-                    g2d.fillOval(getWidth()/3 - DOT_RADIUS, 2*getHeight()/3 - DOT_RADIUS,
-                            DOT_RADIUS*2, DOT_RADIUS*2);
-                    g2d.fillOval(2*getWidth()/3 - DOT_RADIUS, 2*getHeight()/3 - DOT_RADIUS,
-                            DOT_RADIUS*2, DOT_RADIUS*2);
+                    g2d.fillOval(size/2 - dotRadius, size/3 - dotRadius,
+                            dotRadius*2, dotRadius*2);
+                    g2d.fillOval(size/3 - dotRadius, 2*size/3 - dotRadius,
+                            dotRadius*2, dotRadius*2);
+                    g2d.fillOval(2*size/3 - dotRadius, 2*size/3 - dotRadius,
+                            dotRadius*2, dotRadius*2);
                     break;
                 case RED_FOUR:
                 case BLUE_FOUR:
-                    g2d.fillOval(getWidth()/3 - DOT_RADIUS, getHeight()/3 - DOT_RADIUS,
-                            DOT_RADIUS*2, DOT_RADIUS*2);
-                    g2d.fillOval(2*getWidth()/3 - DOT_RADIUS, getHeight()/3 - DOT_RADIUS,
-                            DOT_RADIUS*2, DOT_RADIUS*2);
-                    g2d.fillOval(getWidth()/3 - DOT_RADIUS, 2*getHeight()/3 - DOT_RADIUS,
-                            DOT_RADIUS*2, DOT_RADIUS*2);
-                    g2d.fillOval(2*getWidth()/3 - DOT_RADIUS, 2*getHeight()/3 - DOT_RADIUS,
-                            DOT_RADIUS*2, DOT_RADIUS*2);
+                    g2d.fillOval(size/3 - dotRadius, size/3 - dotRadius,
+                            dotRadius*2, dotRadius*2);
+                    g2d.fillOval(2*size/3 - dotRadius, size/3 - dotRadius,
+                            dotRadius*2, dotRadius*2);
+                    g2d.fillOval(size/3 - dotRadius, 2*size/3 - dotRadius,
+                            dotRadius*2, dotRadius*2);
+                    g2d.fillOval(2*size/3 - dotRadius, 2*size/3 - dotRadius,
+                            dotRadius*2, dotRadius*2);
                     break;
             }
         }
     }
 
-    public Cell clone(){
-        Cell cloneCell = new Cell(row, col, emptyColor, redTeamColor, blueTeamColor);
-        cloneCell.setState(state);
-        return cloneCell;
-    }
 }
\ No newline at end of file
@@ -0,0 +1,148 @@
+import javax.swing.*;
+
+// Phần chung của các engine AI: chờ tới lượt trên giao diện, tìm nước đi trong luồng nền
+// rồi đánh lên GameLogic. Lớp con chỉ cần cài đặt findBestMove(BitBoard).
+// Engine được chọn bằng thuộc tính hệ thống colorwars.engine: alphabeta (mặc định) hoặc mcts;
+// bàn cờ khác 5x5 luôn dùng GridPlayer.
+public abstract class ComputerPlayer {
+    public static final String ENGINE_PROPERTY = "colorwars.engine";
+    protected static final long DEFAULT_THINK_TIME_MS = 2000;
+
+    protected final GameLogic gameLogic;
+    protected final boolean isRed;
+    protected final int GRID_SIZE;
+    private Timer timer;
+    private long startTime;
+
+    private final BitBoard rootBoard = new BitBoard();
+    protected long thinkTimeMillis;
+
+    protected ComputerPlayer(GameLogic gameLogic, boolean isRed, long thinkTimeMillis) {
+        this.gameLogic = gameLogic;
+        this.isRed = isRed;
+        this.GRID_SIZE = BitBoard.SIZE;
+        this.thinkTimeMillis = thinkTimeMillis;
+    }
+
+    // Tạo engine theo thuộc tính colorwars.engine (vd. java -Dcolorwars.engine=mcts Main)
+    public static ComputerPlayer create(GameLogic gameLogic, boolean isRed) {
+        if (gameLogic.getBoard().size() != BitBoard.SIZE) {
+            return new GridPlayer(gameLogic, isRed);
+        }
+        String engine = System.getProperty(ENGINE_PROPERTY, "alphabeta");
+        if ("mcts".equalsIgnoreCase(engine)) {
+            return new MctsPlayer(gameLogic, isRed);
+        }
+        return new AIPlayer(gameLogic, isRed);
+    }
+
+    // Tìm nước đi cho thế cờ root (bên đi là bên của engine)
+    public abstract Move findBestMove(BitBoard root);
+
+    // Tìm nước đi cho thế cờ trên giao diện; mặc định chép sang BitBoard (chỉ dùng cho bàn 5x5)
+    protected Move findBestMove(GameBoard root) {
+        rootBoard.copyFrom((BitBoard) root);
+        return findBestMove(rootBoard);
+    }
+
+    // Dừng engine khi không dùng nữa; lớp con giải phóng luồng riêng nếu có
+    public void shutdown() {
+        deactivate();
+    }
+
+    // Suy nghĩ trước trong lượt của người chơi (mặc định không làm gì).
+    // Gọi trên luồng giao diện khi tới lượt người chơi, nên không được chờ luồng nền;
+    // engine phải tự dừng khi cancelPondering hoặc stopPondering được gọi.
+    public void startPondering() {
+    }
+
+    // Báo dừng suy nghĩ trước, không chờ luồng nền (dùng trên luồng giao diện)
+    public void cancelPondering() {
+    }
+
+    // Dừng suy nghĩ trước và chờ luồng nền kết thúc (gọi từ luồng tìm nước đi, không gọi trên luồng giao diện)
+    public void stopPondering() {
+    }
+
+    public boolean isRed() {
+        return isRed;
+    }
+
+    public void setThinkTimeMillis(long thinkTimeMillis) {
+        this.thinkTimeMillis = thinkTimeMillis;
+    }
+
+    public long getThinkTimeMillis() {
+        return thinkTimeMillis;
+    }
+
+    public void activate() {
+        if (timer != null) {
+            timer.stop();
+        }
+
+        boolean isAITurn = (isRed && gameLogic.isRedTurn()) || (!isRed && !gameLogic.isRedTurn());
+        
+        if (!isAITurn) {
+            return;
+        }
+        
+        timer = new Timer(100, e -> {
+            if ((isRed && gameLogic.isRedTurn()) || (!isRed && !gameLogic.isRedTurn())) {
+                makeMove();
+            }
+        });
+        timer.setRepeats(false);
+        timer.start();
+    }
+
+    public void deactivate() {
+        if (timer != null) {
+            timer.stop();
+        }
+        cancelPondering();
+    }
+
+
+    //Tao nuoc di
+    private void makeMove() {
+        SwingWorker<Move, Void> worker = new SwingWorker<Move, Void>() {
+            @Override
+            protected Move doInBackground() {
+                try {
+                    startTime = System.currentTimeMillis();
+                    Move bestMove = findBestMove();
+                    return bestMove;
+                } catch (Exception e) {
+                    e.printStackTrace();
+                    return null;
+                }
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    Move bestMove = get();
+                    if (bestMove != null) {
+                        SwingUtilities.invokeLater(() -> {
+                            try {
+                                gameLogic.makeMove(bestMove.row, bestMove.col);
+                            } catch (Exception e) {
+                                e.printStackTrace();
+                            }
+                        });
+                    }
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+            }
+        };
+        worker.execute();
+    }
+
+    // Tìm nước đi cho thế cờ hiện tại trên giao diện
+    private Move findBestMove() {
+        stopPondering();
+        return findBestMove(gameLogic.getBoard());
+    }
+}
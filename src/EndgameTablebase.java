@@ -0,0 +1,303 @@
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+// Bảng tàn cuộc: kết quả đã chứng minh cho mọi thế cờ có tối đa K ô có quân (cả hai bên đã đi nước đầu).
+// Mỗi thế cờ một byte: > 0 bên đi thắng sau đúng v nước, < 0 bên đi thua sau -v nước, 0 chưa rõ.
+// "Chưa rõ" gồm cả thế cờ mà mọi cách chơi tốt đều dẫn ra ngoài bảng (chuỗi nổ làm tăng số ô có quân).
+// Chỉ số: các ô có quân đánh số theo hệ tổ hợp, mã quân (1-8) mỗi ô 3 bit, bit cuối là bên đi.
+// Khi tạo bảng (EndgameTablebaseBuilder) giá trị nằm trong mảng byte đầy đủ theo chỉ số; file và bảng đọc từ file
+// chỉ giữ các thế cờ đã chứng minh (khoảng 10% với K = 3): chỉ số tăng dần và giá trị, tra bằng tìm kiếm nhị phân.
+// File: header 20 byte ("CWTB", phiên bản, kích thước bàn cờ, K, số entry), rồi mỗi entry là khoảng cách
+// tới chỉ số trước đó (varint, 7 bit mỗi byte) và byte giá trị.
+public class EndgameTablebase {
+    public static final String DEFAULT_PATH = "book/endgame.tb";
+    public static final String TABLEBASE_PROPERTY = "colorwars.tablebase";
+    public static final int UNKNOWN = 0;
+    // Giới hạn để chỉ số vừa kiểu int (K = 4 đã cần khoảng 100 MB khi tạo)
+    public static final int MAX_PIECES = 4;
+
+    private static final int MAGIC = 0x43575442; // "CWTB"
+    private static final int VERSION = 2;
+    private static final int HEADER_BYTES = 20;
+    private static final int CELLS = BitBoard.CELLS;
+    private static final int[][] BINOMIAL = new int[CELLS + 1][MAX_PIECES + 1];
+
+    static {
+        for (int n = 0; n <= CELLS; n++) {
+            BINOMIAL[n][0] = 1;
+            for (int k = 1; k <= Math.min(n, MAX_PIECES); k++) {
+                BINOMIAL[n][k] = BINOMIAL[n - 1][k - 1] + (k <= n - 1 ? BINOMIAL[n - 1][k] : 0);
+            }
+        }
+    }
+
+    private final int maxPieces;
+    // offsets[k]: chỉ số đầu tiên của các thế cờ có k ô có quân
+    private final int[] offsets;
+    // Mảng đầy đủ khi đang tạo bảng, null với bảng đọc từ file
+    private final ByteBuffer values;
+    // Các thế cờ đã chứng minh của bảng đọc từ file, chỉ số tăng dần
+    private final int[] provenIndices;
+    private final byte[] provenValues;
+
+    EndgameTablebase(int maxPieces, ByteBuffer values) {
+        this.maxPieces = maxPieces;
+        this.offsets = offsets(maxPieces);
+        this.values = values;
+        this.provenIndices = null;
+        this.provenValues = null;
+    }
+
+    private EndgameTablebase(int maxPieces, int[] provenIndices, byte[] provenValues) {
+        this.maxPieces = maxPieces;
+        this.offsets = offsets(maxPieces);
+        this.values = null;
+        this.provenIndices = provenIndices;
+        this.provenValues = provenValues;
+    }
+
+    // Số thế cờ (tính cả hai bên đi) với tối đa maxPieces ô có quân
+    static int size(int maxPieces) {
+        return offsets(maxPieces)[maxPieces + 1];
+    }
+
+    private static int[] offsets(int maxPieces) {
+        if (maxPieces < 1 || maxPieces > MAX_PIECES) {
+            throw new IllegalArgumentException("maxPieces must be 1.." + MAX_PIECES);
+        }
+        int[] offsets = new int[maxPieces + 2];
+        for (int k = 1; k <= maxPieces; k++) {
+            offsets[k + 1] = offsets[k] + BINOMIAL[CELLS][k] * (1 << (3 * k)) * 2;
+        }
+        return offsets;
+    }
+
+    public static EndgameTablebase open(Path path) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path)).order(ByteOrder.BIG_ENDIAN);
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("Not a tablebase file");
+        }
+        if (buffer.getInt(8) != BitBoard.SIZE) {
+            throw new IOException("Tablebase is for a " + buffer.getInt(8) + "x" + buffer.getInt(8) + " board");
+        }
+        int maxPieces = buffer.getInt(12);
+        int count = buffer.getInt(16);
+        if (maxPieces < 1 || maxPieces > MAX_PIECES || count < 0 || count > size(maxPieces)) {
+            throw new IOException("Corrupt tablebase");
+        }
+        int size = size(maxPieces);
+        int[] indices = new int[count];
+        byte[] values = new byte[count];
+        buffer.position(HEADER_BYTES);
+        int index = -1;
+        try {
+            for (int i = 0; i < count; i++) {
+                int delta = 0;
+                for (int shift = 0; ; shift += 7) {
+                    int b = buffer.get();
+                    delta |= (b & 0x7F) << shift;
+                    if (b >= 0) {
+                        break;
+                    }
+                }
+                index += delta;
+                values[i] = buffer.get();
+                if (delta <= 0 || index >= size || values[i] == UNKNOWN) {
+                    throw new IOException("Corrupt tablebase");
+                }
+                indices[i] = index;
+            }
+        } catch (java.nio.BufferUnderflowException e) {
+            throw new IOException("Corrupt tablebase");
+        }
+        if (buffer.hasRemaining()) {
+            throw new IOException("Corrupt tablebase");
+        }
+        return new EndgameTablebase(maxPieces, indices, values);
+    }
+
+    // Bảng mặc định, mở một lần và dùng chung; null nếu không có file
+    public static EndgameTablebase getDefault() {
+        return DefaultHolder.TABLEBASE;
+    }
+
+    private static class DefaultHolder {
+        static final EndgameTablebase TABLEBASE = openDefault();
+
+        private static EndgameTablebase openDefault() {
+            Path path = Paths.get(System.getProperty(TABLEBASE_PROPERTY, DEFAULT_PATH));
+            if (!Files.isReadable(path)) {
+                return null;
+            }
+            try {
+                return open(path);
+            } catch (IOException e) {
+                e.printStackTrace();
+                return null;
+            }
+        }
+    }
+
+    public void write(Path path) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        int count = 0;
+        int previous = -1;
+        for (int index = 0; index < size(); index++) {
+            int value = get(index);
+            if (value == UNKNOWN) {
+                continue;
+            }
+            int delta = index - previous;
+            while (delta >= 0x80) {
+                data.write((delta & 0x7F) | 0x80);
+                delta >>>= 7;
+            }
+            data.write(delta);
+            data.write(value);
+            previous = index;
+            count++;
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.BIG_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putInt(BitBoard.SIZE).putInt(maxPieces).putInt(count);
+        ByteArrayOutputStream file = new ByteArrayOutputStream(HEADER_BYTES + data.size());
+        file.write(header.array());
+        data.writeTo(file);
+        Files.write(path, file.toByteArray());
+    }
+
+    public int getMaxPieces() {
+        return maxPieces;
+    }
+
+    public int size() {
+        return offsets[maxPieces + 1];
+    }
+
+    // Số thế cờ đã chứng minh thắng hoặc thua
+    public int provenCount() {
+        if (values == null) {
+            return provenIndices.length;
+        }
+        int count = 0;
+        for (int index = 0; index < size(); index++) {
+            if (values.get(index) != UNKNOWN) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // Thế cờ có nằm trong phạm vi của bảng không
+    public boolean covers(BitBoard board) {
+        return board.isRedMoved() && board.isBlueMoved()
+                && Long.bitCount(board.occupied()) <= maxPieces && !board.isGameOver();
+    }
+
+    // Giá trị theo góc nhìn bên đang đi, UNKNOWN nếu không có trong bảng hoặc chưa rõ
+    public int probe(BitBoard board) {
+        if (!covers(board)) {
+            return UNKNOWN;
+        }
+        return get(index(board));
+    }
+
+    int index(BitBoard board) {
+        long occupied = board.occupied();
+        int pieces = Long.bitCount(occupied);
+        int rank = 0;
+        int codes = 0;
+        int i = 0;
+        for (long m = occupied; m != 0; m &= m - 1, i++) {
+            int cell = Long.numberOfTrailingZeros(m);
+            rank += BINOMIAL[cell][i + 1];
+            codes = (codes << 3) | (board.code(cell) - 1);
+        }
+        int position = offsets[pieces] / 2 + (rank << (3 * pieces)) + codes;
+        return position * 2 + (board.isRedTurn() ? 0 : 1);
+    }
+
+    // Dựng lại thế cờ từ chỉ số (ngược với index)
+    void decode(int index, BitBoard board) {
+        int pieces = 1;
+        while (index >= offsets[pieces + 1]) {
+            pieces++;
+        }
+        boolean redTurn = (index & 1) == 0;
+        int position = index / 2 - offsets[pieces] / 2;
+        int codes = position & ((1 << (3 * pieces)) - 1);
+        int rank = position >>> (3 * pieces);
+
+        board.clear();
+        int cell = CELLS - 1;
+        for (int i = pieces; i >= 1; i--) {
+            while (BINOMIAL[cell][i] > rank) {
+                cell--;
+            }
+            rank -= BINOMIAL[cell][i];
+            int code = ((codes >>> (3 * (pieces - i))) & 7) + 1;
+            board.setCode(cell, code);
+            cell--;
+        }
+        board.setFlags(redTurn, true, true);
+    }
+
+    int get(int index) {
+        if (values != null) {
+            return values.get(index);
+        }
+        int i = Arrays.binarySearch(provenIndices, index);
+        return i >= 0 ? provenValues[i] : UNKNOWN;
+    }
+
+    void set(int index, int value) {
+        if (values == null) {
+            throw new IllegalStateException("Tablebase read from a file is read-only");
+        }
+        values.put(index, (byte) value);
+    }
+
+    // Nước đi tốt nhất theo bảng: thắng nhanh nhất, hoặc khi thua thì kéo dài nhất.
+    // Trả về chỉ số ô, hoặc -1 nếu thế cờ không có kết quả trong bảng.
+    public int bestMove(BitBoard board) {
+        int value = probe(board);
+        if (value == UNKNOWN) {
+            return -1;
+        }
+        BitBoard child = new BitBoard();
+        int bestMove = -1;
+        int bestDistance = value > 0 ? Integer.MAX_VALUE : -1;
+        for (int i = 0; i < CELLS; i++) {
+            if (!board.isLegal(i)) {
+                continue;
+            }
+            child.copyFrom(board);
+            child.applyMove(i);
+            if (child.isGameOver()) {
+                // Bên vừa đi luôn là bên thắng khi ván kết thúc
+                if (value > 0) {
+                    return i;
+                }
+                continue;
+            }
+            int childValue = probe(child);
+            if (value > 0 && childValue < 0 && -childValue < bestDistance) {
+                bestDistance = -childValue;
+                bestMove = i;
+            } else if (value < 0 && childValue > 0 && childValue > bestDistance) {
+                bestDistance = childValue;
+                bestMove = i;
+            }
+        }
+        return bestMove;
+    }
+}
@@ -0,0 +1,129 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+// Tạo bảng tàn cuộc bằng phân tích ngược theo từng vòng, chia đều cho các luồng.
+// Vòng d đánh dấu thế cờ thắng sau d nước (có nước dẫn tới ván kết thúc hoặc tới thế cờ thua sau d-1 nước)
+// và thua sau d nước (mọi nước đều dẫn tới thế cờ đối phương thắng sau ít hơn d nước, không nước nào ra ngoài bảng).
+// Lặp tới khi một vòng không đánh dấu thêm được thế cờ nào.
+// Chạy: java EndgameTablebaseBuilder [K] [số luồng] [file]
+public class EndgameTablebaseBuilder {
+    // Giá trị lưu trong một byte có dấu
+    private static final int MAX_DISTANCE = 127;
+    private static final int CHUNK = 1 << 14;
+
+    public static void main(String[] args) throws Exception {
+        int maxPieces = args.length > 0 ? Integer.parseInt(args[0]) : 3;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        Path path = Paths.get(args.length > 2 ? args[2] : EndgameTablebase.DEFAULT_PATH);
+
+        long start = System.nanoTime();
+        EndgameTablebase tablebase = generate(maxPieces, threads);
+        tablebase.write(path);
+        System.out.printf("Wrote %d proven of %d positions to %s in %.1f s%n",
+                tablebase.provenCount(), tablebase.size(), path, (System.nanoTime() - start) / 1e9);
+    }
+
+    static EndgameTablebase generate(int maxPieces, int threads) throws Exception {
+        int size = EndgameTablebase.size(maxPieces);
+        EndgameTablebase tablebase = new EndgameTablebase(maxPieces, ByteBuffer.allocate(size));
+        System.out.printf("Tablebase: %d positions with at most %d occupied cells, %d threads%n", size, maxPieces, threads);
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            int wins = 0, losses = 0;
+            for (int distance = 1; distance <= MAX_DISTANCE; distance++) {
+                int round = distance;
+                AtomicInteger nextChunk = new AtomicInteger();
+                AtomicInteger roundWins = new AtomicInteger();
+                AtomicInteger roundLosses = new AtomicInteger();
+                List<Future<?>> tasks = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    tasks.add(pool.submit(() -> {
+                        BitBoard board = new BitBoard();
+                        BitBoard child = new BitBoard();
+                        int chunk;
+                        while ((chunk = nextChunk.getAndIncrement()) * CHUNK < size) {
+                            int end = Math.min(size, (chunk + 1) * CHUNK);
+                            for (int index = chunk * CHUNK; index < end; index++) {
+                                int value = resolve(tablebase, index, round, board, child);
+                                if (value > 0) {
+                                    roundWins.incrementAndGet();
+                                } else if (value < 0) {
+                                    roundLosses.incrementAndGet();
+                                }
+                            }
+                        }
+                        return null;
+                    }));
+                }
+                for (Future<?> task : tasks) {
+                    task.get();
+                }
+                wins += roundWins.get();
+                losses += roundLosses.get();
+                System.out.printf("  distance %3d: +%d wins, +%d losses%n", distance, roundWins.get(), roundLosses.get());
+                if (roundWins.get() == 0 && roundLosses.get() == 0) {
+                    break;
+                }
+            }
+            System.out.printf("Proven: %d wins, %d losses, %d other%n", wins, losses, size - wins - losses);
+        } finally {
+            pool.shutdown();
+        }
+        return tablebase;
+    }
+
+    // Thử đánh dấu thế cờ ở vòng distance; trả về giá trị mới hoặc 0 nếu không đổi.
+    // Mỗi luồng chỉ ghi vào chỉ số của mình; giá trị đọc từ luồng khác trong cùng vòng có độ sâu = distance
+    // nên bị bỏ qua, vì vậy kết quả không phụ thuộc thứ tự chạy.
+    private static int resolve(EndgameTablebase tablebase, int index, int distance, BitBoard board, BitBoard child) {
+        if (tablebase.get(index) != EndgameTablebase.UNKNOWN) {
+            return 0;
+        }
+        tablebase.decode(index, board);
+        if (board.isGameOver()) {
+            return 0;
+        }
+
+        boolean allLose = true;
+        boolean hasMove = false;
+        for (int i = 0; i < BitBoard.CELLS; i++) {
+            if (!board.isLegal(i)) {
+                continue;
+            }
+            hasMove = true;
+            child.copyFrom(board);
+            child.applyMove(i);
+            if (child.isGameOver()) {
+                // Bên vừa đi thắng ngay
+                tablebase.set(index, 1);
+                return 1;
+            }
+            if (!tablebase.covers(child)) {
+                allLose = false;
+                continue;
+            }
+            int childValue = tablebase.get(tablebase.index(child));
+            if (childValue < 0 && -childValue < distance) {
+                tablebase.set(index, distance);
+                return distance;
+            }
+            if (childValue <= 0 || childValue >= distance) {
+                allLose = false;
+            }
+        }
+        if (hasMove && allLose) {
+            tablebase.set(index, -distance);
+            return -distance;
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,1255 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Đo hiệu năng engine AI trên một bộ thế cờ cố định (không cần giao diện).
+// Chạy: java EngineBenchmark smp [số luồng] [độ sâu]
+//       java EngineBenchmark rules [số ván]
+//       java EngineBenchmark reference [số ván]
+//       java EngineBenchmark cascade [số ván]
+//       java EngineBenchmark scale [các kích thước, vd. 5,16,64,256] [ms mỗi kích thước] [ms mỗi nước]
+//       java EngineBenchmark eval [số lần đi ngẫu nhiên]
+//       java [-Dcolorwars.network=file] EngineBenchmark nnue [số lần đi ngẫu nhiên] [số ván] [ms mỗi nước]
+//       java EngineBenchmark order [độ sâu]
+//       java EngineBenchmark alloc [độ sâu]
+//       java EngineBenchmark pvs [độ sâu]
+//       java EngineBenchmark quiesce [độ sâu] [số ván] [ms mỗi nước]
+//       java EngineBenchmark selective [độ sâu] [số ván] [ms mỗi nước]
+//       java EngineBenchmark solve [số nút] [số thế cờ] [số ván] [ms mỗi nước]
+//       java EngineBenchmark mcts [ms mỗi nước]
+//       java EngineBenchmark match [số ván] [ms mỗi nước]
+public class EngineBenchmark {
+    private static final long POSITION_SEED = 20250417L;
+    private static final int POSITION_COUNT = 24;
+
+    public static void main(String[] args) {
+        String mode = args.length > 0 ? args[0] : "smp";
+        switch (mode) {
+            case "smp":
+                int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+                int depth = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+                benchmarkParallel(threads, depth);
+                break;
+            case "rules":
+                benchmarkRules(args.length > 1 ? Integer.parseInt(args[1]) : 100000);
+                break;
+            case "scale":
+                benchmarkScale(args.length > 1 ? args[1] : "5,8,16,32,64,128,256",
+                        args.length > 2 ? Long.parseLong(args[2]) : 1000,
+                        args.length > 3 ? Long.parseLong(args[3]) : 500);
+                break;
+            case "reference":
+                if (!checkReferenceRules(args.length > 1 ? Integer.parseInt(args[1]) : 20000)) {
+                    System.exit(1);
+                }
+                break;
+            case "cascade":
+                if (!checkCascade(args.length > 1 ? Integer.parseInt(args[1]) : 20000)) {
+                    System.exit(1);
+                }
+                break;
+            case "eval":
+                int walks = args.length > 1 ? Integer.parseInt(args[1]) : 20000;
+                if (!benchmarkEvaluator(walks)) {
+                    System.exit(1);
+                }
+                break;
+            case "nnue":
+                benchmarkNeural(args.length > 1 ? Integer.parseInt(args[1]) : 20000,
+                        args.length > 2 ? Integer.parseInt(args[2]) : 24,
+                        args.length > 3 ? Long.parseLong(args[3]) : 50);
+                break;
+            case "order":
+                benchmarkOrdering(args.length > 1 ? Integer.parseInt(args[1]) : 10);
+                break;
+            case "quiesce":
+                benchmarkQuiescence(args.length > 1 ? Integer.parseInt(args[1]) : 10,
+                        args.length > 2 ? Integer.parseInt(args[2]) : 24,
+                        args.length > 3 ? Long.parseLong(args[3]) : 20);
+                break;
+            case "selective":
+                benchmarkSelective(args.length > 1 ? Integer.parseInt(args[1]) : 12,
+                        args.length > 2 ? Integer.parseInt(args[2]) : 24,
+                        args.length > 3 ? Long.parseLong(args[3]) : 20);
+                break;
+            case "solve":
+                benchmarkSolver(args.length > 1 ? Long.parseLong(args[1]) : ProofNumberSearch.DEFAULT_NODE_LIMIT,
+                        args.length > 2 ? Integer.parseInt(args[2]) : 500,
+                        args.length > 3 ? Integer.parseInt(args[3]) : 24,
+                        args.length > 4 ? Long.parseLong(args[4]) : 100);
+                break;
+            case "pvs":
+                if (!benchmarkPvs(args.length > 1 ? Integer.parseInt(args[1]) : 12)) {
+                    System.exit(1);
+                }
+                break;
+            case "alloc":
+                benchmarkAllocation(args.length > 1 ? Integer.parseInt(args[1]) : 10);
+                break;
+            case "mcts":
+                benchmarkMcts(args.length > 1 ? Long.parseLong(args[1]) : 200);
+                break;
+            case "match":
+                int games = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+                long moveTime = args.length > 2 ? Long.parseLong(args[2]) : 100;
+                playMatch(games, moveTime);
+                break;
+            default:
+                System.err.println("Unknown mode: " + mode);
+        }
+    }
+
+    // Bộ thế cờ giữa ván sinh từ các ván ngẫu nhiên với seed cố định.
+    // Chỉ giữ thế cờ mà bên đi có ít nhất 2 nước và không có quân 3 điểm (AI sẽ trả lời ngay).
+    static List<BitBoard> positions(int count) {
+        Random random = new Random(POSITION_SEED);
+        List<BitBoard> positions = new ArrayList<>();
+        int[] legal = new int[BitBoard.CELLS];
+        while (positions.size() < count) {
+            BitBoard board = new BitBoard();
+            int plies = 6 + random.nextInt(30);
+            for (int ply = 0; ply < plies && !board.isGameOver(); ply++) {
+                int n = board.legalMoves(legal);
+                board.applyMove(legal[random.nextInt(n)]);
+            }
+            boolean toMove = board.isRedTurn();
+            if (!board.isGameOver()
+                    && (board.ownMask(toMove) & board.dotMask(3)) == 0
+                    && board.legalMoves(legal) > 1) {
+                positions.add(board);
+            }
+        }
+        return positions;
+    }
+
+    // Kiểm tra BitBoard với luật gốc của GameLogic (ReferenceRules) trên các ván ngẫu nhiên: sau mỗi nước mọi ô,
+    // lượt đi và cờ đã đi phải giống nhau, kể cả khi ô 4 điểm bị trúng lại và nổ thêm lần nữa. Một ô không hợp lệ
+    // chọn ngẫu nhiên phải bị cả hai bên từ chối. Hai khác biệt được chấp nhận:
+    // - BitBoard dừng chuỗi nổ khi đối thủ đã bị xóa sạch: chỉ so kết thúc ván và bên thắng.
+    // - Chuỗi nổ quá MAX_EXPLOSIONS ô: luật gốc được dừng ở cùng chỗ và phải cho cùng thế cờ; chuỗi đó còn phải
+    //   thật sự không dừng theo luật gốc (chạy tới 16 lần giới hạn), nếu không là sai khác. Giao diện gốc treo
+    //   ở chuỗi đó nên thế cờ sau đó (còn ô 4 điểm) không có trong luật gốc: ván đó dừng so sánh.
+    // Trả về false nếu có sai khác.
+    static boolean checkReferenceRules(int games) {
+        Random random = new Random(POSITION_SEED);
+        int[] legal = new int[BitBoard.CELLS];
+        BitBoard board = new BitBoard();
+        ReferenceRules reference = new ReferenceRules();
+        reference.explosionLimit = BitBoard.MAX_EXPLOSIONS;
+        ReferenceRules before = new ReferenceRules(reference);
+        long moves = 0, mismatches = 0, doubleEnqueueMoves = 0, doubleEnqueues = 0, earlyStops = 0, endless = 0;
+        int maxExplosions = 0;
+        for (int game = 0; game < games; game++) {
+            board.clear();
+            reference.reset();
+            for (int ply = 0; ply < BitBoard.MAX_PLY && !board.isGameOver(); ply++) {
+                String error = null;
+                long illegal = ~board.legalMoveMask() & BitBoard.FULL;
+                if (illegal != 0) {
+                    int index = pickBit(illegal, random);
+                    if (reference.handleCellClick(index / BitBoard.SIZE, index % BitBoard.SIZE)) {
+                        error = "reference accepted illegal move " + index;
+                    }
+                }
+                int move = legal[random.nextInt(board.legalMoves(legal))];
+                board.applyMove(move);
+                before.copyFrom(reference);
+                if (error == null && !reference.handleCellClick(move / BitBoard.SIZE, move % BitBoard.SIZE)) {
+                    error = "reference rejected move " + move;
+                }
+                moves++;
+                if (!reference.limitHit) {
+                    maxExplosions = Math.max(maxExplosions, reference.explosions);
+                }
+                if (reference.doubleEnqueues > 0) {
+                    doubleEnqueueMoves++;
+                    doubleEnqueues += reference.doubleEnqueues;
+                }
+                if (error == null && reference.limitHit) {
+                    ReferenceRules unlimited = new ReferenceRules(before);
+                    unlimited.explosionLimit = 16 * BitBoard.MAX_EXPLOSIONS;
+                    unlimited.handleCellClick(move / BitBoard.SIZE, move % BitBoard.SIZE);
+                    if (unlimited.limitHit) {
+                        endless++;
+                    } else if (!unlimited.isGameOver()) {
+                        error = "original cascade ends after " + unlimited.explosions + " explosions";
+                    }
+                }
+                if (error == null && board.isGameOver()) {
+                    // Quân bên thua không thể xuất hiện lại trong phần chuỗi nổ còn lại của luật gốc
+                    if (!reference.isGameOver() || (reference.count(true) > 0) != (board.redPieces() > 0)) {
+                        error = "game over/winner differs";
+                    } else if (!sameCells(board, reference)) {
+                        earlyStops++;
+                    }
+                } else if (error == null) {
+                    if (!sameCells(board, reference) || board.isRedTurn() != reference.isRedTurn()
+                            || board.isRedMoved() != reference.isRedHasMoved()
+                            || board.isBlueMoved() != reference.isBlueHasMoved() || reference.isGameOver()) {
+                        error = "position differs";
+                    }
+                }
+                if (error == null && reference.limitHit && !board.isGameOver()) {
+                    break;
+                }
+                if (error != null) {
+                    if (mismatches++ < 5) {
+                        System.out.printf("Mismatch in game %d ply %d: %s%n", game, ply, error);
+                    }
+                    break;
+                }
+            }
+        }
+        System.out.printf("Reference rules: %d games, %d moves, %d mismatches; %d moves with %d repeated four-dot"
+                        + " explosions, %d games stopped early after a wipe-out, %d endless cascades stopped at %d,"
+                        + " longest finished cascade %d%n",
+                games, moves, mismatches, doubleEnqueueMoves, doubleEnqueues, earlyStops, endless,
+                BitBoard.MAX_EXPLOSIONS, maxExplosions);
+        return mismatches == 0;
+    }
+
+    private static boolean sameCells(BitBoard board, ReferenceRules reference) {
+        for (int i = 0; i < BitBoard.CELLS; i++) {
+            if (board.getState(i / BitBoard.SIZE, i % BitBoard.SIZE)
+                    != reference.getState(i / BitBoard.SIZE, i % BitBoard.SIZE)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int pickBit(long mask, Random random) {
+        int n = random.nextInt(Long.bitCount(mask));
+        for (int i = 0; i < n; i++) {
+            mask &= mask - 1;
+        }
+        return Long.numberOfTrailingZeros(mask);
+    }
+
+    // Bảng ô kề và chuỗi nổ của BitBoard:
+    // - Neighbors ở mọi kích thước 1..32 và 64, 128, 256 phải khớp các ô tính lại bằng mảng hướng (trên, dưới,
+    //   trái, phải, đúng thứ tự của GameLogic gốc), ô kề trên bàn 5x5 phải khớp mặt nạ ô kề của BitBoard.
+    // - makeMove/unmakeMove (kể cả chuỗi nổ) trên các ván ngẫu nhiên không được cấp phát byte nào.
+    // - Chuỗi nổ phải cho cùng thế cờ với luật gốc (checkReferenceRules).
+    // Trả về false nếu có sai khác.
+    static boolean checkCascade(int games) {
+        int[][] directions = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}};
+        long tableErrors = 0;
+        List<Integer> sizes = new ArrayList<>();
+        for (int size = 1; size <= 32; size++) {
+            sizes.add(size);
+        }
+        sizes.add(64);
+        sizes.add(128);
+        sizes.add(256);
+        for (int size : sizes) {
+            Neighbors neighbors = Neighbors.of(size);
+            for (int row = 0; row < size; row++) {
+                for (int col = 0; col < size; col++) {
+                    int index = row * size + col;
+                    int count = 0;
+                    long mask = 0;
+                    for (int[] dir : directions) {
+                        int r = row + dir[0], c = col + dir[1];
+                        if (r >= 0 && r < size && c >= 0 && c < size) {
+                            if (count >= neighbors.adjacentCount[index]
+                                    || neighbors.adjacent[index * 4 + count] != r * size + c) {
+                                tableErrors++;
+                            }
+                            count++;
+                            if (size == BitBoard.SIZE) {
+                                mask |= 1L << (r * size + c);
+                            }
+                        }
+                    }
+                    if (count != neighbors.adjacentCount[index]) {
+                        tableErrors++;
+                    }
+                    if (size == BitBoard.SIZE && mask != BitBoard.neighbors(index)) {
+                        tableErrors++;
+                    }
+                    count = 0;
+                    for (int[] first : directions) {
+                        for (int[] second : directions) {
+                            int r = row + first[0] + second[0], c = col + first[1] + second[1];
+                            if (r >= 0 && r < size && c >= 0 && c < size) {
+                                if (count >= neighbors.extendedCount[index]
+                                        || neighbors.extended[index * 16 + count] != r * size + c) {
+                                    tableErrors++;
+                                }
+                                count++;
+                            }
+                        }
+                    }
+                    if (count != neighbors.extendedCount[index]) {
+                        tableErrors++;
+                    }
+                }
+            }
+        }
+        System.out.printf("Neighbors: %d board sizes, %d table mismatches%n", sizes.size(), tableErrors);
+
+        long allocated = -1, cascadeMoves = 0;
+        java.lang.management.ThreadMXBean bean = java.lang.management.ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) bean;
+            long thread = Thread.currentThread().getId();
+            Random random = new Random(POSITION_SEED);
+            int[] legal = new int[BitBoard.CELLS];
+            BitBoard board = new BitBoard();
+            // Vòng đầu để JIT biên dịch xong, vòng sau mới đo
+            for (int round = 0; round < 2; round++) {
+                cascadeMoves = 0;
+                long before = threadBean.getThreadAllocatedBytes(thread);
+                for (int game = 0; game < games; game++) {
+                    board.clear();
+                    for (int ply = 0; ply < BitBoard.MAX_PLY && !board.isGameOver(); ply++) {
+                        int move = legal[random.nextInt(board.legalMoves(legal))];
+                        if (board.dots(move) == 3) {
+                            cascadeMoves++;
+                        }
+                        board.makeMove(move);
+                    }
+                    while (board.ply() > 0) {
+                        board.unmakeMove();
+                    }
+                }
+                allocated = threadBean.getThreadAllocatedBytes(thread) - before;
+            }
+            System.out.printf("Allocation: %d games, %d moves with a cascade, %d bytes allocated%n",
+                    games, cascadeMoves, allocated);
+        } else {
+            System.out.println("Allocation: thread allocation counters are not supported by this JVM, skipped");
+        }
+
+        boolean rulesMatch = checkReferenceRules(games);
+        return tableErrors == 0 && allocated <= 0 && rulesMatch;
+    }
+
+    // Luật chơi trong BitBoard (dùng chung cho giao diện và AI): các ván ngẫu nhiên tới khi kết thúc.
+    // Kiểm tra nước đi có ghi từng lớp nổ cho giao diện (applyMove với MoveRecord) cho cùng thế cờ với applyMove,
+    // rồi đo tốc độ applyMove và makeMove/unmakeMove trên cùng các ván.
+    private static void benchmarkRules(int games) {
+        Random random = new Random(POSITION_SEED);
+        int[] legal = new int[BitBoard.CELLS];
+        BitBoard board = new BitBoard();
+        BitBoard recorded = new BitBoard();
+        BitBoard replayed = new BitBoard();
+        MoveRecord record = new MoveRecord();
+        long moves = 0, mismatches = 0, maxWaves = 0;
+        for (int game = 0; game < games; game++) {
+            board.clear();
+            recorded.clear();
+            replayed.clear();
+            for (int ply = 0; ply < BitBoard.MAX_PLY && !board.isGameOver(); ply++) {
+                int move = legal[random.nextInt(board.legalMoves(legal))];
+                board.applyMove(move);
+                recorded.applyMove(move, record);
+                // Phát lại các thay đổi lên một bàn khác phải ra đúng thế cờ sau nước đi
+                for (int w = 0; w < record.waveCount(); w++) {
+                    for (int i = record.waveStart(w); i < record.waveEnd(w); i++) {
+                        replayed.setCode(record.cell(i), record.code(i));
+                    }
+                }
+                replayed.setFlags(board.isRedTurn(), board.isRedMoved(), board.isBlueMoved());
+                maxWaves = Math.max(maxWaves, record.waveCount() - 1);
+                moves++;
+                if (recorded.hash() != board.hash() || replayed.hash() != board.hash()) {
+                    mismatches++;
+                    recorded.copyFrom(board);
+                    replayed.copyFrom(board);
+                }
+            }
+        }
+        System.out.printf("Rules: %d games, %d moves, %d recorded/replayed mismatches, longest cascade %d waves%n",
+                games, moves, mismatches, maxWaves);
+
+        for (int pass = 0; pass < 2; pass++) {
+            boolean undo = pass == 1;
+            random.setSeed(POSITION_SEED);
+            long played = 0;
+            long start = System.nanoTime();
+            for (int game = 0; game < games; game++) {
+                board.clear();
+                for (int ply = 0; ply < BitBoard.MAX_PLY && !board.isGameOver(); ply++) {
+                    int move = legal[random.nextInt(board.legalMoves(legal))];
+                    if (undo) {
+                        board.makeMove(move);
+                    } else {
+                        board.applyMove(move);
+                    }
+                    played++;
+                }
+                while (board.ply() > 0) {
+                    board.unmakeMove();
+                }
+            }
+            long elapsed = System.nanoTime() - start;
+            System.out.printf("%-16s %d moves in %.1f ms (%.0f ns per move)%n",
+                    undo ? "makeMove/unmake" : "applyMove", played, elapsed / 1e6, (double) elapsed / played);
+        }
+    }
+
+    // Bàn N x N (GridBoard, GridPlayer) theo kích thước bàn. Trên bàn 5x5 kiểm tra GridBoard cho cùng thế cờ và
+    // cùng số lớp nổ với BitBoard, GridEvaluator cho cùng điểm với Evaluator ở mọi nước của các ván ngẫu nhiên.
+    // Với mỗi kích thước kiểm tra GridEvaluator tính tăng dần và MoveRecord (số lớp có giới hạn, phát lại ra đúng
+    // thế cờ) trên vài ván, rồi đo tốc độ các ván ngẫu nhiên (nước đi, ô nổ mỗi giây) trong khoảng thời gian cho trước
+    // và số nút mỗi giây của GridPlayer trên thế cờ giữa ván.
+    private static void benchmarkScale(String sizeList, long runMillis, long moveTime) {
+        Random random = new Random(POSITION_SEED);
+        int[] legal = new int[BitBoard.CELLS];
+        BitBoard bits = new BitBoard();
+        GridBoard grid = new GridBoard(BitBoard.SIZE);
+        MoveRecord bitsRecord = new MoveRecord();
+        MoveRecord gridRecord = new MoveRecord();
+        long checked = 0, mismatches = 0, waveMismatches = 0, evalMismatches = 0;
+        for (int game = 0; game < 20000; game++) {
+            bits.clear();
+            grid.clear();
+            boolean side = (game & 1) == 0;
+            GridEvaluator gridEvaluator = new GridEvaluator(grid, side);
+            Evaluator evaluator = new Evaluator(bits, side);
+            for (int ply = 0; ply < BitBoard.MAX_PLY && !bits.isGameOver(); ply++) {
+                int move = legal[random.nextInt(bits.legalMoves(legal))];
+                bits.applyMove(move, bitsRecord);
+                grid.makeMove(move);
+                gridEvaluator.evaluate();
+                grid.unmakeMove();
+                grid.applyMove(move, gridRecord);
+                checked++;
+                if (!sameBoard(bits, grid)) {
+                    mismatches++;
+                    grid.copyFrom(bits);
+                    gridEvaluator.reset();
+                }
+                if (bitsRecord.waveCount() != gridRecord.waveCount()) {
+                    waveMismatches++;
+                }
+                if (gridEvaluator.evaluate() != evaluator.evaluateFull()) {
+                    evalMismatches++;
+                }
+            }
+        }
+        System.out.printf("5x5 GridBoard vs BitBoard: %d moves, %d position mismatches, %d wave count mismatches, "
+                + "%d GridEvaluator vs Evaluator mismatches%n", checked, mismatches, waveMismatches, evalMismatches);
+
+        System.out.printf("%-9s %12s %14s %12s %14s %12s %8s %8s%n",
+                "size", "moves/s", "explosions/s", "ns/move", "search nps", "expl/node", "depth", "games");
+        for (String token : sizeList.split(",")) {
+            int size = Integer.parseInt(token.trim());
+            GridBoard board = new GridBoard(size);
+            int[] moves = new int[board.cells()];
+            int maxPlies = 40 * board.cells();
+            random.setSeed(POSITION_SEED + size);
+            checkGridRecords(board, random);
+            long played = 0, games = 0;
+            long startExplosions = board.getExplosions();
+            long start = System.nanoTime();
+            long deadline = start + runMillis * 1_000_000L;
+            while (System.nanoTime() < deadline) {
+                board.clear();
+                for (int ply = 0; ply < maxPlies && !board.isGameOver(); ply++) {
+                    board.applyMove(moves[random.nextInt(board.legalMoves(moves))]);
+                    played++;
+                    if ((played & 1023) == 0 && System.nanoTime() >= deadline) {
+                        break;
+                    }
+                }
+                games++;
+            }
+            long elapsed = System.nanoTime() - start;
+            long explosions = board.getExplosions() - startExplosions;
+
+            // Thế cờ giữa ván: mỗi bên đã đi khoảng size nước ngẫu nhiên
+            long nodes = 0, searchNanos = 0, searchExplosions = 0;
+            int depthSum = 0, searches = 0;
+            for (int attempt = 0; attempt < 100 && searches < 4; attempt++) {
+                board.clear();
+                int plies = 2 * size + random.nextInt(2 * size);
+                for (int ply = 0; ply < plies && !board.isGameOver(); ply++) {
+                    board.applyMove(moves[random.nextInt(board.legalMoves(moves))]);
+                }
+                if (board.isGameOver() || board.legalMoves(moves) < 2) {
+                    continue;
+                }
+                GridPlayer ai = new GridPlayer(null, board.isRedTurn(), moveTime);
+                long searchStart = System.nanoTime();
+                ai.findBestMove(board);
+                searchNanos += System.nanoTime() - searchStart;
+                nodes += ai.getNodesExplored();
+                searchExplosions += ai.getExplosions();
+                depthSum += ai.getCompletedDepth();
+                searches++;
+            }
+            System.out.printf("%-9s %12.0f %14.0f %12.0f %14.0f %12.1f %8.1f %8d%n",
+                    size + "x" + size, played * 1e9 / elapsed, explosions * 1e9 / elapsed, (double) elapsed / played,
+                    searchNanos == 0 ? 0 : nodes * 1e9 / searchNanos, nodes == 0 ? 0 : (double) searchExplosions / nodes,
+                    searches == 0 ? 0 : (double) depthSum / searches, games);
+        }
+    }
+
+    // Vài ván ngẫu nhiên trên bàn cho trước: GridEvaluator tính tăng dần (cả sau unmakeMove) bằng tính lại toàn bộ,
+    // MoveRecord không quá MAX_WAVES lớp và phát lại các thay đổi trên thế cờ trước nước đi ra đúng thế cờ sau
+    private static void checkGridRecords(GridBoard board, Random random) {
+        int[] moves = new int[board.cells()];
+        byte[] replayed = new byte[board.cells()];
+        MoveRecord record = new MoveRecord();
+        GridEvaluator evaluator = new GridEvaluator(board, true);
+        long checked = 0, evalMismatches = 0, recordMismatches = 0;
+        int maxWaves = 0, collapsed = 0;
+        for (int game = 0; game < 4; game++) {
+            board.clear();
+            evaluator.reset();
+            for (int ply = 0; ply < 400 && !board.isGameOver(); ply++) {
+                int move = moves[random.nextInt(board.legalMoves(moves))];
+                board.makeMove(move);
+                evaluator.evaluate();
+                board.unmakeMove();
+                System.arraycopy(board.codes, 0, replayed, 0, replayed.length);
+                board.applyMove(move, record);
+                checked++;
+                for (int i = 0; i < record.waveEnd(record.waveCount() - 1); i++) {
+                    replayed[record.cell(i)] = (byte) record.code(i);
+                }
+                if (!Arrays.equals(replayed, board.codes) || record.waveCount() > MoveRecord.MAX_WAVES) {
+                    recordMismatches++;
+                }
+                maxWaves = Math.max(maxWaves, record.waveCount());
+                if (record.waveCount() == MoveRecord.MAX_WAVES) {
+                    collapsed++;
+                }
+                if (evaluator.evaluate() != evaluator.evaluateFull()) {
+                    evalMismatches++;
+                }
+            }
+        }
+        System.out.printf("%dx%d: %d moves, %d incremental eval mismatches, %d record mismatches, max %d waves, "
+                + "%d moves with %d or more waves%n", board.size(), board.size(), checked, evalMismatches,
+                recordMismatches, maxWaves, collapsed, MoveRecord.MAX_WAVES);
+    }
+
+    private static boolean sameBoard(BitBoard bits, GridBoard grid) {
+        for (int i = 0; i < BitBoard.CELLS; i++) {
+            if (bits.code(i) != grid.code(i)) {
+                return false;
+            }
+        }
+        return bits.isRedTurn() == grid.isRedTurn() && bits.isRedMoved() == grid.isRedMoved()
+                && bits.isBlueMoved() == grid.isBlueMoved() && bits.redPieces() == grid.redPieces()
+                && bits.bluePieces() == grid.bluePieces();
+    }
+
+    // So sánh thời gian tìm tới cùng độ sâu giữa 1 luồng và nhiều luồng (Lazy SMP)
+    private static void benchmarkParallel(int threads, int depth) {
+        List<BitBoard> positions = positions(POSITION_COUNT);
+        System.out.printf("Lazy SMP: %d positions, depth %d, 1 vs %d threads%n", positions.size(), depth, threads);
+
+        long singleTotal = 0, parallelTotal = 0;
+        long singleNodes = 0, parallelNodes = 0;
+        for (int i = 0; i < positions.size(); i++) {
+            BitBoard position = positions.get(i);
+
+            AIPlayer single = new AIPlayer(null, position.isRedTurn(), AIPlayer.NO_TIME_LIMIT, 1);
+            long start = System.nanoTime();
+            single.findBestMove(position, depth, AIPlayer.NO_TIME_LIMIT);
+            long singleTime = System.nanoTime() - start;
+            single.shutdown();
+
+            AIPlayer parallel = new AIPlayer(null, position.isRedTurn(), AIPlayer.NO_TIME_LIMIT, threads);
+            start = System.nanoTime();
+            parallel.findBestMove(position, depth, AIPlayer.NO_TIME_LIMIT);
+            long parallelTime = System.nanoTime() - start;
+            parallel.shutdown();
+
+            singleTotal += singleTime;
+            parallelTotal += parallelTime;
+            singleNodes += single.getNodesExplored();
+            parallelNodes += parallel.getNodesExplored();
+            System.out.printf("#%2d  1T %8.1f ms  %dT %8.1f ms  speedup %.2fx%n", i,
+                    singleTime / 1e6, threads, parallelTime / 1e6, (double) singleTime / Math.max(1, parallelTime));
+        }
+        System.out.printf("Total 1T %.1f ms (%.0f nodes/s)  %dT %.1f ms (%.0f nodes/s)  speedup %.2fx%n",
+                singleTotal / 1e6, singleNodes * 1e9 / Math.max(1, singleTotal),
+                threads, parallelTotal / 1e6, parallelNodes * 1e9 / Math.max(1, parallelTotal),
+                (double) singleTotal / Math.max(1, parallelTotal));
+    }
+
+    // So sánh số nút tới cùng độ sâu giữa alpha-beta cửa sổ đầy đủ và PVS + cửa sổ mong đợi
+    // (1 luồng, bảng chuyển vị mới mỗi lần). Tắt tìm kiếm chọn lọc (LMR, cắt tỉa vô vọng, razoring) vì kết quả
+    // của chúng phụ thuộc cửa sổ; khi đó cả hai đều tìm chính xác nên điểm phải giống nhau.
+    // Trả về false nếu có thế cờ khác điểm.
+    private static boolean benchmarkPvs(int depth) {
+        List<BitBoard> positions = positions(POSITION_COUNT);
+        System.out.printf("PVS: %d positions, depth %d%n", positions.size(), depth);
+
+        long[] totalNodes = new long[2];
+        long[] totalTime = new long[2];
+        int scoreMismatches = 0;
+        long researches = 0;
+        for (int i = 0; i < positions.size(); i++) {
+            BitBoard position = positions.get(i);
+            StringBuilder line = new StringBuilder(String.format("#%2d", i));
+            int[] scores = new int[2];
+            for (int pass = 0; pass < 2; pass++) {
+                AIPlayer ai = new AIPlayer(null, position.isRedTurn(), AIPlayer.NO_TIME_LIMIT, 1);
+                ai.setPrincipalVariationSearch(pass == 1);
+                setSelective(ai, false, false, false);
+                long start = System.nanoTime();
+                ai.findBestMove(position, depth, AIPlayer.NO_TIME_LIMIT);
+                long elapsed = System.nanoTime() - start;
+                ai.shutdown();
+
+                totalNodes[pass] += ai.getNodesExplored();
+                totalTime[pass] += elapsed;
+                scores[pass] = ai.getBestScore();
+                line.append(String.format("  %s %10d nodes %8.1f ms", pass == 0 ? "ab " : "pvs",
+                        ai.getNodesExplored(), elapsed / 1e6));
+                if (pass == 1) {
+                    researches += ai.getAspirationResearches();
+                    line.append("  pv");
+                    for (Move move : ai.getPrincipalVariation()) {
+                        line.append(' ').append(move.row).append(',').append(move.col);
+                    }
+                }
+            }
+            if (scores[0] != scores[1]) {
+                scoreMismatches++;
+                line.append(String.format("  SCORE MISMATCH %d vs %d", scores[0], scores[1]));
+            }
+            System.out.println(line);
+        }
+        for (int pass = 0; pass < 2; pass++) {
+            System.out.printf("Total %s %d nodes  %.1f ms%n", pass == 0 ? "ab " : "pvs", totalNodes[pass], totalTime[pass] / 1e6);
+        }
+        System.out.printf("Nodes saved: %.1f%%  aspiration re-searches: %d  score mismatches: %d%n",
+                100.0 * (totalNodes[0] - totalNodes[1]) / Math.max(1, totalNodes[0]), researches, scoreMismatches);
+        return scoreMismatches == 0;
+    }
+
+    // Tìm tĩnh + hàm đánh giá không đoán chuỗi nổ so với cấu hình cũ (không tìm tĩnh, đánh giá đầy đủ):
+    // số nút và thời gian tới cùng độ sâu, rồi một trận đấu với thời gian cố định mỗi nước (1 luồng).
+    private static void benchmarkQuiescence(int depth, int games, long moveTime) {
+        List<BitBoard> positions = positions(POSITION_COUNT);
+        System.out.printf("Quiescence: %d positions, depth %d%n", positions.size(), depth);
+        long[] totalNodes = new long[2];
+        long[] totalTime = new long[2];
+        long quiescenceNodes = 0;
+        for (BitBoard position : positions) {
+            for (int pass = 0; pass < 2; pass++) {
+                AIPlayer ai = new AIPlayer(null, position.isRedTurn(), AIPlayer.NO_TIME_LIMIT, 1);
+                ai.setQuiescence(pass == 1);
+                long start = System.nanoTime();
+                ai.findBestMove(position, depth, AIPlayer.NO_TIME_LIMIT);
+                totalTime[pass] += System.nanoTime() - start;
+                totalNodes[pass] += ai.getNodesExplored();
+                if (pass == 1) {
+                    quiescenceNodes += ai.getQuiescenceNodes();
+                }
+                ai.shutdown();
+            }
+        }
+        for (int pass = 0; pass < 2; pass++) {
+            System.out.printf("%s %d nodes  %.1f ms  %.0f nodes/s%n", pass == 0 ? "off" : "on ", totalNodes[pass],
+                    totalTime[pass] / 1e6, totalNodes[pass] * 1e9 / Math.max(1, totalTime[pass]));
+        }
+        System.out.printf("Quiescence nodes: %d (%.1f%% of nodes)%n",
+                quiescenceNodes, 100.0 * quiescenceNodes / Math.max(1, totalNodes[1]));
+
+        System.out.printf("Match: quiescence vs old search, %d games, %d ms per move%n", games, moveTime);
+        int quiescenceWins = 0, oldWins = 0, draws = 0;
+        for (int game = 0; game < games; game++) {
+            BitBoard board = positions.get(game / 2 % positions.size()).copy();
+            boolean quiescenceRed = (game & 1) == 0;
+            AIPlayer quiescence = new AIPlayer(null, quiescenceRed, moveTime, 1);
+            AIPlayer old = new AIPlayer(null, !quiescenceRed, moveTime, 1);
+            old.setQuiescence(false);
+            int ply = 0;
+            while (!board.isGameOver() && ply < 300) {
+                Move move = (board.isRedTurn() == quiescenceRed ? quiescence : old).findBestMove(board);
+                if (move == null) {
+                    break;
+                }
+                board.applyMove(move.row * BitBoard.SIZE + move.col);
+                ply++;
+            }
+            quiescence.shutdown();
+            old.shutdown();
+            if (!board.isGameOver()) {
+                draws++;
+            } else if ((board.redPieces() > 0) == quiescenceRed) {
+                quiescenceWins++;
+            } else {
+                oldWins++;
+            }
+        }
+        System.out.printf("quiescence %d  old %d  draws %d%n", quiescenceWins, oldWins, draws);
+    }
+
+    // Tìm kiếm chọn lọc: số nút, thời gian và số nước khác với tìm đầy đủ khi tới cùng độ sâu, bật riêng
+    // từng kỹ thuật (LMR, cắt tỉa vô vọng, razoring) rồi bật cả ba; sau đó với mỗi cấu hình đó một trận đấu
+    // với tắt cả ba cùng thời gian mỗi nước, kèm độ sâu trung bình đạt được (1 luồng).
+    private static void benchmarkSelective(int depth, int games, long moveTime) {
+        String[] names = {"none", "lmr", "futility", "razoring", "all"};
+        List<BitBoard> positions = positions(POSITION_COUNT);
+        System.out.printf("Selective search: %d positions, depth %d%n", positions.size(), depth);
+        Move[] baseline = new Move[positions.size()];
+        for (int config = 0; config < names.length; config++) {
+            long nodes = 0, time = 0, reductions = 0, researches = 0, prunes = 0, razors = 0;
+            int changed = 0;
+            for (int p = 0; p < positions.size(); p++) {
+                BitBoard position = positions.get(p);
+                AIPlayer ai = new AIPlayer(null, position.isRedTurn(), AIPlayer.NO_TIME_LIMIT, 1);
+                setSelective(ai, config == 1 || config == 4, config == 2 || config == 4, config == 3 || config == 4);
+                long start = System.nanoTime();
+                Move move = ai.findBestMove(position, depth, AIPlayer.NO_TIME_LIMIT);
+                time += System.nanoTime() - start;
+                nodes += ai.getNodesExplored();
+                reductions += ai.getLmrReductions();
+                researches += ai.getLmrResearches();
+                prunes += ai.getFutilityPrunes();
+                razors += ai.getRazorCutoffs();
+                if (config == 0) {
+                    baseline[p] = move;
+                } else if (move.row != baseline[p].row || move.col != baseline[p].col) {
+                    changed++;
+                }
+                ai.shutdown();
+            }
+            System.out.printf("%-8s %10d nodes  %8.1f ms  reduced %d (re-searched %d)  futility %d  razor %d"
+                            + "  moves changed %d%n", names[config], nodes, time / 1e6,
+                    reductions, researches, prunes, razors, changed);
+        }
+
+        for (int config = 1; config < names.length; config++) {
+            playSelectiveMatch(positions, names[config], config == 1 || config == 4, config == 2 || config == 4,
+                    config == 3 || config == 4, games, moveTime);
+        }
+    }
+
+    private static void playSelectiveMatch(List<BitBoard> positions, String name, boolean lmr, boolean futility,
+                                           boolean razoring, int games, long moveTime) {
+        int selectiveWins = 0, fullWins = 0, draws = 0;
+        long[] depthSum = new long[2];
+        int[] moves = new int[2];
+        for (int game = 0; game < games; game++) {
+            BitBoard board = positions.get(game / 2 % positions.size()).copy();
+            boolean selectiveRed = (game & 1) == 0;
+            AIPlayer selective = new AIPlayer(null, selectiveRed, moveTime, 1);
+            AIPlayer full = new AIPlayer(null, !selectiveRed, moveTime, 1);
+            setSelective(selective, lmr, futility, razoring);
+            setSelective(full, false, false, false);
+            int ply = 0;
+            while (!board.isGameOver() && ply < 300) {
+                boolean selectiveTurn = board.isRedTurn() == selectiveRed;
+                AIPlayer ai = selectiveTurn ? selective : full;
+                Move move = ai.findBestMove(board);
+                if (move == null) {
+                    break;
+                }
+                if (ai.getCompletedDepth() > 0) {
+                    depthSum[selectiveTurn ? 0 : 1] += ai.getCompletedDepth();
+                    moves[selectiveTurn ? 0 : 1]++;
+                }
+                board.applyMove(move.row * BitBoard.SIZE + move.col);
+                ply++;
+            }
+            selective.shutdown();
+            full.shutdown();
+            if (!board.isGameOver()) {
+                draws++;
+            } else if ((board.redPieces() > 0) == selectiveRed) {
+                selectiveWins++;
+            } else {
+                fullWins++;
+            }
+        }
+        System.out.printf("Match: %s vs none, %d games, %d ms per move: %d - %d, draws %d"
+                        + "  (average depth %.1f vs %.1f)%n", name, games, moveTime, selectiveWins, fullWins, draws,
+                (double) depthSum[0] / Math.max(1, moves[0]), (double) depthSum[1] / Math.max(1, moves[1]));
+    }
+
+    // Bộ giải df-pn: tỷ lệ thế cờ chứng minh được thắng/thua trong giới hạn số nút, thời gian, và số thế cờ
+    // đã chứng minh mà tìm kiếm minimax 4 nước (không có bộ giải) cũng thấy điểm thắng/thua chắc.
+    // Sau đó trận đấu có bộ giải với không có bộ giải (1 luồng).
+    private static void benchmarkSolver(long nodeLimit, int count, int games, long moveTime) {
+        List<BitBoard> positions = positions(count);
+        System.out.printf("Solver: %d positions, %d nodes per position%n", positions.size(), nodeLimit);
+        ProofNumberSearch solver = new ProofNumberSearch();
+        solver.setNodeLimit(nodeLimit);
+        int wins = 0, losses = 0, seenByShallowSearch = 0;
+        long nodes = 0, time = 0;
+        for (BitBoard position : positions) {
+            long start = System.nanoTime();
+            int result = solver.solve(position, Long.MAX_VALUE, new AtomicBoolean(false));
+            time += System.nanoTime() - start;
+            nodes += solver.getNodes();
+            if (result == ProofNumberSearch.UNKNOWN) {
+                continue;
+            }
+            if (result == ProofNumberSearch.WIN) {
+                wins++;
+            } else {
+                losses++;
+            }
+            AIPlayer ai = new AIPlayer(null, position.isRedTurn(), AIPlayer.NO_TIME_LIMIT, 1);
+            ai.setSolver(false);
+            ai.findBestMove(position, 4, AIPlayer.NO_TIME_LIMIT);
+            int score = ai.getBestScore() * result;
+            if (score >= SearchWorker.DECISIVE_SCORE) {
+                seenByShallowSearch++;
+            }
+            ai.shutdown();
+        }
+        System.out.printf("proven win %d  loss %d  unknown %d  (%.1f%% solved)  %d nodes  %.1f ms  %.0f nodes/s%n",
+                wins, losses, positions.size() - wins - losses, 100.0 * (wins + losses) / positions.size(),
+                nodes, time / 1e6, nodes * 1e9 / Math.max(1, time));
+        System.out.printf("Seen by depth-4 search: %d of %d%n", seenByShallowSearch, wins + losses);
+
+        System.out.printf("Match: solver vs no solver, %d games, %d ms per move%n", games, moveTime);
+        int solverWins = 0, plainWins = 0, draws = 0;
+        long runs = 0, provenWins = 0, provenLosses = 0;
+        for (int game = 0; game < games; game++) {
+            BitBoard board = positions.get(game / 2 % positions.size()).copy();
+            boolean solverRed = (game & 1) == 0;
+            AIPlayer withSolver = new AIPlayer(null, solverRed, moveTime, 1);
+            AIPlayer plain = new AIPlayer(null, !solverRed, moveTime, 1);
+            plain.setSolver(false);
+            int ply = 0;
+            while (!board.isGameOver() && ply < 300) {
+                Move move = (board.isRedTurn() == solverRed ? withSolver : plain).findBestMove(board);
+                if (move == null) {
+                    break;
+                }
+                board.applyMove(move.row * BitBoard.SIZE + move.col);
+                ply++;
+            }
+            if (!board.isGameOver()) {
+                draws++;
+            } else if ((board.redPieces() > 0) == solverRed) {
+                solverWins++;
+            } else {
+                plainWins++;
+            }
+            runs += withSolver.getSolverRuns();
+            provenWins += withSolver.getSolverWins();
+            provenLosses += withSolver.getSolverLosses();
+            withSolver.shutdown();
+            plain.shutdown();
+        }
+        System.out.printf("solver %d  no solver %d  draws %d  (solver runs %d, proven wins %d, proven losses %d)%n",
+                solverWins, plainWins, draws, runs, provenWins, provenLosses);
+    }
+
+    // Mạng đánh giá (file mặc định hoặc -Dcolorwars.network): bộ tích lũy tăng dần phải khớp tính lại từ đầu,
+    // tốc độ so với hàm đánh giá cổ điển (đầy đủ và bản nhẹ dùng khi tìm tĩnh) trên cùng chuỗi nút,
+    // rồi trận đấu mạng với hàm cổ điển cùng thời gian mỗi nước (1 luồng).
+    private static void benchmarkNeural(int walks, int games, long moveTime) {
+        NeuralNetwork network = NeuralNetwork.getDefault();
+        if (network == null) {
+            System.err.println("No network file: " + System.getProperty(NeuralNetwork.NETWORK_PROPERTY,
+                    NeuralNetwork.DEFAULT_PATH));
+            return;
+        }
+        System.out.printf("Network: %d hidden units%n", network.getHidden());
+        List<BitBoard> positions = positions(POSITION_COUNT);
+        Random random = new Random(POSITION_SEED);
+        int[] legal = new int[BitBoard.CELLS];
+        BitBoard board = new BitBoard();
+        NeuralEvaluator[] neural = { new NeuralEvaluator(network, board, true), new NeuralEvaluator(network, board, false) };
+        long checks = 0, mismatches = 0;
+        for (int walk = 0; walk < walks; walk++) {
+            board.copyFrom(positions.get(walk % positions.size()));
+            int depth = 1 + random.nextInt(8);
+            for (int ply = 0; ply < depth && !board.isGameOver(); ply++) {
+                board.makeMove(legal[random.nextInt(board.legalMoves(legal))]);
+                for (int side = 0; side < 2; side++) {
+                    checks++;
+                    if (neural[side].evaluate() != network.evaluate(board, side == 0)) {
+                        mismatches++;
+                    }
+                }
+            }
+            while (board.ply() > 0) {
+                board.unmakeMove();
+                for (int side = 0; side < 2; side++) {
+                    checks++;
+                    if (neural[side].evaluate() != network.evaluate(board, side == 0)) {
+                        mismatches++;
+                    }
+                }
+            }
+        }
+        System.out.printf("Accumulator: %d checks, %d mismatches%n", checks, mismatches);
+
+        // Thời gian: cùng chuỗi nút cho cả ba hàm đánh giá
+        String[] names = {"classic", "light", "network"};
+        Evaluator classic = new Evaluator(board, true);
+        Evaluator light = new Evaluator(board, true, false);
+        long sink = 0;
+        for (int pass = 0; pass < names.length; pass++) {
+            random.setSeed(POSITION_SEED);
+            long evaluations = 0;
+            long start = System.nanoTime();
+            for (int walk = 0; walk < walks; walk++) {
+                board.copyFrom(positions.get(walk % positions.size()));
+                int depth = 1 + random.nextInt(8);
+                for (int ply = 0; ply < 2 * depth; ply++) {
+                    if (ply < depth && !board.isGameOver()) {
+                        board.makeMove(legal[random.nextInt(board.legalMoves(legal))]);
+                    } else if (board.ply() > 0) {
+                        board.unmakeMove();
+                    } else {
+                        break;
+                    }
+                    sink += pass == 0 ? classic.evaluate() : pass == 1 ? light.evaluate() : neural[0].evaluate();
+                    evaluations++;
+                }
+                while (board.ply() > 0) {
+                    board.unmakeMove();
+                }
+            }
+            long elapsed = System.nanoTime() - start;
+            System.out.printf("%-8s %d evaluations in %.1f ms (%.0f ns each)%n",
+                    names[pass], evaluations, elapsed / 1e6, (double) elapsed / Math.max(1, evaluations));
+        }
+        if (sink == 42) {
+            System.out.println();
+        }
+
+        System.out.printf("Match: network vs classic, %d games, %d ms per move%n", games, moveTime);
+        int networkWins = 0, classicWins = 0, draws = 0;
+        long[] nodes = new long[2];
+        for (int game = 0; game < games; game++) {
+            BitBoard position = positions.get(game / 2 % positions.size()).copy();
+            boolean networkRed = (game & 1) == 0;
+            AIPlayer withNetwork = new AIPlayer(null, networkRed, moveTime, 1);
+            AIPlayer plain = new AIPlayer(null, !networkRed, moveTime, 1);
+            withNetwork.setNeuralNetwork(network);
+            plain.setNeuralNetwork(null);
+            int ply = 0;
+            while (!position.isGameOver() && ply < 300) {
+                boolean networkTurn = position.isRedTurn() == networkRed;
+                AIPlayer ai = networkTurn ? withNetwork : plain;
+                Move move = ai.findBestMove(position);
+                if (move == null) {
+                    break;
+                }
+                nodes[networkTurn ? 0 : 1] += ai.getNodesExplored();
+                position.applyMove(move.row * BitBoard.SIZE + move.col);
+                ply++;
+            }
+            withNetwork.shutdown();
+            plain.shutdown();
+            if (!position.isGameOver()) {
+                draws++;
+            } else if ((position.redPieces() > 0) == networkRed) {
+                networkWins++;
+            } else {
+                classicWins++;
+            }
+        }
+        System.out.printf("network %d  classic %d  draws %d  (nodes %d vs %d)%n",
+                networkWins, classicWins, draws, nodes[0], nodes[1]);
+    }
+
+    private static void setSelective(AIPlayer ai, boolean lmr, boolean futility, boolean razoring) {
+        ai.setLateMoveReductions(lmr);
+        ai.setFutilityPruning(futility);
+        ai.setRazoring(razoring);
+    }
+
+    // Số byte cấp phát trên mỗi nút tìm kiếm (1 luồng, tìm trong luồng gọi nên đo được bằng
+    // bộ đếm cấp phát của luồng). Lần chạy đầu để JIT biên dịch xong, chỉ tính lần thứ hai.
+    private static void benchmarkAllocation(int depth) {
+        java.lang.management.ThreadMXBean bean = java.lang.management.ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+            System.err.println("Thread allocation counters are not supported by this JVM");
+            return;
+        }
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) bean;
+        long thread = Thread.currentThread().getId();
+        List<BitBoard> positions = positions(POSITION_COUNT);
+        System.out.printf("Allocation: %d positions, depth %d, 1 thread%n", positions.size(), depth);
+
+        long totalBytes = 0, totalNodes = 0;
+        for (int round = 0; round < 2; round++) {
+            totalBytes = 0;
+            totalNodes = 0;
+            for (BitBoard position : positions) {
+                AIPlayer ai = new AIPlayer(null, position.isRedTurn(), AIPlayer.NO_TIME_LIMIT, 1);
+                ai.setOpeningBook(null);
+                long before = threadBean.getThreadAllocatedBytes(thread);
+                ai.findBestMove(position, depth, AIPlayer.NO_TIME_LIMIT);
+                totalBytes += threadBean.getThreadAllocatedBytes(thread) - before;
+                totalNodes += ai.getNodesExplored();
+                ai.shutdown();
+            }
+        }
+        System.out.printf("Allocated %d bytes for %d nodes: %.3f bytes/node%n",
+                totalBytes, totalNodes, (double) totalBytes / Math.max(1, totalNodes));
+    }
+
+    // So sánh số nút tới cùng độ sâu khi tắt/bật killer và history (1 luồng, bảng chuyển vị mới mỗi lần)
+    private static void benchmarkOrdering(int depth) {
+        List<BitBoard> positions = positions(POSITION_COUNT);
+        System.out.printf("Move ordering: %d positions, depth %d%n", positions.size(), depth);
+
+        long[] totalNodes = new long[2];
+        long[] totalTime = new long[2];
+        long[] totalCutoffs = new long[2];
+        double[] firstRate = new double[2];
+        for (int i = 0; i < positions.size(); i++) {
+            BitBoard position = positions.get(i);
+            StringBuilder line = new StringBuilder(String.format("#%2d", i));
+            for (int pass = 0; pass < 2; pass++) {
+                AIPlayer ai = new AIPlayer(null, position.isRedTurn(), AIPlayer.NO_TIME_LIMIT, 1);
+                ai.setMoveOrdering(pass == 1);
+                long start = System.nanoTime();
+                ai.findBestMove(position, depth, AIPlayer.NO_TIME_LIMIT);
+                long elapsed = System.nanoTime() - start;
+                ai.shutdown();
+
+                totalNodes[pass] += ai.getNodesExplored();
+                totalTime[pass] += elapsed;
+                totalCutoffs[pass] += ai.getCutoffs();
+                firstRate[pass] += ai.getFirstMoveCutoffRate() * ai.getCutoffs();
+                line.append(String.format("  %s %10d nodes %8.1f ms first-cut %5.1f%%", pass == 0 ? "off" : "on ",
+                        ai.getNodesExplored(), elapsed / 1e6, ai.getFirstMoveCutoffRate() * 100));
+            }
+            System.out.println(line);
+        }
+        for (int pass = 0; pass < 2; pass++) {
+            System.out.printf("Total %s %d nodes  %.1f ms  first-cut %.1f%%%n", pass == 0 ? "off" : "on ",
+                    totalNodes[pass], totalTime[pass] / 1e6, firstRate[pass] * 100 / Math.max(1, totalCutoffs[pass]));
+        }
+        System.out.printf("Nodes saved: %.1f%%%n", 100.0 * (totalNodes[0] - totalNodes[1]) / Math.max(1, totalNodes[0]));
+    }
+
+    // Số mô phỏng mỗi giây, kích thước cây và bộ nhớ mỗi nút của MCTS trên bộ thế cờ
+    private static void benchmarkMcts(long moveTime) {
+        List<BitBoard> positions = positions(POSITION_COUNT);
+        System.out.printf("MCTS: %d positions, %d ms per move%n", positions.size(), moveTime);
+
+        long totalPlayouts = 0, totalNodes = 0;
+        double totalSeconds = 0;
+        MctsPlayer mcts = null;
+        for (int i = 0; i < positions.size(); i++) {
+            BitBoard position = positions.get(i);
+            mcts = new MctsPlayer(null, position.isRedTurn(), moveTime, 1 << 19, POSITION_SEED + i);
+            Move move = mcts.findBestMove(position);
+            totalPlayouts += mcts.getPlayouts();
+            totalNodes += mcts.getTreeNodes();
+            totalSeconds += mcts.getPlayouts() / Math.max(1, mcts.getPlayoutsPerSecond());
+            System.out.printf("#%2d  move %d,%d  %s%n", i, move.row, move.col, mcts);
+        }
+        System.out.printf("Total %d playouts (%.0f/s), %.0f nodes per search, %d B/node, %.1f MB per engine%n",
+                totalPlayouts, totalPlayouts / Math.max(1e-9, totalSeconds), (double) totalNodes / positions.size(),
+                mcts.getBytesPerNode(), mcts.getMemoryBytes() / (1024.0 * 1024.0));
+    }
+
+    // Đấu alpha-beta với MCTS, cùng thời gian mỗi nước, đổi màu sau mỗi ván.
+    // Ván bắt đầu từ các thế cờ của bộ benchmark để có nhiều diễn biến khác nhau.
+    private static void playMatch(int games, long moveTime) {
+        List<BitBoard> positions = positions(POSITION_COUNT);
+        System.out.printf("Match: alpha-beta vs MCTS, %d games, %d ms per move%n", games, moveTime);
+        int alphaBetaWins = 0, mctsWins = 0, draws = 0;
+        for (int game = 0; game < games; game++) {
+            BitBoard board = positions.get(game / 2 % positions.size()).copy();
+            boolean alphaBetaRed = (game & 1) == 0;
+            AIPlayer alphaBeta = new AIPlayer(null, alphaBetaRed, moveTime, 1);
+            MctsPlayer mcts = new MctsPlayer(null, !alphaBetaRed, moveTime, 1 << 19, POSITION_SEED + game);
+
+            int ply = 0;
+            while (!board.isGameOver() && ply < 300) {
+                boolean alphaBetaToMove = board.isRedTurn() == alphaBetaRed;
+                Move move = alphaBetaToMove ? alphaBeta.findBestMove(board) : mcts.findBestMove(board);
+                if (move == null) {
+                    break;
+                }
+                board.applyMove(move.row * BitBoard.SIZE + move.col);
+                ply++;
+            }
+            alphaBeta.shutdown();
+
+            String result;
+            if (board.isGameOver()) {
+                boolean redWon = board.redPieces() > 0;
+                if (redWon == alphaBetaRed) {
+                    alphaBetaWins++;
+                    result = "alpha-beta";
+                } else {
+                    mctsWins++;
+                    result = "MCTS";
+                }
+            } else {
+                draws++;
+                result = "draw";
+            }
+            System.out.printf("Game %2d: alpha-beta %s, %d plies, winner %s%n",
+                    game + 1, alphaBetaRed ? "red" : "blue", ply, result);
+        }
+        System.out.printf("alpha-beta %d  MCTS %d  draws %d%n", alphaBetaWins, mctsWins, draws);
+    }
+
+    // Đi ngẫu nhiên xuống rồi lùi lại bằng make/unmake như trong cây tìm kiếm,
+    // kiểm tra đánh giá tăng dần trùng với đánh giá đầy đủ ở mọi nút và so sánh thời gian
+    // Trả về false nếu evaluate() khác evaluateFull() hoặc khác hàm đánh giá gốc ở bất kỳ thế cờ nào
+    private static boolean benchmarkEvaluator(int walks) {
+        List<BitBoard> positions = positions(POSITION_COUNT);
+        Random random = new Random(POSITION_SEED);
+        int[] legal = new int[BitBoard.CELLS];
+        BitBoard board = new BitBoard();
+        // Cả hai bên, có và không có các số hạng chuỗi nổ: evaluate() (bảng mẫu, tăng dần) phải khớp
+        // evaluateFull() (duyệt gốc) ở mọi nút
+        Evaluator[] evaluators = {
+                new Evaluator(board, true), new Evaluator(board, false),
+                new Evaluator(board, true, false), new Evaluator(board, false, false) };
+        // evaluate() còn phải khớp hàm đánh giá gốc của AIPlayer (ReferenceEvaluator) cùng bên và cùng cách tính
+        ReferenceEvaluator[] references = {
+                new ReferenceEvaluator(true), new ReferenceEvaluator(false),
+                new ReferenceEvaluator(true, false), new ReferenceEvaluator(false, false) };
+
+        long checks = 0, mismatches = 0;
+        long referenceChecks = 0, referenceMismatches = 0;
+        for (int walk = 0; walk < walks; walk++) {
+            board.copyFrom(positions.get(walk % positions.size()));
+            int depth = 1 + random.nextInt(8);
+            for (int ply = 0; ply < depth && !board.isGameOver(); ply++) {
+                int n = board.legalMoves(legal);
+                if (n == 0) {
+                    break;
+                }
+                board.makeMove(legal[random.nextInt(n)]);
+                for (Evaluator evaluator : evaluators) {
+                    checks++;
+                    if (evaluator.evaluate() != evaluator.evaluateFull()) {
+                        mismatches++;
+                    }
+                }
+                for (int side = 0; side < references.length; side++) {
+                    referenceChecks++;
+                    if (evaluators[side].evaluate() != references[side].evaluate(board)) {
+                        referenceMismatches++;
+                    }
+                }
+            }
+            while (board.ply() > 0) {
+                board.unmakeMove();
+                for (Evaluator evaluator : evaluators) {
+                    checks++;
+                    if (evaluator.evaluate() != evaluator.evaluateFull()) {
+                        mismatches++;
+                    }
+                }
+                for (int side = 0; side < references.length; side++) {
+                    referenceChecks++;
+                    if (evaluators[side].evaluate() != references[side].evaluate(board)) {
+                        referenceMismatches++;
+                    }
+                }
+            }
+        }
+        // Các ván ngẫu nhiên từ bàn trống tới khi kết thúc: thế cờ đầu ván, cuối ván và thế cờ còn quân 4 điểm
+        // sau chuỗi nổ bị giới hạn
+        for (int game = 0; game < walks / 10; game++) {
+            board.clear();
+            for (int ply = 0; ply < BitBoard.MAX_PLY && !board.isGameOver(); ply++) {
+                board.applyMove(legal[random.nextInt(board.legalMoves(legal))]);
+                for (int side = 0; side < references.length; side++) {
+                    referenceChecks++;
+                    if (evaluators[side].evaluate() != references[side].evaluate(board)) {
+                        referenceMismatches++;
+                    }
+                }
+            }
+        }
+        System.out.printf("Evaluator: %d checks, %d mismatches; against the original evaluation %d checks, %d mismatches%n",
+                checks, mismatches, referenceChecks, referenceMismatches);
+        boolean patternsMatch = checkPatternTables(evaluators, references, board);
+
+        // Thời gian: cùng chuỗi nút cho cả hai cách tính
+        long sink = 0;
+        for (int pass = 0; pass < 2; pass++) {
+            boolean incremental = pass == 0;
+            random.setSeed(POSITION_SEED);
+            long evaluations = 0;
+            long start = System.nanoTime();
+            for (int walk = 0; walk < walks; walk++) {
+                board.copyFrom(positions.get(walk % positions.size()));
+                int depth = 1 + random.nextInt(8);
+                for (int ply = 0; ply < depth && !board.isGameOver(); ply++) {
+                    int n = board.legalMoves(legal);
+                    if (n == 0) {
+                        break;
+                    }
+                    board.makeMove(legal[random.nextInt(n)]);
+                    sink += incremental ? evaluators[0].evaluate() : evaluators[0].evaluateFull();
+                    evaluations++;
+                }
+                while (board.ply() > 0) {
+                    board.unmakeMove();
+                    sink += incremental ? evaluators[0].evaluate() : evaluators[0].evaluateFull();
+                    evaluations++;
+                }
+            }
+            long elapsed = System.nanoTime() - start;
+            System.out.printf("%-11s %d evaluations in %.1f ms (%.0f ns each)%n",
+                    incremental ? "incremental" : "full", evaluations, elapsed / 1e6, (double) elapsed / Math.max(1, evaluations));
+        }
+        if (sink == 42) {
+            System.out.println();
+        }
+        return mismatches == 0 && referenceMismatches == 0 && patternsMatch;
+    }
+
+    // Mọi mục của bảng mẫu (PATTERNS và LIGHT_PATTERNS) so với hàm đánh giá gốc: với từng ô, từng trạng thái của ô
+    // và của các ô kề (trống, 1-3 điểm mỗi bên), đặt riêng các ô đó lên bàn cờ và so evaluate() với ReferenceEvaluator
+    // của cùng bên. Thiếu quân của một bên thì thêm một quân 1 điểm ở ô xa nhất (ngoài bán kính 2),
+    // để ván chưa kết thúc. Mã ô: 1-3 quân đỏ, 5-7 quân xanh. Các evaluator dùng chung board.
+    private static boolean checkPatternTables(Evaluator[] evaluators, ReferenceEvaluator[] references, BitBoard board) {
+        final int states = 7;
+        Neighbors neighbors = Neighbors.of(BitBoard.SIZE);
+        long boards = 0, mismatches = 0;
+        for (int index = 0; index < BitBoard.CELLS; index++) {
+            int far = index;
+            int row = index / BitBoard.SIZE, col = index % BitBoard.SIZE;
+            for (int cell = 0; cell < BitBoard.CELLS; cell++) {
+                int distance = Math.abs(cell / BitBoard.SIZE - row) + Math.abs(cell % BitBoard.SIZE - col);
+                if (distance > Math.abs(far / BitBoard.SIZE - row) + Math.abs(far % BitBoard.SIZE - col)) {
+                    far = cell;
+                }
+            }
+            int adjacentCount = neighbors.adjacentCount[index];
+            int tuples = 1;
+            for (int k = 0; k < adjacentCount; k++) {
+                tuples *= states;
+            }
+            for (int state = 0; state < states; state++) {
+                for (int tuple = 0; tuple < tuples; tuple++) {
+                    board.clear();
+                    board.setCode(index, state <= 3 ? state : state + 1);
+                    for (int k = 0, t = tuple; k < adjacentCount; k++, t /= states) {
+                        int code = t % states;
+                        board.setCode(neighbors.adjacent[index * 4 + k], code <= 3 ? code : code + 1);
+                    }
+                    if (board.ownMask(true) == 0) {
+                        board.setCode(far, 1);
+                    } else if (board.ownMask(false) == 0) {
+                        board.setCode(far, 5);
+                    }
+                    boards++;
+                    for (int i = 0; i < evaluators.length; i++) {
+                        if (evaluators[i].evaluate() != references[i].evaluate(board)) {
+                            mismatches++;
+                        }
+                    }
+                }
+            }
+        }
+        board.clear();
+        System.out.printf("Pattern tables: %d boards, %d mismatches against the original evaluation%n", boards, mismatches);
+        return mismatches == 0;
+    }
+}
@@ -0,0 +1,442 @@
+// Hàm đánh giá thế cờ theo góc nhìn của một bên, tính tăng dần.
+// Điểm riêng của mỗi ô chỉ phụ thuộc vào các ô trong bán kính 2, nên mỗi lần evaluate()
+// chỉ tính lại các ô gần những ô đã đổi so với ảnh chụp bitboard của lần gọi trước.
+// Điểm mỗi ô lấy từ bảng mẫu dựng sẵn; evaluateFull() tính lại toàn bộ bàn cờ bằng các hàm duyệt gốc
+// và cho kết quả giống hệt evaluate().
+class Evaluator {
+    private static final int GRID_SIZE = BitBoard.SIZE;
+    private static final Neighbors NEIGHBORS = Neighbors.of(GRID_SIZE);
+
+    // Trọng số của khả năng tạo chuỗi nổ và điểm cho mỗi lần gặp quân nhiều điểm cùng màu cách 2 bước
+    private static final int CHAIN_WEIGHT = 750;
+    private static final int EXTENDED_BONUS = 30;
+
+    // Bảng mẫu: điểm của một ô theo (lớp vị trí, trạng thái ô, trạng thái các ô kề), dựng một lần
+    // từ các hàm tính điểm gốc (scanCellScore) với trọng số hiện tại.
+    // Trạng thái tương đối: 0 trống, 1-3 quân mình 1-3 điểm, 4-6 quân đối phương 1-3 điểm
+    // (quân 4 điểm chỉ còn lại khi chuỗi nổ dừng giữa chừng, các ô đó tính bằng hàm duyệt).
+    // Bộ trạng thái ô kề đánh số cơ số 7 theo thứ tự NEIGHBORS.adjacent (ô kề thứ k có trọng số 7^k),
+    // mỗi trạng thái ô một đoạn 7^(số ô kề) phần tử.
+    // Lớp vị trí gom các ô có cùng điểm vị trí và cùng số ô kề.
+    private static final int STATES = 7;
+    private static final int[] CELL_CLASS = new int[BitBoard.CELLS];
+    private static final int[] TUPLES = new int[BitBoard.CELLS];
+    private static final int[][] PATTERNS;
+    // Không có các số hạng chuỗi nổ thì điểm một ô chỉ phụ thuộc vào số ô kề của mỗi bên,
+    // nên bảng nhỏ hơn nhiều: LIGHT_PATTERNS[lớp][trạng thái * 25 + số ô kề của mình * 5 + số ô kề đối phương]
+    private static final int[][] LIGHT_PATTERNS;
+    // Số hạng chuỗi mở rộng (ô đi được bằng 2 bước) không nằm trong bảng: ô chéo xuất hiện 2 lần,
+    // ô cách 2 ô thẳng hàng 1 lần; chính ô đó (4 lần) đã tính trong bảng
+    private static final long[] EXTENDED_ONCE = new long[BitBoard.CELLS];
+    private static final long[] EXTENDED_TWICE = new long[BitBoard.CELLS];
+
+    static {
+        // Lớp vị trí của từng ô và một ô đại diện cho mỗi lớp
+        BitBoard scratch = new BitBoard();
+        Evaluator reference = new Evaluator(scratch, true, true);
+        int[] classKeys = new int[BitBoard.CELLS];
+        int[] representatives = new int[BitBoard.CELLS];
+        int classes = 0;
+        for (int index = 0; index < BitBoard.CELLS; index++) {
+            int adjacentCount = NEIGHBORS.adjacentCount[index];
+            int key = reference.evaluatePosition(index, 1, true) * 8 + adjacentCount;
+            int c = 0;
+            while (c < classes && classKeys[c] != key) {
+                c++;
+            }
+            if (c == classes) {
+                classKeys[classes] = key;
+                representatives[classes++] = index;
+            }
+            CELL_CLASS[index] = c;
+            int tuples = 1;
+            for (int k = 0; k < adjacentCount; k++) {
+                tuples *= STATES;
+            }
+            TUPLES[index] = tuples;
+
+            for (int k = index * 16, end = k + NEIGHBORS.extendedCount[index]; k < end; k++) {
+                long bit = 1L << NEIGHBORS.extended[k];
+                if (NEIGHBORS.extended[k] == index) {
+                    continue;
+                }
+                if ((EXTENDED_ONCE[index] & bit) != 0) {
+                    EXTENDED_ONCE[index] &= ~bit;
+                    EXTENDED_TWICE[index] |= bit;
+                } else {
+                    EXTENDED_ONCE[index] |= bit;
+                }
+            }
+        }
+        PATTERNS = buildPatterns(reference, representatives, classes);
+        LIGHT_PATTERNS = buildLightPatterns(new Evaluator(scratch, true, false), representatives, classes);
+    }
+
+    // Điểm scanCellScore của ô đại diện cho mọi trạng thái của nó và các ô kề, trên bàn cờ nháp
+    // chỉ có ô đó và các ô kề (các ô cách 2 bước trống)
+    private static int[][] buildPatterns(Evaluator reference, int[] representatives, int classes) {
+        BitBoard scratch = reference.board;
+        int[][] patterns = new int[classes][];
+        for (int c = 0; c < classes; c++) {
+            int index = representatives[c];
+            int adjacentCount = NEIGHBORS.adjacentCount[index];
+            int tuples = TUPLES[index];
+            int[] table = new int[STATES * tuples];
+            for (int state = 0; state < STATES; state++) {
+                scratch.setCode(index, codeOf(state));
+                for (int tuple = 0; tuple < tuples; tuple++) {
+                    for (int k = 0, t = tuple; k < adjacentCount; k++, t /= STATES) {
+                        scratch.setCode(NEIGHBORS.adjacent[index * 4 + k], codeOf(t % STATES));
+                    }
+                    table[state * tuples + tuple] = reference.scanCellScore(index);
+                }
+            }
+            scratch.clear();
+            patterns[c] = table;
+        }
+        return patterns;
+    }
+
+    // Điểm scanCellScore (không có số hạng chuỗi nổ) của ô đại diện theo số ô kề của mỗi bên:
+    // các ô kề đầu là quân mình 1 điểm, tiếp theo là quân đối phương 1 điểm, còn lại trống
+    private static int[][] buildLightPatterns(Evaluator reference, int[] representatives, int classes) {
+        BitBoard scratch = reference.board;
+        int[][] patterns = new int[classes][];
+        for (int c = 0; c < classes; c++) {
+            int index = representatives[c];
+            int adjacentCount = NEIGHBORS.adjacentCount[index];
+            int[] table = new int[STATES * 25];
+            for (int state = 0; state < STATES; state++) {
+                scratch.setCode(index, codeOf(state));
+                for (int own = 0; own <= adjacentCount; own++) {
+                    for (int opp = 0; own + opp <= adjacentCount; opp++) {
+                        for (int k = 0; k < adjacentCount; k++) {
+                            scratch.setCode(NEIGHBORS.adjacent[index * 4 + k], k < own ? 1 : k < own + opp ? 5 : 0);
+                        }
+                        table[state * 25 + own * 5 + opp] = reference.scanCellScore(index);
+                    }
+                }
+            }
+            scratch.clear();
+            patterns[c] = table;
+        }
+        return patterns;
+    }
+
+    // Mã ô trên bàn cờ nháp (bên mình là đỏ) của một trạng thái tương đối
+    private static int codeOf(int state) {
+        return state <= 3 ? state : state + 1;
+    }
+
+    private final BitBoard board;
+    private final boolean isRed;
+    // Có tính các số hạng đoán chuỗi nổ (tiềm năng chuỗi, mối đe dọa, thưởng quân 3 điểm) không.
+    // Khi tìm kiếm có tìm tĩnh qua các nước nổ thì chuỗi nổ đã được tính chính xác, bỏ các số hạng này
+    // cho hàm đánh giá rẻ hơn.
+    private final boolean chainTerms;
+    private final int[][] patterns;
+
+    // Điểm đã nhân trọng số của từng ô (vị trí, chuỗi nổ, mối đe dọa, bị bao vây) và tổng của chúng.
+    // Ảnh chụp ban đầu là bàn cờ trống, nơi mọi ô đều có điểm 0.
+    private final int[] cellScores = new int[BitBoard.CELLS];
+    private int cellScoreSum;
+    private long red, blue, ones, twos, threes, fours;
+
+    Evaluator(BitBoard board, boolean isRed) {
+        this(board, isRed, true);
+    }
+
+    Evaluator(BitBoard board, boolean isRed, boolean chainTerms) {
+        this.board = board;
+        this.isRed = isRed;
+        this.chainTerms = chainTerms;
+        this.patterns = chainTerms ? PATTERNS : LIGHT_PATTERNS;
+    }
+
+    int evaluate() {
+        long changed = (board.red ^ red) | (board.blue ^ blue)
+                | (board.ones ^ ones) | (board.twos ^ twos)
+                | (board.threes ^ threes) | (board.fours ^ fours);
+        if (changed != 0) {
+            long dirty = changed | BitBoard.spread(changed);
+            dirty |= BitBoard.spread(dirty);
+            for (long m = dirty; m != 0; m &= m - 1) {
+                int index = Long.numberOfTrailingZeros(m);
+                int cellScore = cellScore(index);
+                cellScoreSum += cellScore - cellScores[index];
+                cellScores[index] = cellScore;
+            }
+            red = board.red;
+            blue = board.blue;
+            ones = board.ones;
+            twos = board.twos;
+            threes = board.threes;
+            fours = board.fours;
+        }
+        return combine(cellScoreSum);
+    }
+
+    // Tính lại toàn bộ bằng các hàm duyệt gốc, không dùng điểm đã lưu và bảng mẫu (để đối chiếu với evaluate())
+    int evaluateFull() {
+        int sum = 0;
+        for (long m = board.occupied(); m != 0; m &= m - 1) {
+            sum += scanCellScore(Long.numberOfTrailingZeros(m));
+        }
+        return combine(sum);
+    }
+
+    //Đánh giá các nước đi
+    private int combine(int cellScoreSum) {
+        int score = 0;
+
+        // Đánh giá số lượng quân và điểm
+        long mine = board.ownMask(isRed);
+        long opp = board.ownMask(!isRed);
+        int myPieces = Long.bitCount(mine), oppPieces = Long.bitCount(opp);
+        int myDots = board.totalDots(isRed), oppDots = board.totalDots(!isRed);
+        int myThreeDots = Long.bitCount(mine & board.dotMask(3));
+
+        // Kiểm tra trạng thái kết thúc
+        if (myPieces == 0) return -100000;
+        if (oppPieces == 0) return 100000;
+
+        // Tính điểm tổng hợp với trọng số mới
+        score = (myPieces - oppPieces) * 200 +                    // Trọng số cho số lượng quân
+                (myDots - oppDots) * 180 +                        // Tăng trọng số cho tổng số điểm
+                (chainTerms ? myThreeDots * 1000 : 0) +           // Tăng mạnh trọng số cho quân 3 điểm
+                cellScoreSum;                                     // Chuỗi nổ, mối đe dọa, vị trí, bị bao vây
+
+        // Tỷ lệ quân tương đối
+        if (oppPieces > 0) {
+            float pieceRatio = (float) myPieces / oppPieces;
+            if (pieceRatio > 1.5) {
+                score += 800;  
+            }
+        }
+        
+        // Thêm điểm thưởng cho các tình huống đặc biệt
+        if (myPieces > oppPieces) {
+            score += 500;
+        }
+        
+        if (myThreeDots > 0 && chainTerms) {
+            score += 900; // Tăng điểm thưởng cho việc có quân 3 điểm
+        }
+
+        return score;
+    }
+
+    // Phần điểm riêng của một ô, đã nhân trọng số: tra bảng mẫu theo trạng thái ô và các ô kề,
+    // cộng số hạng chuỗi mở rộng cho quân mình từ 2 điểm
+    private int cellScore(int index) {
+        if ((board.fours & ((1L << index) | BitBoard.neighbors(index))) != 0) {
+            return scanCellScore(index);
+        }
+        long opp = board.ownMask(!isRed);
+        int state = state(index, opp);
+        if (state == 0) {
+            return 0;
+        }
+        if (!chainTerms) {
+            long neighbors = BitBoard.neighbors(index);
+            return patterns[CELL_CLASS[index]][state * 25
+                    + Long.bitCount(neighbors & board.ownMask(isRed)) * 5 + Long.bitCount(neighbors & opp)];
+        }
+        int base = index * 4;
+        int tuple = 0;
+        for (int k = base + NEIGHBORS.adjacentCount[index] - 1; k >= base; k--) {
+            tuple = tuple * STATES + state(NEIGHBORS.adjacent[k], opp);
+        }
+        int score = patterns[CELL_CLASS[index]][state * TUPLES[index] + tuple];
+        if (state >= 2 && state <= 3) {
+            long ownMulti = board.ownMask(isRed) & ~board.dotMask(1);
+            int extended = Long.bitCount(EXTENDED_ONCE[index] & ownMulti)
+                    + 2 * Long.bitCount(EXTENDED_TWICE[index] & ownMulti);
+            score += extended * EXTENDED_BONUS * CHAIN_WEIGHT;
+        }
+        return score;
+    }
+
+    // Trạng thái tương đối của ô (không có quân 4 điểm), không rẽ nhánh
+    private int state(int index, long opp) {
+        int dots = (int) (board.ones >>> index & 1)
+                + 2 * (int) (board.twos >>> index & 1)
+                + 3 * (int) (board.threes >>> index & 1);
+        return dots + 3 * (int) (opp >>> index & 1);
+    }
+
+    // Phần điểm riêng của một ô tính bằng cách duyệt các ô xung quanh (dùng để dựng bảng mẫu)
+    private int scanCellScore(int index) {
+        long bit = 1L << index;
+        int dots = board.dots(index);
+        if ((board.ownMask(isRed) & bit) != 0) {
+            int score = evaluatePosition(index, dots, isRed) * 300;      // Điểm vị trí chiến lược
+            if (dots >= 2 && chainTerms) {
+                score += evaluateChainPotential(index, isRed) * CHAIN_WEIGHT; // Khả năng tạo chuỗi nổ
+            }
+            if (isSurrounded(index, isRed)) {
+                score -= 250;                                            // Điểm phạt khi bị đối thủ bao vây
+            }
+            return score;
+        }
+        if ((board.ownMask(!isRed) & bit) != 0 && dots >= 2 && chainTerms) {
+            return -evaluateOpponentChainThreat(index, isRed) * 500;     // Mối đe dọa từ đối phương
+        }
+        return 0;
+    }
+
+    // Đánh giá vị trí chiến lược
+    private int evaluatePosition(int index, int dots, boolean isRed) {
+        int posScore = 0;
+        int row = index / GRID_SIZE, col = index % GRID_SIZE;
+        
+        // Vị trí góc có giá trị cao vì khó bị bao vây
+        if ((row == 0 || row == GRID_SIZE-1) && (col == 0 || col == GRID_SIZE-1)) {
+            posScore += 50;
+        }
+        
+        // Vị trí cạnh có giá trị trung bình
+        else if (row == 0 || row == GRID_SIZE-1 || col == 0 || col == GRID_SIZE-1) {
+            posScore += 25;
+        }
+        
+        // Vị trí trung tâm có giá trị cho việc kiểm soát bàn cờ
+        int center = GRID_SIZE / 2;
+        int distanceToCenter = Math.abs(row - center) + Math.abs(col - center);
+        if (distanceToCenter <= 1) {
+            posScore += 40;
+        }
+        
+        // Quân 3 điểm ở vị trí tốt có giá trị rất cao
+        if (dots == 3) {
+            posScore += 30;
+            
+            // Đặc biệt cao nếu ở vị trí có thể gây chuỗi nổ:
+            // tăng giá trị cho mỗi ô kề là quân cùng màu
+            posScore += 40 * Long.bitCount(BitBoard.neighbors(index) & board.ownMask(isRed));
+        }
+        
+        return posScore;
+    }
+
+    //Đánh giá mức độ bị bao vây: quân có đa số hàng xóm là quân đối phương
+    private boolean isSurrounded(int index, boolean isRed) {
+        int totalNeighbors = NEIGHBORS.adjacentCount[index];
+        int opponentNeighbors = Long.bitCount(BitBoard.neighbors(index) & board.ownMask(!isRed));
+        return opponentNeighbors > totalNeighbors / 2;
+    }
+
+
+    //Đánh giá khả năng tạo chuỗi nổ
+    private int evaluateChainPotential(int index, boolean isRed) {
+        int chainScore = 0;
+        long own = board.ownMask(isRed);
+        long opponent = board.ownMask(!isRed);
+        
+        // Đánh giá quân hiện tại
+        int currentDots = board.dots(index);
+        
+        // Quân càng nhiều điểm càng có khả năng tạo chuỗi nổ
+        chainScore += currentDots * 20;
+
+        // Đánh giá các quân xung quanh
+        int base = index * 4;
+        for (int k = base, end = base + NEIGHBORS.adjacentCount[index]; k < end; k++) {
+            int neighbor = NEIGHBORS.adjacent[k];
+            long bit = 1L << neighbor;
+
+            // Tăng điểm cho chuỗi nổ tiềm năng với quân cùng màu
+            if ((own & bit) != 0) {
+                int neighborDots = board.dots(neighbor);
+
+                chainScore += 40 + neighborDots * 15;
+                
+                // Đặc biệt ưu tiên chuỗi có quân 3 điểm
+                if (neighborDots == 3 || currentDots == 3) {
+                    chainScore += 100;
+                }
+
+                if ((currentDots == 2 && neighborDots == 3) || 
+                    (currentDots == 3 && neighborDots == 2) ||
+                    (currentDots == 2 && neighborDots == 2) ||
+                    (currentDots == 3 && neighborDots == 3)) {
+                    chainScore += 120;
+                }
+            }
+            
+            // Tăng điểm cho khả năng ảnh hưởng đến quân đối phương
+            if ((opponent & bit) != 0) {
+                chainScore += 60;
+                
+                // Nếu quân đối phương có nhiều điểm, gây ảnh hưởng có giá trị cao
+                int oppDots = board.dots(neighbor);
+                if (oppDots >= 2) {
+                    chainScore += oppDots * 20;
+                }
+            }
+        }
+        
+        // Đánh giá chuỗi mở rộng hơn (kiểm tra các quân cách 2 ô)
+        if (currentDots >= 2) {
+            long ownMulti = own & ~board.dotMask(1);
+            base = index * 16;
+            for (int k = base, end = base + NEIGHBORS.extendedCount[index]; k < end; k++) {
+                if ((ownMulti & (1L << NEIGHBORS.extended[k])) != 0) {
+                    chainScore += EXTENDED_BONUS;
+                }
+            }
+        }
+        
+        return chainScore;
+    }
+
+    // Cải thiện đánh giá mối đe dọa từ đối phương
+    private int evaluateOpponentChainThreat(int index, boolean isRed) {
+        int threatScore = 0;
+        long own = board.ownMask(isRed);
+        long opponent = board.ownMask(!isRed);
+        
+        int currentDots = board.dots(index);
+        
+        // Quân đối phương càng nhiều điểm càng nguy hiểm
+        threatScore += currentDots * 30;
+
+        int base = index * 4;
+        for (int k = base, end = base + NEIGHBORS.adjacentCount[index]; k < end; k++) {
+            int neighbor = NEIGHBORS.adjacent[k];
+            long bit = 1L << neighbor;
+
+            // Đánh giá mối đe dọa từ quân khác của đối phương
+            if ((opponent & bit) != 0) {
+                int neighborDots = board.dots(neighbor);
+                threatScore += 50 + neighborDots * 20;
+                
+                // Mối đe dọa cao với chuỗi 2-2, 2-3, 3-2, 3-3
+                if ((currentDots == 2 && neighborDots == 2) ||
+                    (currentDots == 2 && neighborDots == 3) ||
+                    (currentDots == 3 && neighborDots == 2) ||
+                    (currentDots == 3 && neighborDots == 3)) {
+                    threatScore += 150;
+                }
+                
+                // Đánh giá mối đe dọa từ quân 3 điểm đối phương (từ hàm evaluateThreeDotThreat)
+                if (neighborDots == 3) {
+                    threatScore += 100;
+                }
+            }
+            
+            // Đánh giá mối đe dọa đến quân của chúng ta
+            if ((own & bit) != 0) {
+                threatScore += 40; // Quân đối phương gần quân của chúng ta
+            }
+        }
+        
+        // Kiểm tra mẫu hình đe dọa đặc biệt: quân 3 điểm có thể gây chuỗi nổ.
+        // Nếu quân 3 điểm có ít nhất 2 quân liền kề cùng màu, tăng mạnh điểm đe dọa
+        if (currentDots == 3 && Long.bitCount(BitBoard.neighbors(index) & opponent) >= 2) {
+            threatScore += 250;
+        }
+        
+        return threatScore;
+    }
+}
@@ -0,0 +1,32 @@
+// Thế cờ mà giao diện (GameLogic) hiển thị và AI tìm kiếm: BitBoard cho bàn 5x5 (engine tìm kiếm đầy đủ),
+// GridBoard cho bàn N x N kích thước chọn lúc chạy. Cùng luật chơi, cùng quy ước:
+// ô i = row * size() + col, mã ô 0 trống, 1-4 đỏ, 5-8 xanh.
+public interface GameBoard {
+    int size();
+
+    int code(int index);
+
+    boolean isRedTurn();
+
+    boolean isRedMoved();
+
+    boolean isBlueMoved();
+
+    int redPieces();
+
+    int bluePieces();
+
+    boolean isGameOver();
+
+    boolean isLegal(int index);
+
+    // Ghi các nước đi hợp lệ (chỉ số ô, tăng dần) vào moves, trả về số nước
+    int legalMoves(int[] moves);
+
+    boolean applyMove(int index);
+
+    // Như applyMove, đồng thời ghi các ô đổi theo từng lớp nổ vào record
+    boolean applyMove(int index, MoveRecord record);
+
+    void clear();
+}
@@ -1,19 +1,46 @@
 import java.awt.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
-import java.util.ArrayList;
-import java.util.LinkedList;
-import java.util.List;
-import java.util.Queue;
+import java.util.ArrayDeque;
 import javax.swing.*;
+// Bàn cờ trên giao diện: trạng thái ván và luật chơi nằm trong GameBoard (BitBoard cho bàn 5x5, GridBoard cho
+// bàn N x N khác), các Cell chỉ hiển thị bàn cờ đó và được vẽ trực tiếp trên panel này.
 public class GameLogic extends JPanel {
-    public static final int GRID_SIZE = 5;
+    // Kích thước bàn cờ, vd. java -Dcolorwars.size=64 Main (mặc định 5, từ 2 tới 256)
+    public static final String SIZE_PROPERTY = "colorwars.size";
+    // Thời gian mỗi lớp nổ (ms) và chế độ bỏ qua hiệu ứng, vd. java -Dcolorwars.waveMillis=400 -Dcolorwars.turbo=true Main
+    public static final String WAVE_MILLIS_PROPERTY = "colorwars.waveMillis";
+    public static final String TURBO_PROPERTY = "colorwars.turbo";
+    private static final int DEFAULT_WAVE_MILLIS = 800;
+    // Hiệu ứng nảy của ô vừa đổi trạng thái kéo dài tối đa chừng này (và không quá nửa lớp nổ)
+    private static final int POP_MILLIS = 250;
     private static final int CELL_SIZE = 80;
+    // Bàn cờ chiếm tối đa chừng này pixel mỗi chiều (5 ô 80px cách nhau 5px), ô nhỏ lại khi bàn lớn hơn
+    private static final int BOARD_PIXELS = BitBoard.SIZE * (CELL_SIZE + 5);
     private static final int PADDING = 20;
-    private boolean isRedTurn = true;
-    private boolean redHasMoved = false;
-    private boolean blueHasMoved = false;
-    private final Cell[][] grid = new Cell[GRID_SIZE][GRID_SIZE];
+    private final int size;
+    // Khoảng cách giữa hai ô liền kề và cạnh của một ô (pixel)
+    private final int pitch;
+    private final int cellSize;
+    private final GameBoard board;
+    private final Cell[][] grid;
+    // Trạng thái các Cell đang hiển thị (mã ô và bitset quân đỏ/xanh) cùng các ô đang tô sáng và số quân trên
+    // bảng điểm; cập nhật theo từng ô đổi (showCell) nên không phải duyệt lại cả bàn cờ
+    private final int[] shownCodes;
+    private final long[] shownRed, shownBlue;
+    private final long[] highlightedCells;
+    private int shownRedCount, shownBlueCount;
+    private int shownRedScore = -1, shownBlueScore = -1;
+    // Lượt đang hiển thị (nhãn lượt, màu nền, ô tô sáng): đổi khi hiệu ứng của nước trước phát xong
+    private boolean shownRedTurn = true;
+    // Nước đi được giải xong ngay trên board; các Cell phát lại từng lớp nổ sau đó qua animator.
+    // Hàng đợi các nước chưa phát xong và trạng thái phát, chỉ dùng trên luồng giao diện.
+    private final ArrayDeque<QueuedMove> replayQueue = new ArrayDeque<>();
+    private boolean replaying = false;
+    private final Animator animator = new Animator();
+    private int waveMillis;
+    // Ván đã kết thúc, màn hình kết thúc chờ hiệu ứng của nước cuối phát xong
+    private String pendingWinner;
     private final Color emptyColor;
     private final Color blueTeamColor;
     private final Color redTeamColor;
@@ -24,6 +51,24 @@ public class GameLogic extends JPanel {
     private Color blueBgColor = new Color(94, 224, 255);
 
     public GameLogic(Color emptyColor, Color blueTeamColor, Color redTeamColor, JLabel turnLabel, ViewColorWars parent) {
+        this(emptyColor, blueTeamColor, redTeamColor, turnLabel, parent, configuredSize());
+    }
+
+    public GameLogic(Color emptyColor, Color blueTeamColor, Color redTeamColor, JLabel turnLabel, ViewColorWars parent,
+                     int size) {
+        this.size = size;
+        pitch = pitch(size);
+        cellSize = pitch - (pitch >= 17 ? pitch / 17 : 0);
+        board = size == BitBoard.SIZE ? new BitBoard() : new GridBoard(size);
+        grid = new Cell[size][size];
+        shownCodes = new int[size * size];
+        int words = (size * size + 63) >>> 6;
+        shownRed = new long[words];
+        shownBlue = new long[words];
+        highlightedCells = new long[words];
+        // Bàn lớn có chuỗi nổ nhiều lớp hơn: mặc định mỗi lớp ngắn lại theo kích thước bàn
+        int defaultWaveMillis = Math.max(Animator.FRAME_MILLIS, DEFAULT_WAVE_MILLIS * BitBoard.SIZE / size);
+        waveMillis = Integer.getInteger(WAVE_MILLIS_PROPERTY, defaultWaveMillis);
         this.emptyColor = emptyColor;
         this.blueTeamColor = blueTeamColor;
         this.redTeamColor = redTeamColor;
@@ -33,113 +78,260 @@ public class GameLogic extends JPanel {
         setOpaque(false);
         initializeGrid();
         updateCellHighlights();
+        animator.setTurbo(Boolean.getBoolean(TURBO_PROPERTY));
+    }
+
+    // Kích thước bàn cờ theo thuộc tính colorwars.size, giới hạn trong [2, 256]
+    public static int configuredSize() {
+        int size = Integer.getInteger(SIZE_PROPERTY, BitBoard.SIZE);
+        return Math.max(GridBoard.MIN_SIZE, Math.min(GridBoard.MAX_SIZE, size));
+    }
+
+    private static int pitch(int size) {
+        return Math.max(2, Math.min(CELL_SIZE + 5, BOARD_PIXELS / size));
+    }
+
+    // Cạnh của panel bàn cờ (gồm lề) cho bàn size x size; 475 với bàn 5x5
+    public static int panelSize(int size) {
+        return 2 * PADDING + size * pitch(size) + 10;
     }
 
     @Override
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
         // Set background color based on turn
-        Color bgColor = isRedTurn ? redBgColor : blueBgColor;
+        Color bgColor = shownRedTurn ? redBgColor : blueBgColor;
         g.setColor(bgColor);
         g.fillRect(0, 0, getWidth(), getHeight());
+
+        // Chỉ vẽ các ô nằm trong vùng cần vẽ lại
+        Rectangle clip = g.getClipBounds();
+        if (clip == null) {
+            clip = new Rectangle(0, 0, getWidth(), getHeight());
+        }
+        int firstRow = Math.max(0, (clip.y - PADDING) / pitch);
+        int lastRow = Math.min(size - 1, (clip.y + clip.height - PADDING) / pitch);
+        int firstCol = Math.max(0, (clip.x - PADDING) / pitch);
+        int lastCol = Math.min(size - 1, (clip.x + clip.width - PADDING) / pitch);
+        Graphics2D g2d = (Graphics2D) g;
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int col = firstCol; col <= lastCol; col++) {
+                grid[row][col].paint(g2d);
+            }
+        }
     }
 
     private void initializeGrid() {
-        for (int row = 0; row < GRID_SIZE; row++) {
-            for (int col = 0; col < GRID_SIZE; col++) {
-                grid[row][col] = new Cell(row, col, emptyColor, redTeamColor, blueTeamColor);
-                grid[row][col].setBounds(
-                        PADDING + col * (CELL_SIZE + 5),
-                        PADDING + row * (CELL_SIZE + 5),
-                        CELL_SIZE,
-                        CELL_SIZE
-                );
-
-                final int r = row;
-                final int c = col;
-                grid[row][col].addMouseListener(new MouseAdapter() {
-                    @Override
-                    public void mousePressed(MouseEvent e) {
-                        handleCellClick(r, c);
-                    }
-                });
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                grid[row][col] = new Cell(row, col, emptyColor, redTeamColor, blueTeamColor, this,
+                        PADDING + col * pitch, PADDING + row * pitch, cellSize);
+            }
+        }
 
-                add(grid[row][col]);
+        // Một bộ nghe chuột cho cả bàn cờ, đổi tọa độ ra ô
+        addMouseListener(new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                int index = cellAt(e.getX(), e.getY());
+                // Bàn cờ đang hiển thị chưa bắt kịp board: chờ hiệu ứng phát xong
+                if (index >= 0 && !replaying) {
+                    handleCellClick(index / size, index % size);
+                }
             }
+        });
+    }
+
+    // Ô tại tọa độ (x, y) trên panel, -1 nếu ngoài bàn cờ hoặc nằm ở khe giữa hai ô
+    private int cellAt(int x, int y) {
+        x -= PADDING;
+        y -= PADDING;
+        if (x < 0 || y < 0 || x % pitch >= cellSize || y % pitch >= cellSize) {
+            return -1;
         }
+        int row = y / pitch;
+        int col = x / pitch;
+        return row < size && col < size ? row * size + col : -1;
     }
 
     private void handleCellClick(int row, int col) {
-        Cell cell = grid[row][col];
-        CellState state = cell.getState();
-        if (state == CellState.EMPTY) {
-            if ((isRedTurn && !redHasMoved) || (!isRedTurn && !blueHasMoved)) {
-                cell.setState(isRedTurn ? CellState.RED_THREE : CellState.BLUE_THREE);
-                if (isRedTurn) {
-                    redHasMoved = true;
-                } else {
-                    blueHasMoved = true;
-                }
-                isRedTurn = !isRedTurn;
-                // Play sound in a separate thread to avoid blocking UI
-                new Thread(() -> SoundManager.playScore()).start();
-                updateScoreDisplay();
-                updateTurnLabel();
-                updateCellHighlights();
-                repaint(); // Repaint to update background color
-                checkGameOver();
+        MoveRecord record = new MoveRecord();
+        if (!board.applyMove(row * size + col, record)) {
+            return;
+        }
+        // Nước đi (kể cả chuỗi nổ) đã xong trên board: kích hoạt AI và kiểm tra kết thúc ngay.
+        // Bàn cờ, bảng điểm, nhãn lượt và màn hình kết thúc cập nhật theo hiệu ứng phát lại
+        replayQueue.add(new QueuedMove(record, board.isRedTurn()));
+        checkGameOver();
+        if (!replaying) {
+            playNextMove();
+        }
+        requestAIMove();
+    }
+
+    // Một nước chờ phát lại và lượt đi sau nước đó
+    private static final class QueuedMove {
+        final MoveRecord record;
+        final boolean redTurnAfter;
+
+        QueuedMove(MoveRecord record, boolean redTurnAfter) {
+            this.record = record;
+            this.redTurnAfter = redTurnAfter;
+        }
+    }
+
+    // Phát nước kế tiếp trong hàng đợi: ô được chạm hiện ngay, lớp nổ thứ w hiện sau (w - 1) * waveMillis,
+    // nước kết thúc sau lớp cuối thêm waveMillis. Phát xong mọi nước thì hiện màn hình kết thúc nếu có
+    private void playNextMove() {
+        QueuedMove move = replayQueue.poll();
+        if (move == null) {
+            replaying = false;
+            showPendingGameOver();
+            return;
+        }
+        replaying = true;
+        showWave(move.record, 0);
+        if (move.record.waveCount() == 1) {
+            SoundManager.playScore();
+            moveShown(move);
+            return;
+        }
+        animator.start(new WaveReplay(move));
+    }
+
+    // Hiệu ứng của một nước đã phát xong: chuyển lượt hiển thị rồi phát nước kế tiếp
+    private void moveShown(QueuedMove move) {
+        showTurn(move.redTurnAfter);
+        playNextMove();
+    }
+
+    private class WaveReplay implements Animator.Animation {
+        private final QueuedMove move;
+        private final MoveRecord record;
+        private final long startNanos = System.nanoTime();
+        // Lớp kế tiếp chưa hiện
+        private int next = 1;
+
+        WaveReplay(QueuedMove move) {
+            this.move = move;
+            this.record = move.record;
+        }
+
+        @Override
+        public boolean tick(long nowNanos) {
+            long elapsed = (nowNanos - startNanos) / 1_000_000L;
+            while (next < record.waveCount() && elapsed >= (long) (next - 1) * waveMillis) {
+                SoundManager.playExplosion();
+                showWave(record, next++);
             }
-        } else if ((isRedTurn && state.isRed()) || (!isRedTurn && state.isBlue())) {
-            CellState nextState = state.getNextState();
-            cell.setState(nextState);
-            
-            if (nextState == CellState.RED_FOUR || nextState == CellState.BLUE_FOUR) {
-                // Explosion sound will be handled in explodeCell method
-                explodeCell(row, col, nextState, () -> {
-                    SwingUtilities.invokeLater(() -> {
-                        // Chỉ chuyển lượt sau khi nổ hoàn thành
-                        isRedTurn = !isRedTurn;
-                        updateTurnLabel();
-                        updateScoreDisplay();
-                        updateCellHighlights();
-                        repaint(); // Repaint to update background color
-                        checkGameOver();
-                    });
-                });
+            if (elapsed < (long) (record.waveCount() - 1) * waveMillis) {
+                return true;
+            }
+            moveShown(move);
+            return false;
+        }
+
+        @Override
+        public void finish() {
+            while (next < record.waveCount()) {
+                showWave(record, next++);
+            }
+            moveShown(move);
+        }
+    }
+
+    // Hiệu ứng nảy của một ô: quân phóng to từ 60% lên kích thước thật
+    private class CellPop implements Animator.Animation {
+        private final Cell cell;
+        private final long startNanos = System.nanoTime();
+        private final long durationNanos = Math.max(1, Math.min(POP_MILLIS, waveMillis / 2)) * 1_000_000L;
+
+        CellPop(Cell cell) {
+            this.cell = cell;
+            cell.setScale(0.6f);
+        }
+
+        @Override
+        public boolean tick(long nowNanos) {
+            double t = Math.min(1.0, (double) (nowNanos - startNanos) / durationNanos);
+            cell.setScale((float) (0.6 + 0.4 * Animator.easeOutBack(t)));
+            return t < 1.0;
+        }
+
+        @Override
+        public void finish() {
+            cell.setScale(1f);
+        }
+    }
+
+    // Hiện một lớp của nước đi; bảng điểm (số quân mỗi bên) theo các ô đang hiển thị
+    private void showWave(MoveRecord record, int wave) {
+        for (int i = record.waveStart(wave), end = record.waveEnd(wave); i < end; i++) {
+            showCell(record.cell(i), record.code(i));
+        }
+        updateCellHighlights();
+        showScores(shownRedCount, shownBlueCount);
+    }
+
+    // Sự kiện một ô đổi trạng thái hiển thị: vẽ lại ô đó và cập nhật các mask hiển thị
+    private void showCell(int cell, int code) {
+        if (shownCodes[cell] == code) {
+            return;
+        }
+        int old = shownCodes[cell];
+        if (old != BitBoard.EMPTY) {
+            if (old <= 4) {
+                shownRedCount--;
             } else {
-                // Play sound in a separate thread to avoid blocking UI
-                new Thread(() -> SoundManager.playScore()).start();
-                isRedTurn = !isRedTurn;
-                updateTurnLabel();
-                updateCellHighlights();
-                repaint(); // Repaint to update background color
-                checkGameOver();
+                shownBlueCount--;
             }
         }
+        shownCodes[cell] = code;
+        int w = cell >>> 6;
+        long bit = 1L << cell;
+        shownRed[w] &= ~bit;
+        shownBlue[w] &= ~bit;
+        if (code != BitBoard.EMPTY) {
+            if (code <= 4) {
+                shownRed[w] |= bit;
+                shownRedCount++;
+            } else {
+                shownBlue[w] |= bit;
+                shownBlueCount++;
+            }
+        }
+        Cell view = grid[cell / size][cell % size];
+        view.setState(BitBoard.stateOf(code));
+        // Ô quá nhỏ thì không vẽ hiệu ứng nảy
+        if (code != BitBoard.EMPTY && cellSize >= Cell.DETAIL_SIZE) {
+            animator.start(new CellPop(view));
+        }
     }
 
-    private void updateTurnLabel() {
+    // Giao diện chỉ hiển thị bàn cờ: hiện ngay trạng thái của board, chỉ vẽ lại các ô khác với đang hiển thị
+    // (chỉ dùng khi bắt đầu ván, các nước đi cập nhật qua MoveRecord)
+    private void syncCells() {
+        for (int cell = 0; cell < shownCodes.length; cell++) {
+            showCell(cell, board.code(cell));
+        }
+        updateCellHighlights();
+    }
+
+    // Hiện lượt đi: nhãn lượt, màu nền và các ô tô sáng
+    private void showTurn(boolean isRedTurn) {
+        shownRedTurn = isRedTurn;
         turnLabel.setText("Lượt: " + (isRedTurn ? "Đỏ" : "Xanh"));
         turnLabel.setForeground(isRedTurn ? redTeamColor : blueTeamColor);
 
         // Update parent background
         parent.updateBackgroundColor();
+        updateCellHighlights();
+        repaint(); // Repaint to update background color
+    }
 
-        // Đếm quân hiện tại
-        int redCount = 0, blueCount = 0;
-        for (int row = 0; row < GRID_SIZE; row++) {
-            for (int col = 0; col < GRID_SIZE; col++) {
-                CellState state = grid[row][col].getState();
-                if (state.isRed()) {
-                    redCount++;
-                } else if (state.isBlue()) {
-                    blueCount++;
-                }
-            }
-        }
-
-        // Xử lý kích hoạt AI - AI now can be either red or blue player
-        if (redHasMoved || blueHasMoved) { // At least one move has been made
+    // Xử lý kích hoạt AI theo lượt thật trên board (AI tìm nước song song với hiệu ứng)
+    private void requestAIMove() {
+        if (board.isRedMoved() || board.isBlueMoved()) { // At least one move has been made
             if (!isGameOver()) {
                 // Let the parent class decide when to activate AI based on who's turn it is
                 SwingUtilities.invokeLater(() -> {
@@ -153,186 +345,76 @@ public class GameLogic extends JPanel {
         }
     }
 
+    // Tô sáng quân đang hiển thị của bên đi; chỉ chạm vào các ô đổi trạng thái tô sáng
     private void updateCellHighlights() {
-        for (int row = 0; row < GRID_SIZE; row++) {
-            for (int col = 0; col < GRID_SIZE; col++) {
-                Cell cell = grid[row][col];
-                CellState state = cell.getState();
-                
-                // Highlight cells of the current turn's color
-                if ((isRedTurn && state.isRed()) || (!isRedTurn && state.isBlue())) {
-                    cell.setHighlighted(true);
-                } else {
-                    cell.setHighlighted(false);
-                }
+        long[] wanted = shownRedTurn ? shownRed : shownBlue;
+        for (int w = 0; w < wanted.length; w++) {
+            for (long m = wanted[w] ^ highlightedCells[w]; m != 0; m &= m - 1) {
+                int cell = (w << 6) + Long.numberOfTrailingZeros(m);
+                grid[cell / size][cell % size].setHighlighted((wanted[w] & (1L << cell)) != 0);
             }
+            highlightedCells[w] = wanted[w];
         }
     }
 
-    private void explodeCell(int row, int col, CellState explodingState, Runnable onFinish) {
-        new Thread(() -> {
-            Queue<int[]> queue = new LinkedList<>();
-            queue.add(new int[]{row, col});
-            SoundManager.playExplosion(); // Play sound for initial explosion
-
-            while (!queue.isEmpty()) {
-                List<int[]> nextExplosions = new ArrayList<>();
-
-                int size = queue.size(); // xử lý theo "từng lớp" của nổ
-                for (int i = 0; i < size; i++) {
-                    int[] cellPos = queue.poll();
-                    int r = cellPos[0], c = cellPos[1];
-
-                    grid[r][c].setState(CellState.EMPTY);
-
-                    boolean isRed = explodingState.isRed();
-                    int[][] directions = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}};
-
-                    List<int[]> toBeUpdated = new ArrayList<>();
-
-                    for (int[] dir : directions) {
-                        int newRow = r + dir[0], newCol = c + dir[1];
-
-                        if (isValidPosition(newRow, newCol)) {
-                            toBeUpdated.add(new int[]{newRow, newCol});
-                        }
-                    }
-
-                    for (int[] pos : toBeUpdated) {
-                        int newRow = pos[0], newCol = pos[1];
-                        Cell neighbor = grid[newRow][newCol];
-                        CellState neighborState = neighbor.getState();
-                        int neighborDots = getDotCount(neighborState);
-
-                        CellState oldState = neighborState;
-                        if (isOppositeColor(explodingState, neighborState)) {
-                            neighborDots += 1;
-                            neighbor.setState(isRed ? getStateByDotCount(neighborDots, true) : getStateByDotCount(neighborDots, false));
-                        } else if ((isRed && neighborState.isRed()) || (!isRed && neighborState.isBlue())) {
-                            neighbor.setState(neighborState.getNextState());
-                        } else if (neighborState == CellState.EMPTY) {
-                            neighbor.setState(isRed ? CellState.RED_ONE : CellState.BLUE_ONE);
-                        }
-
-                        if (neighbor.getState() == CellState.RED_FOUR || neighbor.getState() == CellState.BLUE_FOUR) {
-                            nextExplosions.add(new int[]{newRow, newCol});
-                        }
-                    }
-                }
-
-                sleep(800);
-                
-                // Play explosion sound for each subsequent chain reaction if there are any
-                if (!nextExplosions.isEmpty()) {
-                    SoundManager.playExplosion();
-                }
-
-                queue.addAll(nextExplosions);
-            }
-
-            SwingUtilities.invokeLater(() -> {
-                checkGameOver();
-                onFinish.run();
-            });
-        }).start();
-    }
-
-    private void sleep(int millis) {
-        try {
-            Thread.sleep(millis);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
+    private void checkGameOver() {
+        if (!board.isGameOver()) {
+            return;
         }
-    }
-    private boolean isValidPosition(int row, int col) {
-        return row >= 0 && row < grid.length && col >= 0 && col < grid[0].length;
-    }
-
-    private int getDotCount(CellState state) {
-        switch (state) {
-            case RED_ONE:
-            case BLUE_ONE:
-                return 1;
-            case RED_TWO:
-            case BLUE_TWO:
-                return 2;
-            case RED_THREE:
-            case BLUE_THREE:
-                return 3;
-            case RED_FOUR:
-            case BLUE_FOUR:
-                return 4;
-            default:
-                return 0;
+
+        boolean redWins = board.redPieces() > 0;
+        String winner = redWins ? "ĐỎ" : "XANH";
+        if (redWins) {
+            scoreR++;
+        } else {
+            scoreB++;
         }
+        parent.deactivateAI();
+        pendingWinner = winner;
     }
 
-    private CellState getStateByDotCount(int dotCount, boolean isRed) {
-        switch (dotCount) {
-            case 1:
-                return isRed ? CellState.RED_ONE : CellState.BLUE_ONE;
-            case 2:
-                return isRed ? CellState.RED_TWO : CellState.BLUE_TWO;
-            case 3:
-                return isRed ? CellState.RED_THREE : CellState.BLUE_THREE;
-            case 4:
-                return isRed ? CellState.RED_FOUR : CellState.BLUE_FOUR;
-            default:
-                return CellState.EMPTY;
+    // Kết quả ván (tỉ số và màn hình kết thúc) chỉ hiện khi hiệu ứng của nước cuối đã phát xong
+    private void showPendingGameOver() {
+        if (pendingWinner != null) {
+            showScores(scoreR, scoreB);
+            parent.showGameOver(pendingWinner);
+            pendingWinner = null;
         }
     }
 
-    private boolean isOppositeColor(CellState s1, CellState s2) {
-        return (s1.isRed() && s2.isBlue()) || (s1.isBlue() && s2.isRed());
+    public void resetGame() {
+        showScores(0, 0);
+        // Bỏ các nước chưa phát, đưa hiệu ứng đang chạy về trạng thái cuối
+        replayQueue.clear();
+        pendingWinner = null;
+        animator.finishAll();
+        board.clear();
+        syncCells();
+        showTurn(board.isRedTurn());
+        parent.reinitializeAI();
     }
 
-    private void checkGameOver() {
-        if (!redHasMoved || !blueHasMoved) {
-            return;
-        }
+    // Thời gian mỗi lớp nổ khi phát lại chuỗi nổ
+    public void setWaveMillis(int waveMillis) {
+        this.waveMillis = Math.max(0, waveMillis);
+    }
 
-        int redCount = 0;
-        int blueCount = 0;
+    public int getWaveMillis() {
+        return waveMillis;
+    }
 
-        for (int row = 0; row < GRID_SIZE; row++) {
-            for (int col = 0; col < GRID_SIZE; col++) {
-                CellState state = grid[row][col].getState();
-                if (state.isRed()) {
-                    redCount++;
-                } else if (state.isBlue()) {
-                    blueCount++;
-                }
-            }
-        }
+    // Chế độ turbo: bỏ qua mọi hiệu ứng, bàn cờ hiện ngay trạng thái sau nước đi
+    public void setTurbo(boolean turbo) {
+        animator.setTurbo(turbo);
+    }
 
-        if ((redCount == 0 || blueCount == 0) && (redCount + blueCount > 1)) {
-            String winner = (redCount == 0) ? "XANH" : "ĐỎ";
-            if (redCount == 0) {
-                scoreB++;
-            } else {
-                scoreR++;
-            }
-            parent.deactivateAI();
-            parent.showGameOver(winner);
-            parent.updateScoreDisplay(scoreR, scoreB);
-        }
+    public boolean isTurbo() {
+        return animator.isTurbo();
     }
 
-    public void resetGame() {
-        parent.updateScoreDisplay(0,0);
-        redHasMoved = false;
-        blueHasMoved = false;
-        isRedTurn = true;
-        updateTurnLabel();
-
-        for (int row = 0; row < GRID_SIZE; row++) {
-            for (int col = 0; col < GRID_SIZE; col++) {
-                grid[row][col].setState(CellState.EMPTY);
-            }
-        }
-        updateCellHighlights();
-        repaint(); // Repaint to update background color
-        parent.reinitializeAI();
+    // Bộ lập lịch hiệu ứng (thống kê thời gian mỗi khung hình)
+    Animator getAnimator() {
+        return animator;
     }
 
     public void makeMove(int row, int col) {
@@ -340,56 +422,42 @@ public class GameLogic extends JPanel {
     }
 
     public boolean isRedTurn() {
-        return isRedTurn;
+        return board.isRedTurn();
+    }
+
+    // Lượt đang hiển thị, có thể chậm hơn isRedTurn khi hiệu ứng của nước trước chưa phát xong
+    public boolean isShownRedTurn() {
+        return shownRedTurn;
     }
 
 
     public boolean isRedHasMoved() {
-        return redHasMoved;
+        return board.isRedMoved();
     }
 
     public boolean isBlueHasMoved() {
-        return blueHasMoved;
+        return board.isBlueMoved();
     }
 
-    public Cell[][] getGrid() {
-        return grid;
+    // Bàn cờ của ván đang chơi; bên ngoài chỉ được đọc hoặc chép (copyFrom), mọi nước đi qua makeMove
+    public GameBoard getBoard() {
+        return board;
     }
 
-    public boolean isGameOver() {
-        if (!redHasMoved || !blueHasMoved) {
-            return false;
-        }
+    public int getBoardSize() {
+        return size;
+    }
 
-        int redCount = 0;
-        int blueCount = 0;
+    public boolean isGameOver() {
+        return board.isGameOver();
+    }
 
-        for (int row = 0; row < GRID_SIZE; row++) {
-            for (int col = 0; col < GRID_SIZE; col++) {
-                CellState state = grid[row][col].getState();
-                if (state.isRed()) {
-                    redCount++;
-                } else if (state.isBlue()) {
-                    blueCount++;
-                }
-            }
-        }
-        
-        return (redCount == 0 || blueCount == 0) && (redCount + blueCount > 1);
-    }
-    private void updateScoreDisplay() {
-        int scoreR = 0, scoreB = 0;
-
-        for (int row = 0; row < GRID_SIZE; row++) {
-            for (int col = 0; col < GRID_SIZE; col++) {
-                CellState state = grid[row][col].getState();
-                if (state.isRed()) {
-                    scoreR++;
-                } else if (state.isBlue()) {
-                    scoreB++;
-                }
-            }
+    // Chỉ cập nhật bảng điểm khi số hiển thị thay đổi
+    private void showScores(int red, int blue) {
+        if (red != shownRedScore || blue != shownBlueScore) {
+            shownRedScore = red;
+            shownBlueScore = blue;
+            parent.updateScoreDisplay(red, blue);
         }
-        parent.updateScoreDisplay(scoreR, scoreB);
     }
-}
\ No newline at end of file
+}
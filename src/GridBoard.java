@@ -0,0 +1,427 @@
+import java.util.Arrays;
+
+// Bàn cờ N x N (2 <= N <= 256) kích thước chọn lúc chạy, cùng luật và cùng kết quả với BitBoard trên bàn 5x5.
+// Mã ô nằm trong mảng byte phẳng, quyền sở hữu trong hai bitset nhiều word để duyệt quân một bên nhanh,
+// số quân và tổng điểm mỗi bên được cập nhật dần ở mỗi lần đổi ô nên đánh giá và kiểm tra kết thúc là O(1).
+// Có ngăn xếp hoàn tác (makeMove/unmakeMove) cho tìm kiếm; các mảng tự nới rộng khi chuỗi nổ dài.
+public class GridBoard implements GameBoard {
+    public static final int MIN_SIZE = 2;
+    public static final int MAX_SIZE = 256;
+
+    final int size;
+    final int cells;
+    private final int words;
+    private final Neighbors neighbors;
+    // Giới hạn an toàn cho chuỗi nổ: bằng giới hạn của BitBoard trên bàn 5x5, bàn lớn là 4 lần số ô.
+    // Chuỗi dài hơn thực tế là chuỗi dao động không dừng (các ô 4 điểm nổ qua lại), không nên chờ lâu hơn.
+    private final int maxExplosions;
+
+    final byte[] codes;
+    final long[] red;
+    final long[] blue;
+    private int redPieces, bluePieces;
+    private int redDots, blueDots;
+
+    private boolean redTurn = true;
+    private boolean redMoved;
+    private boolean blueMoved;
+
+    // Hàng đợi vòng của chuỗi nổ (dung lượng lũy thừa của 2, nới gấp đôi khi đầy)
+    private int[] queue;
+    private long explosions;
+
+    // Ngăn xếp hoàn tác: mỗi phần tử là (ô << 4 | mã cũ) của một lần đổi ô trong lúc ghi
+    private int[] undoCells;
+    private int undoTop;
+    private int[] frameStart = new int[64];
+    private int[] frameFlags = new int[64];
+    private int frameTop;
+    private boolean recording;
+    // Nước đi đang ghi các ô đổi cho giao diện, null nếu không ghi
+    private MoveRecord record;
+    // Các ô đã đổi mã từ lần clearChanges gần nhất, mỗi ô một lần (để GridEvaluator tính tăng dần)
+    private final long[] changedMask;
+    private final int[] changedCells;
+    private int changedCount;
+
+    public GridBoard(int size) {
+        if (size < MIN_SIZE || size > MAX_SIZE) {
+            throw new IllegalArgumentException("Board size must be between " + MIN_SIZE + " and " + MAX_SIZE);
+        }
+        this.size = size;
+        cells = size * size;
+        words = (cells + 63) >>> 6;
+        neighbors = Neighbors.of(size);
+        maxExplosions = Math.max(1024, 4 * cells);
+        codes = new byte[cells];
+        red = new long[words];
+        blue = new long[words];
+        queue = new int[Integer.highestOneBit(Math.max(64, 4 * cells - 1)) << 1];
+        undoCells = new int[Math.max(256, 4 * cells)];
+        changedMask = new long[words];
+        changedCells = new int[cells];
+    }
+
+    // Chép thế cờ từ bàn cùng kích thước (BitBoard hoặc GridBoard); không chép ngăn xếp hoàn tác
+    public void copyFrom(GameBoard other) {
+        if (other.size() != size) {
+            throw new IllegalArgumentException("Board size mismatch");
+        }
+        clear();
+        for (int i = 0; i < cells; i++) {
+            int code = other.code(i);
+            if (code != BitBoard.EMPTY) {
+                setCode(i, code);
+            }
+        }
+        redTurn = other.isRedTurn();
+        redMoved = other.isRedMoved();
+        blueMoved = other.isBlueMoved();
+    }
+
+    public GridBoard copy() {
+        GridBoard board = new GridBoard(size);
+        board.copyFrom(this);
+        return board;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    public int cells() {
+        return cells;
+    }
+
+    @Override
+    public int code(int index) {
+        return codes[index];
+    }
+
+    public int dots(int index) {
+        int code = codes[index];
+        return code == BitBoard.EMPTY ? 0 : ((code - 1) & 3) + 1;
+    }
+
+    @Override
+    public boolean isRedTurn() {
+        return redTurn;
+    }
+
+    @Override
+    public boolean isRedMoved() {
+        return redMoved;
+    }
+
+    @Override
+    public boolean isBlueMoved() {
+        return blueMoved;
+    }
+
+    @Override
+    public int redPieces() {
+        return redPieces;
+    }
+
+    @Override
+    public int bluePieces() {
+        return bluePieces;
+    }
+
+    public int pieces(boolean isRed) {
+        return isRed ? redPieces : bluePieces;
+    }
+
+    public int totalDots(boolean isRed) {
+        return isRed ? redDots : blueDots;
+    }
+
+    // Bitset quân của một bên (không được sửa)
+    long[] ownWords(boolean isRed) {
+        return isRed ? red : blue;
+    }
+
+    // Tổng số ô đã nổ từ khi tạo bàn cờ (dùng cho benchmark)
+    public long getExplosions() {
+        return explosions;
+    }
+
+    @Override
+    public boolean isGameOver() {
+        if (!redMoved || !blueMoved) {
+            return false;
+        }
+        return (redPieces == 0 || bluePieces == 0) && redPieces + bluePieces > 1;
+    }
+
+    public boolean canPlace() {
+        return redTurn ? !redMoved : !blueMoved;
+    }
+
+    @Override
+    public boolean isLegal(int index) {
+        int code = codes[index];
+        if (code == BitBoard.EMPTY) {
+            return canPlace();
+        }
+        return (code <= 4) == redTurn;
+    }
+
+    @Override
+    public int legalMoves(int[] moves) {
+        long[] own = redTurn ? red : blue;
+        boolean place = canPlace();
+        int count = 0;
+        for (int w = 0; w < words; w++) {
+            long m = own[w];
+            if (place) {
+                m |= ~(red[w] | blue[w]) & wordMask(w);
+            }
+            for (; m != 0; m &= m - 1) {
+                moves[count++] = (w << 6) + Long.numberOfTrailingZeros(m);
+            }
+        }
+        return count;
+    }
+
+    // Các bit thuộc bàn cờ của word w (word cuối có thể thừa bit)
+    private long wordMask(int w) {
+        int bits = cells - (w << 6);
+        return bits >= 64 ? -1L : (1L << bits) - 1;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(codes, (byte) 0);
+        Arrays.fill(red, 0);
+        Arrays.fill(blue, 0);
+        redPieces = bluePieces = 0;
+        redDots = blueDots = 0;
+        redTurn = true;
+        redMoved = false;
+        blueMoved = false;
+        undoTop = frameTop = 0;
+        // Mọi ô có thể đã đổi: ghi đủ cả bàn
+        changedCount = 0;
+        for (int i = 0; i < cells; i++) {
+            changedCells[changedCount++] = i;
+        }
+        Arrays.fill(changedMask, -1L);
+    }
+
+    int changedCount() {
+        return changedCount;
+    }
+
+    int changedCell(int i) {
+        return changedCells[i];
+    }
+
+    void clearChanges() {
+        for (int i = 0; i < changedCount; i++) {
+            int cell = changedCells[i];
+            changedMask[cell >>> 6] &= ~(1L << cell);
+        }
+        changedCount = 0;
+    }
+
+    public void setCode(int index, int code) {
+        int old = codes[index];
+        if (old == code) {
+            return;
+        }
+        if (recording) {
+            if (undoTop == undoCells.length) {
+                undoCells = Arrays.copyOf(undoCells, 2 * undoTop);
+            }
+            undoCells[undoTop++] = (index << 4) | old;
+        }
+        if (record != null) {
+            record.addChange(index, code);
+        }
+        codes[index] = (byte) code;
+        int w = index >>> 6;
+        long bit = 1L << index;
+        if ((changedMask[w] & bit) == 0) {
+            changedMask[w] |= bit;
+            changedCells[changedCount++] = index;
+        }
+        if (old != BitBoard.EMPTY) {
+            if (old <= 4) {
+                red[w] &= ~bit;
+                redPieces--;
+                redDots -= old;
+            } else {
+                blue[w] &= ~bit;
+                bluePieces--;
+                blueDots -= old - 4;
+            }
+        }
+        if (code != BitBoard.EMPTY) {
+            if (code <= 4) {
+                red[w] |= bit;
+                redPieces++;
+                redDots += code;
+            } else {
+                blue[w] |= bit;
+                bluePieces++;
+                blueDots += code - 4;
+            }
+        }
+    }
+
+    public void setFlags(boolean redTurn, boolean redMoved, boolean blueMoved) {
+        this.redTurn = redTurn;
+        this.redMoved = redMoved;
+        this.blueMoved = blueMoved;
+    }
+
+    //Thực hiện nước đi và ghi lại các ô đổi để unmakeMove khôi phục
+    public boolean makeMove(int index) {
+        if (frameTop == frameStart.length) {
+            frameStart = Arrays.copyOf(frameStart, 2 * frameTop);
+            frameFlags = Arrays.copyOf(frameFlags, 2 * frameTop);
+        }
+        int start = undoTop;
+        int flags = (redTurn ? 1 : 0) | (redMoved ? 2 : 0) | (blueMoved ? 4 : 0);
+        recording = true;
+        boolean applied = applyMove(index);
+        recording = false;
+        if (!applied) {
+            return false;
+        }
+        frameStart[frameTop] = start;
+        frameFlags[frameTop] = flags;
+        frameTop++;
+        return true;
+    }
+
+    public void unmakeMove() {
+        frameTop--;
+        int start = frameStart[frameTop];
+        while (undoTop > start) {
+            int entry = undoCells[--undoTop];
+            setCode(entry >>> 4, entry & 15);
+        }
+        int flags = frameFlags[frameTop];
+        redTurn = (flags & 1) != 0;
+        redMoved = (flags & 2) != 0;
+        blueMoved = (flags & 4) != 0;
+    }
+
+    public int ply() {
+        return frameTop;
+    }
+
+    @Override
+    public boolean applyMove(int index) {
+        if (!isLegal(index)) {
+            return false;
+        }
+        int code = codes[index];
+        boolean isRed = redTurn;
+        if (code == BitBoard.EMPTY) {
+            setCode(index, isRed ? BitBoard.RED_THREE : BitBoard.BLUE_THREE);
+            if (isRed) {
+                redMoved = true;
+            } else {
+                blueMoved = true;
+            }
+        } else {
+            // Quân 4 điểm (còn lại sau chuỗi nổ bị dừng sớm) giữ 4 điểm và nổ lại
+            int dots = Math.min(4, ((code - 1) & 3) + 2);
+            setCode(index, (isRed ? 0 : 4) + dots);
+            if (dots == 4) {
+                if (record != null) {
+                    record.endWave();
+                }
+                explode(index, isRed);
+            }
+        }
+        if (record != null) {
+            record.endWave();
+        }
+        redTurn = !redTurn;
+        return true;
+    }
+
+    @Override
+    public boolean applyMove(int index, MoveRecord record) {
+        if (!isLegal(index)) {
+            return false;
+        }
+        record.clear();
+        this.record = record;
+        try {
+            return applyMove(index);
+        } finally {
+            this.record = null;
+        }
+    }
+
+    //Giải quyết chuỗi nổ bắt đầu từ ô index theo hàng đợi FIFO, giống hệt BitBoard.explode.
+    // Khi ghi MoveRecord, mỗi lớp nổ là các ô được đưa vào hàng đợi trong lúc nổ lớp trước.
+    private void explode(int index, boolean isRed) {
+        int mask = queue.length - 1;
+        int head = 0;
+        int tail = 0;
+        int count = 0;
+        queue[tail++] = index;
+        // Ô cuối của lớp đang nổ (vị trí tail lúc lớp bắt đầu)
+        int waveEnd = tail;
+        int[] adjacent = neighbors.adjacent;
+        int[] adjacentCount = neighbors.adjacentCount;
+        int ownBase = isRed ? 0 : 4;
+
+        while (head != tail && count < maxExplosions) {
+            if (head == waveEnd && record != null) {
+                record.endWave();
+                waveEnd = tail;
+            }
+            int cell = queue[head];
+            head = (head + 1) & mask;
+            count++;
+
+            setCode(cell, BitBoard.EMPTY);
+            int base = cell * 4;
+            int end = base + adjacentCount[cell];
+            int ready = 0;
+            for (int k = base; k < end; k++) {
+                int neighbor = adjacent[k];
+                int code = codes[neighbor];
+                int dots = code == BitBoard.EMPTY ? 1 : Math.min(4, ((code - 1) & 3) + 2);
+                setCode(neighbor, ownBase + dots);
+                if (dots == 4) {
+                    ready |= 1 << (k - base);
+                }
+            }
+
+            // Đối thủ đã bị xóa sạch: ván đã kết thúc, phần còn lại của chuỗi không đổi kết quả
+            if ((isRed ? bluePieces : redPieces) == 0) {
+                break;
+            }
+            for (int k = base; ready != 0; k++, ready >>>= 1) {
+                if ((ready & 1) == 0) {
+                    continue;
+                }
+                if (((tail + 1) & mask) == head) {
+                    // Hàng đợi đầy: nới gấp đôi, giữ nguyên thứ tự FIFO
+                    int[] grown = new int[queue.length * 2];
+                    int n = 0;
+                    for (int i = head; i != tail; i = (i + 1) & mask) {
+                        grown[n++] = queue[i];
+                    }
+                    waveEnd = (waveEnd - head) & mask;
+                    queue = grown;
+                    mask = queue.length - 1;
+                    head = 0;
+                    tail = n;
+                }
+                queue[tail] = adjacent[k];
+                tail = (tail + 1) & mask;
+            }
+        }
+        explosions += count;
+    }
+}
@@ -0,0 +1,265 @@
+// Hàm đánh giá của Evaluator (cùng các số hạng và trọng số) cho bàn N x N (GridBoard), tính tăng dần.
+// Điểm riêng của mỗi ô chỉ phụ thuộc vào các ô trong bán kính 2 (Neighbors.adjacent và extended), nên mỗi lần
+// evaluate() chỉ tính lại các ô gần những ô GridBoard đã ghi là đổi mã từ lần gọi trước.
+// Trên bàn 5x5 cho kết quả giống hệt Evaluator (có các số hạng chuỗi nổ); tổng là long vì trên bàn lớn
+// tổng điểm các ô vượt quá int.
+class GridEvaluator {
+    // Trọng số của khả năng tạo chuỗi nổ và điểm cho mỗi lần gặp quân nhiều điểm cùng màu cách 2 bước
+    private static final int CHAIN_WEIGHT = 750;
+    private static final int EXTENDED_BONUS = 30;
+
+    private final GridBoard board;
+    private final boolean isRed;
+    private final int size;
+    private final int[] adjacent;
+    private final int[] adjacentCount;
+    private final int[] extended;
+    private final int[] extendedCount;
+
+    // Điểm đã nhân trọng số của từng ô và tổng của chúng, mã ô lúc tính và số quân 3 điểm của mình
+    private final int[] cellScores;
+    private long cellScoreSum;
+    private final byte[] codes;
+    private int myThreeDots;
+    // Đánh dấu các ô đã tính lại trong lần evaluate() hiện tại
+    private final int[] stamps;
+    private int stamp;
+
+    GridEvaluator(GridBoard board, boolean isRed) {
+        this.board = board;
+        this.isRed = isRed;
+        size = board.size();
+        Neighbors neighbors = Neighbors.of(size);
+        adjacent = neighbors.adjacent;
+        adjacentCount = neighbors.adjacentCount;
+        extended = neighbors.extended;
+        extendedCount = neighbors.extendedCount;
+        cellScores = new int[board.cells()];
+        codes = new byte[board.cells()];
+        stamps = new int[board.cells()];
+        reset();
+    }
+
+    // Tính lại toàn bộ (sau khi bàn cờ được chép hoặc xóa)
+    void reset() {
+        cellScoreSum = 0;
+        myThreeDots = 0;
+        for (int index = 0; index < cellScores.length; index++) {
+            codes[index] = board.codes[index];
+            if (isOwnThree(codes[index])) {
+                myThreeDots++;
+            }
+            cellScores[index] = scanCellScore(index);
+            cellScoreSum += cellScores[index];
+        }
+        board.clearChanges();
+    }
+
+    long evaluate() {
+        int changed = board.changedCount();
+        if (changed > 0) {
+            if (++stamp == 0) {
+                java.util.Arrays.fill(stamps, 0);
+                stamp = 1;
+            }
+            for (int i = 0; i < changed; i++) {
+                int cell = board.changedCell(i);
+                if (isOwnThree(codes[cell])) {
+                    myThreeDots--;
+                }
+                codes[cell] = board.codes[cell];
+                if (isOwnThree(codes[cell])) {
+                    myThreeDots++;
+                }
+            }
+            for (int i = 0; i < changed; i++) {
+                int cell = board.changedCell(i);
+                rescore(cell);
+                for (int k = cell * 4, end = k + adjacentCount[cell]; k < end; k++) {
+                    rescore(adjacent[k]);
+                }
+                for (int k = cell * 16, end = k + extendedCount[cell]; k < end; k++) {
+                    rescore(extended[k]);
+                }
+            }
+            board.clearChanges();
+        }
+        return combine(cellScoreSum);
+    }
+
+    // Tính lại toàn bộ bằng cách duyệt mọi ô, không dùng điểm đã lưu (để đối chiếu với evaluate())
+    long evaluateFull() {
+        long sum = 0;
+        for (int index = 0; index < cellScores.length; index++) {
+            sum += scanCellScore(index);
+        }
+        return combine(sum);
+    }
+
+    private void rescore(int index) {
+        if (stamps[index] == stamp) {
+            return;
+        }
+        stamps[index] = stamp;
+        int cellScore = scanCellScore(index);
+        cellScoreSum += cellScore - cellScores[index];
+        cellScores[index] = cellScore;
+    }
+
+    private boolean isOwnThree(int code) {
+        return code == (isRed ? BitBoard.RED_THREE : BitBoard.BLUE_THREE);
+    }
+
+    // Giống Evaluator.combine, luôn có các số hạng chuỗi nổ
+    private long combine(long cellScoreSum) {
+        int myPieces = board.pieces(isRed), oppPieces = board.pieces(!isRed);
+        int myDots = board.totalDots(isRed), oppDots = board.totalDots(!isRed);
+
+        // Kiểm tra trạng thái kết thúc
+        if (myPieces == 0) return -100000;
+        if (oppPieces == 0) return 100000;
+
+        long score = (myPieces - oppPieces) * 200L +
+                (myDots - oppDots) * 180L +
+                myThreeDots * 1000L +
+                cellScoreSum;
+
+        // Tỷ lệ quân tương đối
+        float pieceRatio = (float) myPieces / oppPieces;
+        if (pieceRatio > 1.5) {
+            score += 800;
+        }
+        if (myPieces > oppPieces) {
+            score += 500;
+        }
+        if (myThreeDots > 0) {
+            score += 900;
+        }
+        return score;
+    }
+
+    // Quân của bên side ở ô index (mã ô 1-4 đỏ, 5-8 xanh)
+    private boolean owns(int index, boolean side) {
+        int code = board.codes[index];
+        return code != BitBoard.EMPTY && (code <= 4) == side;
+    }
+
+    // Số ô kề là quân của bên side
+    private int adjacentPieces(int index, boolean side) {
+        int count = 0;
+        for (int k = index * 4, end = k + adjacentCount[index]; k < end; k++) {
+            if (owns(adjacent[k], side)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // Phần điểm riêng của một ô, đã nhân trọng số, giống Evaluator.scanCellScore
+    private int scanCellScore(int index) {
+        int dots = board.dots(index);
+        if (owns(index, isRed)) {
+            int score = evaluatePosition(index, dots) * 300;             // Điểm vị trí chiến lược
+            if (dots >= 2) {
+                score += evaluateChainPotential(index) * CHAIN_WEIGHT;   // Khả năng tạo chuỗi nổ
+            }
+            if (adjacentPieces(index, !isRed) > adjacentCount[index] / 2) {
+                score -= 250;                                            // Điểm phạt khi bị đối thủ bao vây
+            }
+            return score;
+        }
+        if (owns(index, !isRed) && dots >= 2) {
+            return -evaluateOpponentChainThreat(index) * 500;            // Mối đe dọa từ đối phương
+        }
+        return 0;
+    }
+
+    // Đánh giá vị trí chiến lược
+    private int evaluatePosition(int index, int dots) {
+        int posScore = 0;
+        int row = index / size, col = index % size;
+
+        // Góc, rồi cạnh
+        if ((row == 0 || row == size - 1) && (col == 0 || col == size - 1)) {
+            posScore += 50;
+        } else if (row == 0 || row == size - 1 || col == 0 || col == size - 1) {
+            posScore += 25;
+        }
+
+        // Gần trung tâm
+        int center = size / 2;
+        if (Math.abs(row - center) + Math.abs(col - center) <= 1) {
+            posScore += 40;
+        }
+
+        // Quân 3 điểm, thêm cho mỗi ô kề là quân cùng màu
+        if (dots == 3) {
+            posScore += 30 + 40 * adjacentPieces(index, isRed);
+        }
+        return posScore;
+    }
+
+    //Đánh giá khả năng tạo chuỗi nổ
+    private int evaluateChainPotential(int index) {
+        int currentDots = board.dots(index);
+        int chainScore = currentDots * 20;
+
+        for (int k = index * 4, end = k + adjacentCount[index]; k < end; k++) {
+            int neighbor = adjacent[k];
+            int neighborDots = board.dots(neighbor);
+            if (owns(neighbor, isRed)) {
+                chainScore += 40 + neighborDots * 15;
+                if (neighborDots == 3 || currentDots == 3) {
+                    chainScore += 100;
+                }
+                if (currentDots >= 2 && currentDots <= 3 && neighborDots >= 2 && neighborDots <= 3) {
+                    chainScore += 120;
+                }
+            } else if (owns(neighbor, !isRed)) {
+                chainScore += 60;
+                if (neighborDots >= 2) {
+                    chainScore += neighborDots * 20;
+                }
+            }
+        }
+
+        // Chuỗi mở rộng: quân cùng màu từ 2 điểm đi được bằng 2 bước (tính cả số lần lặp)
+        if (currentDots >= 2) {
+            for (int k = index * 16, end = k + extendedCount[index]; k < end; k++) {
+                int cell = extended[k];
+                if (owns(cell, isRed) && board.dots(cell) >= 2) {
+                    chainScore += EXTENDED_BONUS;
+                }
+            }
+        }
+        return chainScore;
+    }
+
+    // Mối đe dọa từ quân đối phương ở ô index
+    private int evaluateOpponentChainThreat(int index) {
+        int currentDots = board.dots(index);
+        int threatScore = currentDots * 30;
+
+        for (int k = index * 4, end = k + adjacentCount[index]; k < end; k++) {
+            int neighbor = adjacent[k];
+            if (owns(neighbor, !isRed)) {
+                int neighborDots = board.dots(neighbor);
+                threatScore += 50 + neighborDots * 20;
+                if (currentDots >= 2 && currentDots <= 3 && neighborDots >= 2 && neighborDots <= 3) {
+                    threatScore += 150;
+                }
+                if (neighborDots == 3) {
+                    threatScore += 100;
+                }
+            } else if (owns(neighbor, isRed)) {
+                threatScore += 40;
+            }
+        }
+
+        // Quân 3 điểm có ít nhất 2 quân liền kề cùng màu
+        if (currentDots == 3 && adjacentPieces(index, !isRed) >= 2) {
+            threatScore += 250;
+        }
+        return threatScore;
+    }
+}
@@ -0,0 +1,250 @@
+// Engine alpha-beta cho bàn N x N kích thước chọn lúc chạy (GridBoard), dùng khi bàn cờ khác 5x5.
+// Tìm sâu dần với thời gian giới hạn, đi và hoàn tác nước trên cùng một GridBoard (makeMove/unmakeMove),
+// đánh giá bằng GridEvaluator (các số hạng của Evaluator), chỉ tính lại quanh các ô đổi nên tốc độ
+// không phụ thuộc kích thước bàn.
+// Sinh nước giống SearchWorker: có quân 3 điểm thì chỉ xét các quân 3 điểm (nổ), nước đầu đặt quân
+// ở một ô được chọn sẵn thay vì thử mọi ô trống.
+public class GridPlayer extends ComputerPlayer {
+    public static final long NO_TIME_LIMIT = Long.MAX_VALUE / 4;
+    static final int WIN_SCORE = SearchWorker.WIN_SCORE;
+    private static final int MAX_DEPTH = 64;
+    // Kiểm tra hết giờ sau mỗi chừng này nút
+    private static final int TIME_CHECK_MASK = 1023;
+
+    // Điểm đánh giá nằm trong khoảng này để không bị nhầm với điểm thắng thua
+    private static final int MAX_EVAL = WIN_SCORE - MAX_DEPTH - 1;
+
+    private GridBoard board;
+    private GridEvaluator evaluator;
+    // Bốn góc của bàn, cho nước đặt quân đầu tiên
+    private int[] corners;
+    private int[][] moveBuffers = new int[MAX_DEPTH + 1][];
+    private long deadline;
+    private boolean stopped;
+
+    // Thống kê của lần tìm gần nhất
+    private long nodesExplored;
+    private int completedDepth;
+    private int bestScore;
+
+    public GridPlayer(GameLogic gameLogic, boolean isRed) {
+        this(gameLogic, isRed, DEFAULT_THINK_TIME_MS);
+    }
+
+    public GridPlayer(GameLogic gameLogic, boolean isRed, long thinkTimeMillis) {
+        super(gameLogic, isRed, thinkTimeMillis);
+    }
+
+    @Override
+    protected Move findBestMove(GameBoard root) {
+        if (root instanceof GridBoard) {
+            return findBestMove((GridBoard) root);
+        }
+        GridBoard grid = new GridBoard(root.size());
+        grid.copyFrom(root);
+        return findBestMove(grid);
+    }
+
+    @Override
+    public Move findBestMove(BitBoard root) {
+        return findBestMove((GameBoard) root);
+    }
+
+    public Move findBestMove(GridBoard root) {
+        if (board == null || board.size() != root.size()) {
+            int size = root.size();
+            board = new GridBoard(size);
+            evaluator = new GridEvaluator(board, isRed);
+            corners = new int[]{0, size - 1, (size - 1) * size, size * size - 1};
+            moveBuffers = new int[MAX_DEPTH + 1][];
+        }
+        board.copyFrom(root);
+        evaluator.reset();
+        nodesExplored = 0;
+        completedDepth = 0;
+        bestScore = 0;
+        stopped = false;
+        deadline = System.nanoTime() + Math.min(thinkTimeMillis, NO_TIME_LIMIT) * 1_000_000L;
+
+        int size = board.size();
+        int[] moves = buffer(0);
+        int count = generateMoves(moves);
+        if (count == 0 || board.isGameOver()) {
+            return null;
+        }
+        int best = moves[0];
+        if (count == 1) {
+            return new Move(best / size, best % size);
+        }
+
+        for (int depth = 1; depth <= MAX_DEPTH && !stopped; depth++) {
+            int iterationBest = -1;
+            int iterationScore = Integer.MIN_VALUE;
+            int alpha = Integer.MIN_VALUE;
+            for (int i = 0; i < count; i++) {
+                board.makeMove(moves[i]);
+                int score = search(depth - 1, alpha, Integer.MAX_VALUE, 1);
+                board.unmakeMove();
+                if (stopped) {
+                    break;
+                }
+                if (score > iterationScore) {
+                    iterationScore = score;
+                    iterationBest = i;
+                    alpha = score;
+                }
+            }
+            if (stopped) {
+                break;
+            }
+            // Nước tốt nhất lên đầu để lần lặp sau xét trước
+            best = moves[iterationBest];
+            System.arraycopy(moves, 0, moves, 1, iterationBest);
+            moves[0] = best;
+            completedDepth = depth;
+            bestScore = iterationScore;
+            if (Math.abs(iterationScore) >= WIN_SCORE - MAX_DEPTH) {
+                break;
+            }
+        }
+        return new Move(best / size, best % size);
+    }
+
+    // Alpha-beta max/min theo góc nhìn của AI
+    private int search(int depth, int alpha, int beta, int ply) {
+        nodesExplored++;
+        if ((nodesExplored & TIME_CHECK_MASK) == 0 && System.nanoTime() >= deadline) {
+            stopped = true;
+        }
+        if (stopped) {
+            return 0;
+        }
+        if (board.isGameOver()) {
+            boolean won = (board.redPieces() > 0) == isRed;
+            return won ? WIN_SCORE - ply : -WIN_SCORE + ply;
+        }
+        if (depth == 0) {
+            return evaluate();
+        }
+
+        int[] moves = buffer(ply);
+        int count = generateMoves(moves);
+        if (count == 0) {
+            return evaluate();
+        }
+        boolean maximizing = board.isRedTurn() == isRed;
+        int best = maximizing ? Integer.MIN_VALUE : Integer.MAX_VALUE;
+        for (int i = 0; i < count; i++) {
+            board.makeMove(moves[i]);
+            int score = search(depth - 1, alpha, beta, ply + 1);
+            board.unmakeMove();
+            if (stopped) {
+                return best;
+            }
+            if (maximizing) {
+                best = Math.max(best, score);
+                alpha = Math.max(alpha, score);
+            } else {
+                best = Math.min(best, score);
+                beta = Math.min(beta, score);
+            }
+            if (alpha >= beta) {
+                break;
+            }
+        }
+        return best;
+    }
+
+    // Điểm của GridEvaluator theo góc nhìn của AI, giới hạn dưới điểm thắng thua
+    private int evaluate() {
+        return (int) Math.max(-MAX_EVAL, Math.min(MAX_EVAL, evaluator.evaluate()));
+    }
+
+    private int[] buffer(int ply) {
+        int[] moves = moveBuffers[ply];
+        if (moves == null) {
+            moves = new int[board.cells()];
+            moveBuffers[ply] = moves;
+        }
+        return moves;
+    }
+
+    // Ghi các nước cần xét vào moves, trả về số nước
+    private int generateMoves(int[] moves) {
+        boolean isRedTurn = board.isRedTurn();
+        if (board.canPlace()) {
+            moves[0] = placementCell(isRedTurn);
+            return 1;
+        }
+        // Có quân 3 điểm thì chỉ xét nổ các quân đó
+        long[] own = board.ownWords(isRedTurn);
+        int threeCode = isRedTurn ? BitBoard.RED_THREE : BitBoard.BLUE_THREE;
+        int count = 0;
+        for (int w = 0; w < own.length; w++) {
+            for (long m = own[w]; m != 0; m &= m - 1) {
+                int index = (w << 6) + Long.numberOfTrailingZeros(m);
+                if (board.codes[index] == threeCode) {
+                    moves[count++] = index;
+                }
+            }
+        }
+        if (count > 0) {
+            return count;
+        }
+        return board.legalMoves(moves);
+    }
+
+    // Ô đặt quân đầu tiên: giữa bàn nếu đối thủ chưa có quân, nếu không là góc xa quân đối thủ nhất
+    private int placementCell(boolean isRedTurn) {
+        int size = board.size();
+        long[] opponent = board.ownWords(!isRedTurn);
+        int opponentIndex = -1;
+        for (int w = 0; w < opponent.length && opponentIndex < 0; w++) {
+            if (opponent[w] != 0) {
+                opponentIndex = (w << 6) + Long.numberOfTrailingZeros(opponent[w]);
+            }
+        }
+        int center = size / 2 * size + size / 2;
+        if (opponentIndex < 0) {
+            return board.codes[center] == BitBoard.EMPTY ? center : firstEmpty();
+        }
+        int opponentRow = opponentIndex / size;
+        int opponentCol = opponentIndex % size;
+        int best = -1;
+        int bestDistance = -1;
+        for (int corner : corners) {
+            int distance = Math.abs(corner / size - opponentRow) + Math.abs(corner % size - opponentCol);
+            if (board.codes[corner] == BitBoard.EMPTY && distance > bestDistance) {
+                best = corner;
+                bestDistance = distance;
+            }
+        }
+        return best >= 0 ? best : firstEmpty();
+    }
+
+    private int firstEmpty() {
+        for (int i = 0; i < board.cells(); i++) {
+            if (board.codes[i] == BitBoard.EMPTY) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    public long getNodesExplored() {
+        return nodesExplored;
+    }
+
+    // Số ô đã nổ trong các lần tìm trên bàn của engine
+    public long getExplosions() {
+        return board == null ? 0 : board.getExplosions();
+    }
+
+    public int getCompletedDepth() {
+        return completedDepth;
+    }
+
+    public int getBestScore() {
+        return bestScore;
+    }
+}
@@ -0,0 +1,350 @@
+import java.util.SplittableRandom;
+
+// Engine Monte Carlo Tree Search (UCT) thay cho alpha-beta.
+// Cây lưu trong các mảng cấp phát sẵn (không tạo object cho mỗi nút), con của một nút nằm liền nhau.
+// Mô phỏng (playout) dùng luật nhanh của BitBoard: đặt quân 3 điểm ở nước đầu, tăng điểm, chuỗi nổ, kết thúc ván.
+// Giữa các lượt, cây con ứng với thế cờ mới (sau nước của ta và nước trả lời) được giữ lại.
+public class MctsPlayer extends ComputerPlayer {
+    // Hằng số khám phá của UCT
+    private static final double EXPLORATION = 1.4;
+    // Nút lá chỉ được mở rộng khi đã được thăm đủ số lần này, để tiết kiệm bộ nhớ
+    private static final int EXPAND_VISITS = 2;
+    // Mô phỏng dài quá số nước này thì tính theo số quân
+    private static final int MAX_PLAYOUT_PLIES = 200;
+    // Xác suất (phần trăm) mô phỏng chọn nổ quân 3 điểm khi có
+    private static final int EXPLODE_PERCENT = 50;
+    private static final int MAX_TREE_DEPTH = 512;
+    private static final int DEFAULT_CAPACITY = 1 << 19;
+    private static final int NO_CHILD = -1;
+
+    // Cây dạng mảng: firstChild, childCount, move, visits, wins (theo góc nhìn của bên vừa đi vào nút)
+    private static final class Tree {
+        final int[] firstChild;
+        final byte[] childCount;
+        final byte[] move;
+        final int[] visits;
+        final float[] wins;
+        int size;
+
+        Tree(int capacity) {
+            firstChild = new int[capacity];
+            childCount = new byte[capacity];
+            move = new byte[capacity];
+            visits = new int[capacity];
+            wins = new float[capacity];
+        }
+
+        // Số byte mỗi nút chiếm trong các mảng
+        static int bytesPerNode() {
+            return Integer.BYTES + Byte.BYTES + Byte.BYTES + Integer.BYTES + Float.BYTES;
+        }
+
+        int capacity() {
+            return visits.length;
+        }
+
+        void reset() {
+            size = 1;
+            firstChild[0] = NO_CHILD;
+            childCount[0] = 0;
+            move[0] = -1;
+            visits[0] = 0;
+            wins[0] = 0;
+        }
+    }
+
+    private Tree tree;
+    // Cây thứ hai để chép cây con được giữ lại giữa các lượt
+    private Tree spare;
+    private final int[] copySource;
+
+    private final BitBoard rootBoard = new BitBoard();
+    private final BitBoard board = new BitBoard();
+    private final BitBoard probe = new BitBoard();
+    private boolean hasTree;
+    private final SplittableRandom random;
+
+    private final int[] path = new int[MAX_TREE_DEPTH];
+    private final boolean[] pathMoverRed = new boolean[MAX_TREE_DEPTH];
+
+    // Thống kê của lần tìm gần nhất
+    private long playouts;
+    private long elapsedNanos;
+    private int reusedNodes;
+
+    public MctsPlayer(GameLogic gameLogic, boolean isRed) {
+        this(gameLogic, isRed, DEFAULT_THINK_TIME_MS, DEFAULT_CAPACITY, System.nanoTime());
+    }
+
+    public MctsPlayer(GameLogic gameLogic, boolean isRed, long thinkTimeMillis, int capacity, long seed) {
+        super(gameLogic, isRed, thinkTimeMillis);
+        tree = new Tree(capacity);
+        spare = new Tree(capacity);
+        copySource = new int[capacity];
+        random = new SplittableRandom(seed);
+    }
+
+    @Override
+    public Move findBestMove(BitBoard root) {
+        return findBestMove(root, Long.MAX_VALUE, thinkTimeMillis);
+    }
+
+    // Tìm tới khi đủ maxPlayouts lần mô phỏng hoặc hết thời gian
+    public Move findBestMove(BitBoard root, long maxPlayouts, long timeMillis) {
+        long start = System.nanoTime();
+        long deadline = start + timeMillis * 1_000_000L;
+        playouts = 0;
+
+        reuseOrResetTree(root);
+        rootBoard.copyFrom(root);
+
+        long legal = rootBoard.legalMoveMask();
+        if (legal == 0 || rootBoard.isGameOver()) {
+            return null;
+        }
+        if (Long.bitCount(legal) == 1) {
+            int index = Long.numberOfTrailingZeros(legal);
+            elapsedNanos = System.nanoTime() - start;
+            return new Move(index / GRID_SIZE, index % GRID_SIZE);
+        }
+
+        while (playouts < maxPlayouts) {
+            runIteration();
+            playouts++;
+            if ((playouts & 63) == 0 && System.nanoTime() >= deadline) {
+                break;
+            }
+        }
+        elapsedNanos = System.nanoTime() - start;
+
+        // Chọn nước được thăm nhiều nhất
+        int best = NO_CHILD;
+        int first = tree.firstChild[0];
+        for (int child = first; first != NO_CHILD && child < first + tree.childCount[0]; child++) {
+            if (best == NO_CHILD || tree.visits[child] > tree.visits[best]) {
+                best = child;
+            }
+        }
+        if (best == NO_CHILD) {
+            int index = Long.numberOfTrailingZeros(legal);
+            return new Move(index / GRID_SIZE, index % GRID_SIZE);
+        }
+        int index = tree.move[best];
+        return new Move(index / GRID_SIZE, index % GRID_SIZE);
+    }
+
+    // Một vòng MCTS: chọn theo UCT, mở rộng, mô phỏng, lan truyền kết quả
+    private void runIteration() {
+        board.copyFrom(rootBoard);
+        int node = 0;
+        int depth = 0;
+        path[depth++] = node;
+
+        // Chọn
+        while (tree.firstChild[node] != NO_CHILD && !board.isGameOver() && depth < MAX_TREE_DEPTH) {
+            int child = selectChild(node);
+            pathMoverRed[depth] = board.isRedTurn();
+            board.applyMove(tree.move[child]);
+            node = child;
+            path[depth++] = node;
+        }
+
+        // Mở rộng
+        if (!board.isGameOver() && tree.visits[node] + 1 >= EXPAND_VISITS && depth < MAX_TREE_DEPTH
+                && expand(node, board.legalMoveMask())) {
+            int child = tree.firstChild[node] + random.nextInt(tree.childCount[node]);
+            pathMoverRed[depth] = board.isRedTurn();
+            board.applyMove(tree.move[child]);
+            node = child;
+            path[depth++] = node;
+        }
+
+        // Mô phỏng và lan truyền
+        float redResult = playout(board);
+        for (int i = 0; i < depth; i++) {
+            int n = path[i];
+            tree.visits[n]++;
+            if (i > 0) {
+                tree.wins[n] += pathMoverRed[i] ? redResult : 1 - redResult;
+            }
+        }
+    }
+
+    private int selectChild(int node) {
+        int first = tree.firstChild[node];
+        int count = tree.childCount[node];
+        double logParent = Math.log(Math.max(1, tree.visits[node]));
+        int best = first;
+        double bestValue = Double.NEGATIVE_INFINITY;
+        for (int child = first; child < first + count; child++) {
+            int visits = tree.visits[child];
+            if (visits == 0) {
+                return child;
+            }
+            double value = tree.wins[child] / visits + EXPLORATION * Math.sqrt(logParent / visits);
+            if (value > bestValue) {
+                bestValue = value;
+                best = child;
+            }
+        }
+        return best;
+    }
+
+    // Cấp một khối con liền nhau cho nút; trả về false nếu hết chỗ hoặc không có nước đi
+    private boolean expand(int node, long legal) {
+        int count = Long.bitCount(legal);
+        if (count == 0 || tree.size + count > tree.capacity()) {
+            return false;
+        }
+        int first = tree.size;
+        tree.size += count;
+        int child = first;
+        for (long m = legal; m != 0; m &= m - 1) {
+            tree.firstChild[child] = NO_CHILD;
+            tree.childCount[child] = 0;
+            tree.move[child] = (byte) Long.numberOfTrailingZeros(m);
+            tree.visits[child] = 0;
+            tree.wins[child] = 0;
+            child++;
+        }
+        tree.firstChild[node] = first;
+        tree.childCount[node] = (byte) count;
+        return true;
+    }
+
+    // Mô phỏng tới hết ván. Trả về 1 nếu Đỏ thắng, 0 nếu Xanh thắng, 0.5 nếu hòa / quá dài.
+    private float playout(BitBoard board) {
+        for (int ply = 0; ply < MAX_PLAYOUT_PLIES; ply++) {
+            if (board.isGameOver()) {
+                return board.redPieces() > 0 ? 1 : 0;
+            }
+            long legal = board.legalMoveMask();
+            if (legal == 0) {
+                // Bên đi không còn nước: bên kia thắng
+                return board.isRedTurn() ? 0 : 1;
+            }
+            // Ưu tiên nhẹ cho việc nổ quân 3 điểm
+            long threes = legal & board.dotMask(3);
+            if (threes != 0 && random.nextInt(100) < EXPLODE_PERCENT) {
+                legal = threes;
+            }
+            board.applyMove(randomBit(legal));
+        }
+        int red = board.redPieces(), blue = board.bluePieces();
+        return red > blue ? 1 : red < blue ? 0 : 0.5f;
+    }
+
+    private int randomBit(long mask) {
+        for (int k = random.nextInt(Long.bitCount(mask)); k > 0; k--) {
+            mask &= mask - 1;
+        }
+        return Long.numberOfTrailingZeros(mask);
+    }
+
+    // Giữ lại cây con nếu thế cờ mới là gốc cũ, con hoặc cháu của gốc cũ; ngược lại tạo cây mới
+    private void reuseOrResetTree(BitBoard root) {
+        reusedNodes = 0;
+        if (hasTree) {
+            long key = root.hash();
+            int match = findNode(0, rootBoard, key, 2);
+            if (match == 0) {
+                reusedNodes = tree.size;
+                return;
+            }
+            if (match > 0) {
+                compactFrom(match);
+                reusedNodes = tree.size;
+                return;
+            }
+        }
+        tree.reset();
+        hasTree = true;
+    }
+
+    // Tìm nút trong tối đa depth nước từ node có thế cờ trùng khóa key
+    private int findNode(int node, BitBoard position, long key, int depth) {
+        if (position.hash() == key) {
+            return node;
+        }
+        int first = tree.firstChild[node];
+        if (depth == 0 || first == NO_CHILD) {
+            return NO_CHILD;
+        }
+        BitBoard next = new BitBoard();
+        for (int child = first; child < first + tree.childCount[node]; child++) {
+            next.copyFrom(position);
+            next.applyMove(tree.move[child]);
+            int match = findNode(child, next, key, depth - 1);
+            if (match != NO_CHILD) {
+                return match;
+            }
+        }
+        return NO_CHILD;
+    }
+
+    // Chép cây con từ nút newRoot sang cây dự phòng theo chiều rộng, rồi đổi hai cây
+    private void compactFrom(int newRoot) {
+        spare.size = 1;
+        copySource[0] = newRoot;
+        for (int next = 0; next < spare.size; next++) {
+            int source = copySource[next];
+            spare.move[next] = tree.move[source];
+            spare.visits[next] = tree.visits[source];
+            spare.wins[next] = tree.wins[source];
+            int first = tree.firstChild[source];
+            int count = tree.childCount[source];
+            if (first == NO_CHILD || spare.size + count > spare.capacity()) {
+                spare.firstChild[next] = NO_CHILD;
+                spare.childCount[next] = 0;
+                continue;
+            }
+            spare.firstChild[next] = spare.size;
+            spare.childCount[next] = (byte) count;
+            for (int i = 0; i < count; i++) {
+                copySource[spare.size++] = first + i;
+            }
+        }
+        Tree swap = tree;
+        tree = spare;
+        spare = swap;
+    }
+
+    public void clearTree() {
+        hasTree = false;
+    }
+
+    public long getPlayouts() {
+        return playouts;
+    }
+
+    public double getPlayoutsPerSecond() {
+        return elapsedNanos == 0 ? 0 : playouts * 1e9 / elapsedNanos;
+    }
+
+    public int getTreeNodes() {
+        return tree.size;
+    }
+
+    public int getReusedNodes() {
+        return reusedNodes;
+    }
+
+    public int getTreeCapacity() {
+        return tree.capacity();
+    }
+
+    // Bộ nhớ cho mỗi nút, tính cả cây dự phòng và mảng chép dùng khi giữ lại cây
+    public int getBytesPerNode() {
+        return 2 * Tree.bytesPerNode() + Integer.BYTES;
+    }
+
+    public long getMemoryBytes() {
+        return (long) getBytesPerNode() * tree.capacity();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("MCTS playouts=%d (%.0f/s) nodes=%d/%d reused=%d %d B/node",
+                playouts, getPlayoutsPerSecond(), tree.size, tree.capacity(), reusedNodes, getBytesPerNode());
+    }
+}
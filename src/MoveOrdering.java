@@ -0,0 +1,125 @@
+import java.util.Arrays;
+
+// Sắp xếp nước đi cho tìm kiếm alpha-beta của một worker.
+// Thứ tự: nước tốt nhất từ bảng chuyển vị, 2 nước sát thủ (killer) của ply hiện tại,
+// rồi theo bảng lịch sử (history) của bên đang đi. Các nước cùng điểm giữ nguyên thứ tự
+// ứng viên của SearchWorker.generateMoves (quân 2 điểm trước quân 1 điểm, nước đầu: trung tâm rồi các góc).
+class MoveOrdering {
+    private static final int TT_MOVE_SCORE = Integer.MAX_VALUE;
+    private static final int KILLER_SCORE = Integer.MAX_VALUE - 2;
+    // Điểm lịch sử vượt ngưỡng này thì chia đôi cả bảng để không chạm điểm killer
+    private static final int HISTORY_LIMIT = 1 << 28;
+
+    // 2 nước killer cho mỗi ply, lưu chỉ số ô (-1 nếu chưa có)
+    private final int[] killers = new int[(BitBoard.MAX_PLY + 1) * 2];
+    // history[0] cho Đỏ, history[1] cho Xanh, theo ô
+    private final int[][] history = new int[2][BitBoard.CELLS];
+    private final int[] scores = new int[BitBoard.CELLS];
+    private boolean enabled = true;
+
+    // Thống kê cắt tỉa: tỉ lệ cắt ngay ở nước đầu tiên cho biết thứ tự tốt đến đâu
+    private long cutoffs;
+    private long firstMoveCutoffs;
+
+    MoveOrdering() {
+        Arrays.fill(killers, TranspositionTable.NO_MOVE);
+    }
+
+    // Gọi khi bắt đầu tìm nước đi mới: xóa killer, giảm nửa lịch sử cũ
+    void newSearch() {
+        Arrays.fill(killers, TranspositionTable.NO_MOVE);
+        ageHistory();
+        cutoffs = 0;
+        firstMoveCutoffs = 0;
+    }
+
+    void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    // Sắp xếp count nước (chỉ số ô) trong moves bắt đầu từ offset
+    void order(int[] moves, int offset, int count, int ttMove, int ply, boolean redToMove) {
+        if (count < 2) {
+            return;
+        }
+        // Khi tắt chỉ đưa nước từ bảng chuyển vị lên đầu như trước
+        int killer1 = enabled ? killers[ply * 2] : TranspositionTable.NO_MOVE;
+        int killer2 = enabled ? killers[ply * 2 + 1] : TranspositionTable.NO_MOVE;
+        int[] sideHistory = history[redToMove ? 0 : 1];
+
+        for (int i = 0; i < count; i++) {
+            int index = moves[offset + i];
+            int score;
+            if (index == ttMove) {
+                score = TT_MOVE_SCORE;
+            } else if (index == killer1) {
+                score = KILLER_SCORE;
+            } else if (index == killer2) {
+                score = KILLER_SCORE - 1;
+            } else {
+                score = enabled ? sideHistory[index] : 0;
+            }
+            scores[i] = score;
+        }
+
+        // Sắp xếp chèn ổn định, danh sách nhỏ (tối đa 25 nước)
+        for (int i = 1; i < count; i++) {
+            int score = scores[i];
+            if (score <= scores[i - 1]) {
+                continue;
+            }
+            int move = moves[offset + i];
+            int j = i;
+            while (j > 0 && scores[j - 1] < score) {
+                scores[j] = scores[j - 1];
+                moves[offset + j] = moves[offset + j - 1];
+                j--;
+            }
+            scores[j] = score;
+            moves[offset + j] = move;
+        }
+    }
+
+    // Ghi nhận nước gây cắt tỉa: moveNumber là vị trí của nước trong danh sách đã sắp xếp
+    void recordCutoff(int index, int moveNumber, int depth, int ply, boolean redToMove) {
+        cutoffs++;
+        if (moveNumber == 0) {
+            firstMoveCutoffs++;
+        }
+        if (!enabled) {
+            return;
+        }
+
+        int slot = ply * 2;
+        if (killers[slot] != index) {
+            killers[slot + 1] = killers[slot];
+            killers[slot] = index;
+        }
+
+        int[] sideHistory = history[redToMove ? 0 : 1];
+        sideHistory[index] += depth * depth;
+        if (sideHistory[index] > HISTORY_LIMIT) {
+            ageHistory();
+        }
+    }
+
+    private void ageHistory() {
+        for (int[] side : history) {
+            for (int i = 0; i < side.length; i++) {
+                side[i] >>= 1;
+            }
+        }
+    }
+
+    long getCutoffs() {
+        return cutoffs;
+    }
+
+    long getFirstMoveCutoffs() {
+        return firstMoveCutoffs;
+    }
+}
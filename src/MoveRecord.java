@@ -0,0 +1,99 @@
+// Các ô đổi của một nước đi theo từng lớp nổ, do GameBoard.applyMove(index, record) ghi lại khi giải xong
+// nước đi trong một lần gọi; giao diện phát lại từng lớp để tạo hiệu ứng.
+// Lớp 0 là ô được chạm (đặt quân hoặc tăng điểm), mỗi lớp sau là một lớp nổ.
+// Mỗi thay đổi là (ô << 4 | mã mới), giống ngăn xếp hoàn tác của BitBoard; một ô có thể đổi nhiều lần
+// trong một lớp, phát lại theo thứ tự thì ra trạng thái cuối.
+// Chuỗi nổ dài hơn MAX_WAVES lớp (bàn lớn có thể có hàng trăm nghìn ô nổ trong một nước) được gộp vào lớp cuối,
+// lớp đó chỉ giữ mã cuối cùng của mỗi ô, nên thời gian phát lại và bộ nhớ của một nước có giới hạn.
+class MoveRecord {
+    static final int MAX_WAVES = 16;
+    // Lớp cuối gộp được thu gọn khi dài thêm chừng này thay đổi (ngưỡng gấp đôi theo kích thước sau khi thu gọn)
+    private static final int COMPACT_THRESHOLD = 4096;
+
+    private int[] changes = new int[4 * BitBoard.CELLS];
+    // Lớp w gồm các thay đổi [waveEnds[w - 1], waveEnds[w]) (lớp 0 bắt đầu từ 0)
+    private int[] waveEnds = new int[16];
+    private int size;
+    private int waves;
+    private int compactAt = COMPACT_THRESHOLD;
+
+    void clear() {
+        size = 0;
+        waves = 0;
+        compactAt = COMPACT_THRESHOLD;
+    }
+
+    // Thêm một lớp gồm trạng thái mới của các ô trong changed
+    void addWave(BitBoard board, long changed) {
+        for (long m = changed; m != 0; m &= m - 1) {
+            int cell = Long.numberOfTrailingZeros(m);
+            addChange(cell, board.code(cell));
+        }
+        endWave();
+    }
+
+    // Thêm một thay đổi vào lớp đang ghi
+    void addChange(int cell, int code) {
+        if (size == changes.length) {
+            changes = java.util.Arrays.copyOf(changes, 2 * size);
+        }
+        changes[size++] = (cell << 4) | code;
+        if (waves == MAX_WAVES && size - waveEnds[MAX_WAVES - 2] >= compactAt) {
+            compactLastWave();
+        }
+    }
+
+    // Đóng lớp đang ghi; đã đủ MAX_WAVES lớp thì nối vào lớp cuối
+    void endWave() {
+        if (waves == MAX_WAVES) {
+            waveEnds[MAX_WAVES - 1] = size;
+            return;
+        }
+        if (waves == waveEnds.length) {
+            waveEnds = java.util.Arrays.copyOf(waveEnds, 2 * waves);
+        }
+        waveEnds[waves++] = size;
+    }
+
+    // Chỉ giữ thay đổi cuối cùng của mỗi ô trong lớp cuối (các ô khác nhau nên thứ tự không quan trọng)
+    private void compactLastWave() {
+        int start = waveEnds[MAX_WAVES - 2];
+        int maxCell = 0;
+        for (int i = start; i < size; i++) {
+            maxCell = Math.max(maxCell, changes[i] >>> 4);
+        }
+        long[] seen = new long[(maxCell >>> 6) + 1];
+        int out = size;
+        for (int i = size - 1; i >= start; i--) {
+            int cell = changes[i] >>> 4;
+            if ((seen[cell >>> 6] & (1L << cell)) == 0) {
+                seen[cell >>> 6] |= 1L << cell;
+                changes[--out] = changes[i];
+            }
+        }
+        System.arraycopy(changes, out, changes, start, size - out);
+        size = start + (size - out);
+        waveEnds[MAX_WAVES - 1] = size;
+        compactAt = Math.max(COMPACT_THRESHOLD, 2 * (size - start));
+    }
+
+    int waveCount() {
+        return waves;
+    }
+
+    int waveStart(int wave) {
+        return wave == 0 ? 0 : waveEnds[wave - 1];
+    }
+
+    int waveEnd(int wave) {
+        return waveEnds[wave];
+    }
+
+    int cell(int change) {
+        return changes[change] >>> 4;
+    }
+
+    int code(int change) {
+        return changes[change] & 15;
+    }
+}
@@ -0,0 +1,60 @@
+import java.util.concurrent.ConcurrentHashMap;
+
+// Bảng ô kề tính sẵn một lần cho mỗi kích thước bàn cờ, dạng mảng int phẳng.
+// Ô i = row * size + col. Không cần kiểm tra biên hay cấp phát mảng hướng khi duyệt.
+public final class Neighbors {
+    // Thứ tự hướng giống GameLogic: trên, dưới, trái, phải
+    private static final int[][] DIRECTIONS = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}};
+
+    private static final ConcurrentHashMap<Integer, Neighbors> CACHE = new ConcurrentHashMap<>();
+
+    public final int size;
+    public final int cells;
+
+    // Ô kề của ô i nằm ở adjacent[i * 4 .. i * 4 + adjacentCount[i])
+    public final int[] adjacent;
+    public final int[] adjacentCount;
+
+    // Các ô đi được bằng 2 bước (hướng 1 rồi hướng 2), giữ nguyên số lần lặp:
+    // chính ô đó xuất hiện 4 lần, ô chéo 2 lần, ô cách 2 ô thẳng hàng 1 lần.
+    // Nằm ở extended[i * 16 .. i * 16 + extendedCount[i])
+    public final int[] extended;
+    public final int[] extendedCount;
+
+    private Neighbors(int size) {
+        this.size = size;
+        this.cells = size * size;
+        adjacent = new int[cells * 4];
+        adjacentCount = new int[cells];
+        extended = new int[cells * 16];
+        extendedCount = new int[cells];
+
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                int index = row * size + col;
+                for (int[] dir : DIRECTIONS) {
+                    int newRow = row + dir[0], newCol = col + dir[1];
+                    if (isValid(newRow, newCol)) {
+                        adjacent[index * 4 + adjacentCount[index]++] = newRow * size + newCol;
+                    }
+                }
+                for (int[] dir1 : DIRECTIONS) {
+                    for (int[] dir2 : DIRECTIONS) {
+                        int newRow = row + dir1[0] + dir2[0], newCol = col + dir1[1] + dir2[1];
+                        if (isValid(newRow, newCol)) {
+                            extended[index * 16 + extendedCount[index]++] = newRow * size + newCol;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    public static Neighbors of(int size) {
+        return CACHE.computeIfAbsent(size, Neighbors::new);
+    }
+
+    private boolean isValid(int row, int col) {
+        return row >= 0 && row < size && col >= 0 && col < size;
+    }
+}
@@ -0,0 +1,60 @@
+// Đánh giá thế cờ bằng NeuralNetwork theo góc nhìn một bên, cùng đơn vị điểm với Evaluator.
+// Bộ tích lũy lớp ẩn được cập nhật tăng dần: mỗi lần evaluate() chỉ trừ cột trọng số cũ và cộng cột mới
+// của những ô đã đổi so với ảnh chụp bitboard của lần gọi trước (sau makeMove/unmakeMove thường chỉ vài ô).
+// Cho kết quả giống hệt NeuralNetwork.evaluate() (tính lại từ đầu).
+class NeuralEvaluator {
+    private final NeuralNetwork network;
+    private final BitBoard board;
+    private final boolean isRed;
+    private final int hidden;
+    private final int[] accumulator;
+    // Trạng thái tương đối của từng ô trong ảnh chụp
+    private final int[] states = new int[BitBoard.CELLS];
+    private long red, blue, ones, twos, threes, fours;
+
+    NeuralEvaluator(NeuralNetwork network, BitBoard board, boolean isRed) {
+        this.network = network;
+        this.board = board;
+        this.isRed = isRed;
+        this.hidden = network.hidden;
+        // Ảnh chụp ban đầu là bàn cờ trống: bộ tích lũy chỉ có bias
+        accumulator = new int[hidden];
+        for (int j = 0; j < hidden; j++) {
+            accumulator[j] = network.hiddenBiases[j];
+        }
+    }
+
+    int evaluate() {
+        long changed = (board.red ^ red) | (board.blue ^ blue)
+                | (board.ones ^ ones) | (board.twos ^ twos)
+                | (board.threes ^ threes) | (board.fours ^ fours);
+        if (changed != 0) {
+            short[] weights = network.inputWeights;
+            for (long m = changed; m != 0; m &= m - 1) {
+                int cell = Long.numberOfTrailingZeros(m);
+                int state = NeuralNetwork.state(board, cell, isRed);
+                int old = states[cell];
+                if (old != 0) {
+                    int column = NeuralNetwork.feature(cell, old) * hidden;
+                    for (int j = 0; j < hidden; j++) {
+                        accumulator[j] -= weights[column + j];
+                    }
+                }
+                if (state != 0) {
+                    int column = NeuralNetwork.feature(cell, state) * hidden;
+                    for (int j = 0; j < hidden; j++) {
+                        accumulator[j] += weights[column + j];
+                    }
+                }
+                states[cell] = state;
+            }
+            red = board.red;
+            blue = board.blue;
+            ones = board.ones;
+            twos = board.twos;
+            threes = board.threes;
+            fours = board.fours;
+        }
+        return network.output(accumulator, board.isRedTurn() == isRed);
+    }
+}
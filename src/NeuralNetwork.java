@@ -0,0 +1,170 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+// Mạng đánh giá nhỏ kiểu NNUE, tính hoàn toàn bằng số nguyên trên CPU.
+// Đầu vào thưa: mỗi ô có quân bật một đặc trưng (ô, trạng thái tương đối), thêm một đặc trưng "lượt của mình".
+// Lớp ẩn là tổng các cột trọng số của đặc trưng đang bật (bộ tích lũy, NeuralEvaluator cập nhật tăng dần),
+// kích hoạt ReLU kẹp trong [0, QA], rồi một nút ra.
+// Trọng số lượng tử: lớp đầu nhân QA, lớp ra nhân QB; điểm = đầu ra * EVAL_SCALE / (QA * QB).
+// File: header 16 byte ("CWNN", phiên bản, kích thước bàn cờ, số nút ẩn) rồi các short big-endian:
+// trọng số lớp đầu [đặc trưng][nút ẩn], bias lớp ẩn, trọng số lớp ra, cuối cùng là bias lớp ra (int).
+public class NeuralNetwork {
+    public static final String DEFAULT_PATH = "book/eval.nnue";
+    public static final String NETWORK_PROPERTY = "colorwars.network";
+
+    // Trạng thái tương đối của ô có quân: 1-4 quân mình 1-4 điểm, 5-8 quân đối phương 1-4 điểm
+    static final int STATES = 8;
+    static final int FEATURES = BitBoard.CELLS * STATES + 1;
+    static final int TURN_FEATURE = FEATURES - 1;
+    static final int QA = 127;
+    static final int QB = 64;
+    // Một đơn vị đầu ra của mạng (số thực) bằng EVAL_SCALE điểm của hàm đánh giá cổ điển
+    static final int EVAL_SCALE = 10_000;
+
+    private static final int MAGIC = 0x43574E4E; // "CWNN"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+    private static final int MAX_HIDDEN = 1024;
+
+    final int hidden;
+    // Cột trọng số của đặc trưng f nằm ở inputWeights[f * hidden .. (f + 1) * hidden)
+    final short[] inputWeights;
+    final short[] hiddenBiases;
+    final short[] outputWeights;
+    final int outputBias;
+
+    NeuralNetwork(int hidden, short[] inputWeights, short[] hiddenBiases, short[] outputWeights, int outputBias) {
+        this.hidden = hidden;
+        this.inputWeights = inputWeights;
+        this.hiddenBiases = hiddenBiases;
+        this.outputWeights = outputWeights;
+        this.outputBias = outputBias;
+    }
+
+    // Đặc trưng của ô cell ở trạng thái tương đối state (1-8)
+    static int feature(int cell, int state) {
+        return cell * STATES + state - 1;
+    }
+
+    // Trạng thái tương đối của ô theo góc nhìn bên isRed, 0 nếu ô trống
+    static int state(BitBoard board, int cell, boolean isRed) {
+        int code = board.code(cell);
+        if (code == BitBoard.EMPTY || isRed) {
+            return code;
+        }
+        return code <= 4 ? code + 4 : code - 4;
+    }
+
+    // Điểm từ bộ tích lũy (đã gồm bias lớp ẩn) và lượt đi
+    int output(int[] accumulator, boolean myTurn) {
+        int turn = TURN_FEATURE * hidden;
+        int sum = outputBias;
+        for (int j = 0; j < hidden; j++) {
+            int value = accumulator[j] + (myTurn ? inputWeights[turn + j] : 0);
+            if (value > 0) {
+                sum += Math.min(value, QA) * outputWeights[j];
+            }
+        }
+        return (int) ((long) sum * EVAL_SCALE / (QA * QB));
+    }
+
+    // Tính bộ tích lũy từ đầu (không tăng dần), dùng để đối chiếu với NeuralEvaluator
+    int evaluate(BitBoard board, boolean isRed) {
+        int[] accumulator = new int[hidden];
+        for (int j = 0; j < hidden; j++) {
+            accumulator[j] = hiddenBiases[j];
+        }
+        for (long m = board.occupied(); m != 0; m &= m - 1) {
+            int cell = Long.numberOfTrailingZeros(m);
+            int column = feature(cell, state(board, cell, isRed)) * hidden;
+            for (int j = 0; j < hidden; j++) {
+                accumulator[j] += inputWeights[column + j];
+            }
+        }
+        return output(accumulator, board.isRedTurn() == isRed);
+    }
+
+    public static NeuralNetwork load(Path path) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path)).order(ByteOrder.BIG_ENDIAN);
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("Not a network file");
+        }
+        if (buffer.getInt(8) != BitBoard.SIZE) {
+            throw new IOException("Network is for a " + buffer.getInt(8) + "x" + buffer.getInt(8) + " board");
+        }
+        int hidden = buffer.getInt(12);
+        if (hidden < 1 || hidden > MAX_HIDDEN
+                || buffer.capacity() != HEADER_BYTES + 2L * (FEATURES * hidden + 2 * hidden) + 4) {
+            throw new IOException("Corrupt network file");
+        }
+        buffer.position(HEADER_BYTES);
+        short[] inputWeights = new short[FEATURES * hidden];
+        short[] hiddenBiases = new short[hidden];
+        short[] outputWeights = new short[hidden];
+        buffer.asShortBuffer().get(inputWeights);
+        buffer.position(buffer.position() + 2 * inputWeights.length);
+        buffer.asShortBuffer().get(hiddenBiases);
+        buffer.position(buffer.position() + 2 * hidden);
+        buffer.asShortBuffer().get(outputWeights);
+        buffer.position(buffer.position() + 2 * hidden);
+        return new NeuralNetwork(hidden, inputWeights, hiddenBiases, outputWeights, buffer.getInt());
+    }
+
+    // Mạng mặc định, đọc một lần và dùng chung; null nếu không có file (dùng hàm đánh giá cổ điển)
+    public static NeuralNetwork getDefault() {
+        return DefaultHolder.NETWORK;
+    }
+
+    private static class DefaultHolder {
+        static final NeuralNetwork NETWORK = openDefault();
+
+        private static NeuralNetwork openDefault() {
+            Path path = Paths.get(System.getProperty(NETWORK_PROPERTY, DEFAULT_PATH));
+            if (!Files.isReadable(path)) {
+                return null;
+            }
+            try {
+                return load(path);
+            } catch (IOException e) {
+                e.printStackTrace();
+                return null;
+            }
+        }
+    }
+
+    public void write(Path path) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + 2 * (inputWeights.length + 2 * hidden) + 4)
+                .order(ByteOrder.BIG_ENDIAN);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(BitBoard.SIZE).putInt(hidden);
+        for (short weight : inputWeights) {
+            buffer.putShort(weight);
+        }
+        for (short bias : hiddenBiases) {
+            buffer.putShort(bias);
+        }
+        for (short weight : outputWeights) {
+            buffer.putShort(weight);
+        }
+        buffer.putInt(outputBias).flip();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    public int getHidden() {
+        return hidden;
+    }
+}
@@ -0,0 +1,270 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+
+// Huấn luyện NeuralNetwork cho file mạng mặc định.
+// Thế cờ lấy từ các ván ngẫu nhiên, nhãn là điểm tìm kiếm của AIPlayer (hàm đánh giá cổ điển) ở độ sâu cố định
+// theo góc nhìn bên đi; mỗi thế cờ cho hai mẫu (góc nhìn bên đi và bên kia với điểm đổi dấu) và được xoay/lật
+// ngẫu nhiên theo 8 phép đối xứng. Học trên số thực bằng Adam với sai số bình phương, rồi lượng tử hóa và ghi file.
+// Chạy: java NeuralNetworkTrainer [số thế cờ] [độ sâu] [số nút ẩn] [số epoch] [file]
+public class NeuralNetworkTrainer {
+    private static final long SEED = 20250601L;
+    private static final int BATCH = 256;
+    private static final float LEARNING_RATE = 0.001f;
+    // Nhãn bị kẹp trong ±CLIP điểm (điểm thắng/thua chắc của tìm kiếm lớn hơn nhiều)
+    private static final int CLIP = 400_000;
+    private static final int FEATURES = NeuralNetwork.FEATURES;
+    private static final int CELLS = BitBoard.CELLS;
+
+    public static void main(String[] args) throws IOException {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+        int depth = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        int hidden = args.length > 2 ? Integer.parseInt(args[2]) : 32;
+        int epochs = args.length > 3 ? Integer.parseInt(args[3]) : 30;
+        Path path = Paths.get(args.length > 4 ? args[4] : NeuralNetwork.DEFAULT_PATH);
+
+        long start = System.nanoTime();
+        byte[] states = new byte[count * CELLS];
+        float[] targets = new float[count];
+        label(count, depth, states, targets);
+        System.out.printf("Labelled %d positions at depth %d in %.1f s%n", count, depth, (System.nanoTime() - start) / 1e9);
+
+        NeuralNetworkTrainer trainer = new NeuralNetworkTrainer(hidden);
+        trainer.train(states, targets, count, epochs);
+        NeuralNetwork network = trainer.quantize();
+        System.out.printf("Quantized validation RMSE %.0f%n", quantizedRmse(network, states, targets, count));
+        network.write(path);
+        System.out.printf("Wrote %d hidden units to %s in %.1f s%n", hidden, path, (System.nanoTime() - start) / 1e9);
+    }
+
+    // Sinh thế cờ từ các ván ngẫu nhiên (cả hai bên đã đi, chưa kết thúc) và gán nhãn.
+    // Trạng thái ô lưu theo góc nhìn bên đi (1-4 quân bên đi, 5-8 quân bên kia), nhãn theo điểm của bên đi.
+    private static void label(int count, int depth, byte[] states, float[] targets) {
+        Random random = new Random(SEED);
+        AIPlayer red = labeller(true);
+        AIPlayer blue = labeller(false);
+        int[] legal = new int[CELLS];
+        int n = 0;
+        while (n < count) {
+            BitBoard board = new BitBoard();
+            int plies = 2 + random.nextInt(50);
+            for (int ply = 0; ply < plies && !board.isGameOver(); ply++) {
+                int moves = board.legalMoves(legal);
+                board.applyMove(legal[random.nextInt(moves)]);
+            }
+            if (board.isGameOver() || !board.isRedMoved() || !board.isBlueMoved()) {
+                continue;
+            }
+            boolean mover = board.isRedTurn();
+            AIPlayer ai = mover ? red : blue;
+            if (ai.findBestMove(board, depth, AIPlayer.NO_TIME_LIMIT) == null || ai.getCompletedDepth() == 0) {
+                continue; // Nước bắt buộc (nổ quân 3 điểm) không có điểm tìm kiếm
+            }
+            for (int cell = 0; cell < CELLS; cell++) {
+                states[n * CELLS + cell] = (byte) NeuralNetwork.state(board, cell, mover);
+            }
+            targets[n] = Math.max(-CLIP, Math.min(CLIP, ai.getBestScore())) / (float) NeuralNetwork.EVAL_SCALE;
+            n++;
+        }
+        red.shutdown();
+        blue.shutdown();
+    }
+
+    private static AIPlayer labeller(boolean isRed) {
+        AIPlayer ai = new AIPlayer(null, isRed, AIPlayer.NO_TIME_LIMIT, 1);
+        ai.setOpeningBook(null);
+        ai.setTablebase(null);
+        ai.setNeuralNetwork(null);
+        return ai;
+    }
+
+    private final int hidden;
+    private final float[] inputWeights;
+    private final float[] hiddenBiases;
+    private final float[] outputWeights;
+    private final float[] outputBias = new float[1];
+    private final float[][] params;
+    private final float[][] grads;
+    private final float[][] moments;
+    private final float[][] velocities;
+    private int steps;
+
+    // Đặc trưng đang bật và giá trị lớp ẩn của mẫu hiện tại
+    private final int[] active = new int[CELLS + 1];
+    private final float[] preActivation;
+    private final float[] activation;
+
+    private NeuralNetworkTrainer(int hidden) {
+        this.hidden = hidden;
+        Random random = new Random(SEED);
+        inputWeights = new float[FEATURES * hidden];
+        hiddenBiases = new float[hidden];
+        outputWeights = new float[hidden];
+        for (int i = 0; i < inputWeights.length; i++) {
+            inputWeights[i] = (random.nextFloat() - 0.5f) * 0.2f;
+        }
+        for (int j = 0; j < hidden; j++) {
+            hiddenBiases[j] = 0.5f;
+            outputWeights[j] = (random.nextFloat() - 0.5f) * 0.2f;
+        }
+        params = new float[][] {inputWeights, hiddenBiases, outputWeights, outputBias};
+        grads = new float[params.length][];
+        moments = new float[params.length][];
+        velocities = new float[params.length][];
+        for (int p = 0; p < params.length; p++) {
+            grads[p] = new float[params[p].length];
+            moments[p] = new float[params[p].length];
+            velocities[p] = new float[params[p].length];
+        }
+        preActivation = new float[hidden];
+        activation = new float[hidden];
+    }
+
+    // 90% mẫu đầu để học, 10% cuối để kiểm tra
+    private void train(byte[] states, float[] targets, int count, int epochs) {
+        Random random = new Random(SEED + 1);
+        int trainCount = count * 9 / 10;
+        int[] order = new int[trainCount];
+        for (int i = 0; i < trainCount; i++) {
+            order[i] = i;
+        }
+        for (int epoch = 1; epoch <= epochs; epoch++) {
+            for (int i = trainCount - 1; i > 0; i--) {
+                int k = random.nextInt(i + 1);
+                int swap = order[i];
+                order[i] = order[k];
+                order[k] = swap;
+            }
+            double loss = 0;
+            for (int batch = 0; batch < trainCount; batch += BATCH) {
+                int end = Math.min(trainCount, batch + BATCH);
+                for (float[] grad : grads) {
+                    java.util.Arrays.fill(grad, 0);
+                }
+                for (int i = batch; i < end; i++) {
+                    int sample = order[i];
+                    boolean mover = random.nextBoolean();
+                    int features = features(states, sample, random.nextInt(Symmetry.COUNT), mover);
+                    float target = mover ? targets[sample] : -targets[sample];
+                    float error = forward(features) - target;
+                    loss += error * error;
+                    backward(features, 2 * error / (end - batch));
+                }
+                adam();
+            }
+            double validation = 0;
+            int validationSamples = 0;
+            for (int sample = trainCount; sample < count; sample++) {
+                for (int t = 0; t < Symmetry.COUNT; t += 3) {
+                    float error = forward(features(states, sample, t, true)) - targets[sample];
+                    validation += error * error;
+                    validationSamples++;
+                }
+            }
+            System.out.printf("epoch %d  train RMSE %.0f  validation RMSE %.0f%n", epoch,
+                    Math.sqrt(loss / trainCount) * NeuralNetwork.EVAL_SCALE,
+                    Math.sqrt(validation / Math.max(1, validationSamples)) * NeuralNetwork.EVAL_SCALE);
+        }
+    }
+
+    // Đặc trưng của mẫu sau phép đối xứng t, theo góc nhìn bên đi (mover) hoặc bên kia
+    private int features(byte[] states, int sample, int t, boolean mover) {
+        int n = 0;
+        for (int cell = 0; cell < CELLS; cell++) {
+            int state = states[sample * CELLS + cell];
+            if (state == 0) {
+                continue;
+            }
+            if (!mover) {
+                state = state <= 4 ? state + 4 : state - 4;
+            }
+            active[n++] = NeuralNetwork.feature(Symmetry.transformCell(cell, t), state);
+        }
+        if (mover) {
+            active[n++] = NeuralNetwork.TURN_FEATURE;
+        }
+        return n;
+    }
+
+    private float forward(int features) {
+        float out = outputBias[0];
+        for (int j = 0; j < hidden; j++) {
+            float sum = hiddenBiases[j];
+            for (int i = 0; i < features; i++) {
+                sum += inputWeights[active[i] * hidden + j];
+            }
+            preActivation[j] = sum;
+            activation[j] = Math.max(0, Math.min(1, sum));
+            out += activation[j] * outputWeights[j];
+        }
+        return out;
+    }
+
+    private void backward(int features, float gradOut) {
+        grads[3][0] += gradOut;
+        for (int j = 0; j < hidden; j++) {
+            grads[2][j] += gradOut * activation[j];
+            if (preActivation[j] <= 0 || preActivation[j] >= 1) {
+                continue;
+            }
+            float gradHidden = gradOut * outputWeights[j];
+            grads[1][j] += gradHidden;
+            for (int i = 0; i < features; i++) {
+                grads[0][active[i] * hidden + j] += gradHidden;
+            }
+        }
+    }
+
+    private void adam() {
+        steps++;
+        float beta1 = 0.9f, beta2 = 0.999f;
+        float correction1 = 1 - (float) Math.pow(beta1, steps);
+        float correction2 = 1 - (float) Math.pow(beta2, steps);
+        for (int p = 0; p < params.length; p++) {
+            float[] param = params[p], grad = grads[p], moment = moments[p], velocity = velocities[p];
+            for (int i = 0; i < param.length; i++) {
+                moment[i] = beta1 * moment[i] + (1 - beta1) * grad[i];
+                velocity[i] = beta2 * velocity[i] + (1 - beta2) * grad[i] * grad[i];
+                param[i] -= LEARNING_RATE * (moment[i] / correction1)
+                        / ((float) Math.sqrt(velocity[i] / correction2) + 1e-8f);
+            }
+        }
+    }
+
+    private NeuralNetwork quantize() {
+        short[] quantizedInput = new short[inputWeights.length];
+        for (int i = 0; i < inputWeights.length; i++) {
+            quantizedInput[i] = toShort(inputWeights[i] * NeuralNetwork.QA);
+        }
+        short[] quantizedBiases = new short[hidden];
+        short[] quantizedOutput = new short[hidden];
+        for (int j = 0; j < hidden; j++) {
+            quantizedBiases[j] = toShort(hiddenBiases[j] * NeuralNetwork.QA);
+            quantizedOutput[j] = toShort(outputWeights[j] * NeuralNetwork.QB);
+        }
+        int bias = Math.round(outputBias[0] * NeuralNetwork.QA * NeuralNetwork.QB);
+        return new NeuralNetwork(hidden, quantizedInput, quantizedBiases, quantizedOutput, bias);
+    }
+
+    private static short toShort(float value) {
+        return (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, Math.round(value)));
+    }
+
+    // Sai số của mạng đã lượng tử trên phần kiểm tra, tính bằng NeuralNetwork.evaluate trên bàn cờ dựng lại
+    private static double quantizedRmse(NeuralNetwork network, byte[] states, float[] targets, int count) {
+        BitBoard board = new BitBoard();
+        double sum = 0;
+        int trainCount = count * 9 / 10;
+        for (int sample = trainCount; sample < count; sample++) {
+            board.clear();
+            for (int cell = 0; cell < CELLS; cell++) {
+                board.setCode(cell, states[sample * CELLS + cell]);
+            }
+            board.setFlags(true, true, true);
+            double error = network.evaluate(board, true) - targets[sample] * NeuralNetwork.EVAL_SCALE;
+            sum += error * error;
+        }
+        return Math.sqrt(sum / Math.max(1, count - trainCount));
+    }
+}
@@ -0,0 +1,136 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+// Sách khai cuộc tính sẵn bằng OpeningBookBuilder, lưu trong file nhị phân và ánh xạ thẳng vào bộ nhớ.
+// File là một bảng băm địa chỉ mở: tra theo khóa Zobrist chuẩn hóa đối xứng mất O(1).
+// Định dạng: header 20 byte ("CWBK", phiên bản, kích thước bàn cờ, số slot, số entry),
+// sau đó mỗi slot 16 byte: khóa (0 = trống), nước đi theo hướng chuẩn, độ sâu, 2 byte trống, điểm.
+public class OpeningBook {
+    public static final String DEFAULT_PATH = "book/opening.book";
+    public static final String BOOK_PROPERTY = "colorwars.book";
+
+    private static final int MAGIC = 0x4357424B; // "CWBK"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 20;
+    private static final int SLOT_BYTES = 16;
+
+    public static final class Entry {
+        final long key;
+        final int move;
+        final int depth;
+        final int score;
+
+        public Entry(long key, int move, int depth, int score) {
+            this.key = key;
+            this.move = move;
+            this.depth = depth;
+            this.score = score;
+        }
+    }
+
+    private final ByteBuffer buffer;
+    private final int slotMask;
+    private final int entries;
+
+    private OpeningBook(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer.order(ByteOrder.BIG_ENDIAN);
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("Not an opening book file");
+        }
+        if (buffer.getInt(8) != BitBoard.SIZE) {
+            throw new IOException("Opening book is for a " + buffer.getInt(8) + "x" + buffer.getInt(8) + " board");
+        }
+        int slots = buffer.getInt(12);
+        if (Integer.bitCount(slots) != 1 || buffer.capacity() < HEADER_BYTES + (long) slots * SLOT_BYTES) {
+            throw new IOException("Corrupt opening book");
+        }
+        this.slotMask = slots - 1;
+        this.entries = buffer.getInt(16);
+    }
+
+    public static OpeningBook open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new OpeningBook(buffer);
+        }
+    }
+
+    // Sách mặc định, mở một lần và dùng chung; null nếu không có file
+    public static OpeningBook getDefault() {
+        return DefaultHolder.BOOK;
+    }
+
+    private static class DefaultHolder {
+        static final OpeningBook BOOK = openDefault();
+
+        private static OpeningBook openDefault() {
+            Path path = Paths.get(System.getProperty(BOOK_PROPERTY, DEFAULT_PATH));
+            if (!Files.isReadable(path)) {
+                return null;
+            }
+            try {
+                return open(path);
+            } catch (IOException e) {
+                e.printStackTrace();
+                return null;
+            }
+        }
+    }
+
+    // Nước đi trong sách cho thế cờ (theo hướng của board), hoặc null nếu không có
+    public Move probe(BitBoard board) {
+        int t = Symmetry.canonicalTransform(board);
+        long key = board.hash(Symmetry.permutation(t));
+        for (int slot = (int) key & slotMask; ; slot = (slot + 1) & slotMask) {
+            int offset = HEADER_BYTES + slot * SLOT_BYTES;
+            long slotKey = buffer.getLong(offset);
+            if (slotKey == 0) {
+                return null;
+            }
+            if (slotKey == key) {
+                int index = Symmetry.transformCell(buffer.get(offset + 8), Symmetry.inverse(t));
+                return new Move(index / BitBoard.SIZE, index % BitBoard.SIZE);
+            }
+        }
+    }
+
+    public int size() {
+        return entries;
+    }
+
+    // Ghi sách: số slot là lũy thừa 2 ít nhất gấp đôi số entry để chuỗi dò ngắn
+    public static void write(Path path, List<Entry> entries) throws IOException {
+        int slots = Integer.highestOneBit(Math.max(1, entries.size()) * 2 - 1) << 1;
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + slots * SLOT_BYTES).order(ByteOrder.BIG_ENDIAN);
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putInt(8, BitBoard.SIZE);
+        buffer.putInt(12, slots);
+        buffer.putInt(16, entries.size());
+        for (Entry entry : entries) {
+            for (int slot = (int) entry.key & (slots - 1); ; slot = (slot + 1) & (slots - 1)) {
+                int offset = HEADER_BYTES + slot * SLOT_BYTES;
+                if (buffer.getLong(offset) == 0) {
+                    buffer.putLong(offset, entry.key);
+                    buffer.put(offset + 8, (byte) entry.move);
+                    buffer.put(offset + 9, (byte) entry.depth);
+                    buffer.putInt(offset + 12, entry.score);
+                    break;
+                }
+            }
+        }
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Files.write(path, buffer.array());
+    }
+}
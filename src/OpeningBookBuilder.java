@@ -0,0 +1,86 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// Tạo sách khai cuộc: duyệt mọi thế cờ trong N nước đầu tiên (bỏ trùng theo đối xứng),
+// tìm sâu từng thế cờ bằng AIPlayer rồi ghi ra file cho OpeningBook.
+// Chạy: java OpeningBookBuilder [số nước] [độ sâu] [số luồng] [file]
+public class OpeningBookBuilder {
+    public static void main(String[] args) throws IOException {
+        int plies = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int depth = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        Path path = Paths.get(args.length > 3 ? args[3] : OpeningBook.DEFAULT_PATH);
+
+        List<BitBoard> positions = collectPositions(plies);
+        System.out.printf("Opening book: %d positions within %d plies, depth %d, %d threads%n",
+                positions.size(), plies, depth, threads);
+
+        // Một engine cho mỗi màu, giữ bảng chuyển vị giữa các thế cờ
+        AIPlayer red = new AIPlayer(null, true, AIPlayer.NO_TIME_LIMIT, threads);
+        AIPlayer blue = new AIPlayer(null, false, AIPlayer.NO_TIME_LIMIT, threads);
+        red.setOpeningBook(null);
+        blue.setOpeningBook(null);
+
+        List<OpeningBook.Entry> entries = new ArrayList<>();
+        long start = System.nanoTime();
+        for (BitBoard position : positions) {
+            AIPlayer ai = position.isRedTurn() ? red : blue;
+            Move move = ai.findBestMove(position, depth, AIPlayer.NO_TIME_LIMIT);
+            if (move == null) {
+                continue;
+            }
+            // Lưu nước đi theo hướng chuẩn của thế cờ
+            int t = Symmetry.canonicalTransform(position);
+            long key = position.hash(Symmetry.permutation(t));
+            int canonicalMove = Symmetry.transformCell(move.row * BitBoard.SIZE + move.col, t);
+            entries.add(new OpeningBook.Entry(key, canonicalMove, ai.getCompletedDepth(), ai.getBestScore()));
+            if (entries.size() % 100 == 0) {
+                System.out.printf("  %d/%d (%.1f s)%n", entries.size(), positions.size(), (System.nanoTime() - start) / 1e9);
+            }
+        }
+        red.shutdown();
+        blue.shutdown();
+
+        OpeningBook.write(path, entries);
+        System.out.printf("Wrote %d entries to %s in %.1f s%n", entries.size(), path, (System.nanoTime() - start) / 1e9);
+    }
+
+    // Các thế cờ đạt được trong số nước cho trước từ bàn cờ trống, mỗi lớp đối xứng lấy một đại diện.
+    // Bỏ thế cờ kết thúc, thế cờ chỉ có một nước và thế cờ có quân 3 điểm của bên đi (AI nổ ngay, không cần sách).
+    static List<BitBoard> collectPositions(int plies) {
+        List<BitBoard> result = new ArrayList<>();
+        Set<Long> seen = new HashSet<>();
+        List<BitBoard> layer = new ArrayList<>();
+        layer.add(new BitBoard());
+        seen.add(Symmetry.canonicalKey(layer.get(0)));
+
+        for (int ply = 0; ply < plies; ply++) {
+            List<BitBoard> next = new ArrayList<>();
+            for (BitBoard position : layer) {
+                int legalCount = 0;
+                for (int i = 0; i < BitBoard.CELLS; i++) {
+                    if (!position.isLegal(i)) {
+                        continue;
+                    }
+                    legalCount++;
+                    BitBoard child = position.copy();
+                    child.applyMove(i);
+                    if (!child.isGameOver() && seen.add(Symmetry.canonicalKey(child))) {
+                        next.add(child);
+                    }
+                }
+                boolean forced = (position.ownMask(position.isRedTurn()) & position.dotMask(3)) != 0;
+                if (legalCount > 1 && !forced) {
+                    result.add(position);
+                }
+            }
+            layer = next;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,229 @@
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Bộ giải df-pn (tìm số chứng minh theo chiều sâu) để chứng minh thắng/thua bắt buộc.
+// Bên tấn công thắng khi đối phương hết quân; mỗi nút có số chứng minh pn (ít nhất bao nhiêu lá phải
+// chứng minh để bên tấn công thắng) và số bác bỏ dn. Nút bên tấn công đi (OR) lấy pn nhỏ nhất và tổng dn
+// của các con, nút bên phòng thủ đi (AND) ngược lại. Nút vượt quá MAX_DEPTH nước tính là bác bỏ,
+// nên kết quả "thắng" luôn chính xác còn "không thắng" chỉ có nghĩa là không tìm được trong giới hạn.
+// Chỉ chạy khi cả hai bên đã đi nước đầu: mỗi nước là chạm vào một quân của mình.
+class ProofNumberSearch {
+    static final int UNKNOWN = 0;
+    static final int WIN = 1;    // Bên đi thắng bắt buộc, nước thắng trong getProvingMove()
+    static final int LOSS = -1;  // Bên đi thua dù đi thế nào
+
+    static final int DEFAULT_NODE_LIMIT = 50_000;
+    static final int DEFAULT_SIZE_BITS = 16;
+    static final int MAX_DEPTH = 64;
+
+    // Vô cực, đủ nhỏ để cộng hai giá trị không tràn số
+    private static final int INF = Integer.MAX_VALUE / 2;
+
+    private final BitBoard board = new BitBoard();
+    // Nước đi của từng độ sâu, mỗi độ sâu một đoạn CELLS phần tử
+    private final int[] moveBuffer = new int[(MAX_DEPTH + 1) * BitBoard.CELLS];
+
+    // Bảng lưu (pn, dn) theo khóa Zobrist, ghi đè luôn; 16 byte mỗi entry
+    private long[] keys;
+    private long[] values;
+    private int mask;
+
+    private long nodeLimit = DEFAULT_NODE_LIMIT;
+    private boolean attackerRed;
+    private long nodes;
+    private long deadline;
+    private AtomicBoolean stopFlag;
+    private boolean aborted;
+    private int provingMove = -1;
+    // pn, dn của nút con vừa tra bởi lookup()
+    private int childPn, childDn;
+
+    ProofNumberSearch() {
+        setTableSize(DEFAULT_SIZE_BITS);
+    }
+
+    // Số nút tối đa cho mỗi lần solve (gồm cả hai lượt chứng minh thắng và thua)
+    void setNodeLimit(long nodeLimit) {
+        this.nodeLimit = nodeLimit;
+    }
+
+    long getNodeLimit() {
+        return nodeLimit;
+    }
+
+    // Bộ nhớ của bảng: 2^sizeBits entry, mỗi entry 16 byte
+    void setTableSize(int sizeBits) {
+        int entries = 1 << sizeBits;
+        keys = new long[entries];
+        values = new long[entries];
+        mask = entries - 1;
+    }
+
+    int getTableSizeBits() {
+        return Integer.numberOfTrailingZeros(keys.length);
+    }
+
+    // Số nút đã duyệt của lần solve gần nhất
+    long getNodes() {
+        return nodes;
+    }
+
+    // Nước thắng (chỉ số ô) khi solve trả về WIN, -1 nếu không có
+    int getProvingMove() {
+        return provingMove;
+    }
+
+    // Chứng minh bên đi thắng, nếu không được thì chứng minh bên đi thua, trong giới hạn số nút,
+    // thời gian và cờ dừng
+    int solve(BitBoard root, long deadline, AtomicBoolean stopFlag) {
+        this.deadline = deadline;
+        this.stopFlag = stopFlag;
+        nodes = 0;
+        provingMove = -1;
+        if (!root.isRedMoved() || !root.isBlueMoved() || root.isGameOver()) {
+            return UNKNOWN;
+        }
+        boolean redToMove = root.isRedTurn();
+        if (prove(root, redToMove) && provingMove >= 0) {
+            return WIN;
+        }
+        provingMove = -1;
+        if (!aborted && prove(root, !redToMove)) {
+            return LOSS;
+        }
+        return UNKNOWN;
+    }
+
+    // Chạy df-pn từ gốc với bên tấn công attackerRed; true nếu đã chứng minh bên tấn công thắng
+    private boolean prove(BitBoard root, boolean attackerRed) {
+        this.attackerRed = attackerRed;
+        Arrays.fill(keys, 0);
+        Arrays.fill(values, 0);
+        board.copyFrom(root);
+        aborted = false;
+        int pn = mid(INF, INF, 0);
+        if (aborted || pn != 0) {
+            return false;
+        }
+        // Gốc là nút OR đã chứng minh: chọn nước có con đã chứng minh
+        if (board.isRedTurn() == attackerRed) {
+            int count = generateMoves(0);
+            for (int i = 0; i < count; i++) {
+                board.makeMove(moveBuffer[i]);
+                lookup(1);
+                board.unmakeMove();
+                if (childPn == 0) {
+                    provingMove = moveBuffer[i];
+                    break;
+                }
+            }
+        }
+        return true;
+    }
+
+    // Mở rộng nút hiện tại tới khi pn >= thPn hoặc dn >= thDn, lưu và trả về pn của nút
+    private int mid(int thPn, int thDn, int depth) {
+        nodes++;
+        if (nodes >= nodeLimit
+                || ((nodes & 1023) == 0 && (System.nanoTime() >= deadline || stopFlag.get()))) {
+            aborted = true;
+        }
+        boolean or = board.isRedTurn() == attackerRed;
+        int offset = depth * BitBoard.CELLS;
+        int count = generateMoves(offset);
+        long key = board.hash();
+        while (true) {
+            // pn, dn của nút từ các con; con tốt nhất (pn nhỏ nhất ở nút OR, dn nhỏ nhất ở nút AND)
+            // và giá trị nhỏ thứ hai để đặt ngưỡng cho con
+            int pn = or ? INF : 0;
+            int dn = or ? 0 : INF;
+            int best = -1, bestPn = 0, bestDn = 0, second = INF;
+            for (int i = 0; i < count; i++) {
+                board.makeMove(moveBuffer[offset + i]);
+                lookup(depth + 1);
+                board.unmakeMove();
+                if (or) {
+                    dn = Math.min(INF, dn + childDn);
+                    if (childPn < pn) {
+                        second = pn;
+                        pn = childPn;
+                    } else {
+                        second = Math.min(second, childPn);
+                        continue;
+                    }
+                } else {
+                    pn = Math.min(INF, pn + childPn);
+                    if (childDn < dn) {
+                        second = dn;
+                        dn = childDn;
+                    } else {
+                        second = Math.min(second, childDn);
+                        continue;
+                    }
+                }
+                best = i;
+                bestPn = childPn;
+                bestDn = childDn;
+            }
+            if (pn >= thPn || dn >= thDn || aborted || best < 0) {
+                store(key, pn, dn);
+                return pn;
+            }
+            board.makeMove(moveBuffer[offset + best]);
+            if (or) {
+                mid(Math.min(thPn, second + 1), Math.min(INF, thDn - dn + bestDn), depth + 1);
+            } else {
+                mid(Math.min(INF, thPn - pn + bestPn), Math.min(thDn, second + 1), depth + 1);
+            }
+            board.unmakeMove();
+        }
+    }
+
+    // pn, dn của thế cờ hiện tại (con ở độ sâu depth) vào childPn, childDn
+    private void lookup(int depth) {
+        if (board.isGameOver()) {
+            // Bên vừa đi thắng
+            boolean attackerWon = board.isRedTurn() != attackerRed;
+            childPn = attackerWon ? 0 : INF;
+            childDn = attackerWon ? INF : 0;
+            return;
+        }
+        if (depth >= MAX_DEPTH) {
+            childPn = INF;
+            childDn = 0;
+            return;
+        }
+        long key = board.hash();
+        int slot = (int) key & mask;
+        if (keys[slot] == key) {
+            long value = values[slot];
+            childPn = (int) (value >>> 32);
+            childDn = (int) value;
+            return;
+        }
+        // Nút mới: khởi tạo theo số nước đi, nhiều nước thì khó bác bỏ ở nút OR / khó chứng minh ở nút AND
+        int moves = Long.bitCount(board.ownMask(board.isRedTurn()));
+        boolean or = board.isRedTurn() == attackerRed;
+        childPn = or ? 1 : moves;
+        childDn = or ? moves : 1;
+    }
+
+    private void store(long key, int pn, int dn) {
+        int slot = (int) key & mask;
+        keys[slot] = key;
+        values[slot] = ((long) pn << 32) | dn;
+    }
+
+    // Mọi nước đi hợp lệ (chạm vào một quân của bên đi), quân 3 điểm trước vì dễ gây chuỗi nổ
+    private int generateMoves(int offset) {
+        int count = offset;
+        long own = board.ownMask(board.isRedTurn());
+        for (long m = own & board.dotMask(3); m != 0; m &= m - 1) {
+            moveBuffer[count++] = Long.numberOfTrailingZeros(m);
+        }
+        for (long m = own & ~board.dotMask(3); m != 0; m &= m - 1) {
+            moveBuffer[count++] = Long.numberOfTrailingZeros(m);
+        }
+        return count - offset;
+    }
+}
@@ -0,0 +1,389 @@
+// Hàm đánh giá gốc của AIPlayer (evaluateSimulationBoard và các hàm con) giữ nguyên từng bước,
+// chỉ thay phần chép bàn cờ từ giao diện bằng chép từ một BitBoard.
+// Chỉ dùng làm chuẩn so sánh cho Evaluator trong EngineBenchmark (chế độ eval), không dùng khi chơi.
+// chainTerms = false bỏ các số hạng đoán chuỗi nổ giống Evaluator (tiềm năng chuỗi, mối đe dọa, thưởng quân 3 điểm).
+class ReferenceEvaluator {
+    private static final int GRID_SIZE = BitBoard.SIZE;
+
+    private final boolean isRed;
+    private final boolean chainTerms;
+    private final byte[][] simulationGrid = new byte[GRID_SIZE][GRID_SIZE];
+
+    ReferenceEvaluator(boolean isRed) {
+        this(isRed, true);
+    }
+
+    ReferenceEvaluator(boolean isRed, boolean chainTerms) {
+        this.isRed = isRed;
+        this.chainTerms = chainTerms;
+    }
+
+    // Điểm của thế cờ theo góc nhìn của isRed
+    int evaluate(BitBoard board) {
+        for (int row = 0; row < GRID_SIZE; row++) {
+            for (int col = 0; col < GRID_SIZE; col++) {
+                simulationGrid[row][col] = convertStateToCode(board.getState(row, col));
+            }
+        }
+        return evaluateSimulationBoard();
+    }
+
+    //Chuyển trạng thái ô thành mã số
+    private byte convertStateToCode(CellState state) {
+        switch (state) {
+            case EMPTY: return 0;
+            case RED_ONE: return 1;
+            case RED_TWO: return 2;
+            case RED_THREE: return 3;
+            case RED_FOUR: return 4;
+            case BLUE_ONE: return 5;
+            case BLUE_TWO: return 6;
+            case BLUE_THREE: return 7;
+            case BLUE_FOUR: return 8;
+            default: return 0;
+        }
+    }
+
+    //Chuyển mã số thành trạng thái ô
+    private CellState convertCodeToState(byte code) {
+        switch (code) {
+            case 0: return CellState.EMPTY;
+            case 1: return CellState.RED_ONE;
+            case 2: return CellState.RED_TWO;
+            case 3: return CellState.RED_THREE;
+            case 4: return CellState.RED_FOUR;
+            case 5: return CellState.BLUE_ONE;
+            case 6: return CellState.BLUE_TWO;
+            case 7: return CellState.BLUE_THREE;
+            case 8: return CellState.BLUE_FOUR;
+            default: return CellState.EMPTY;
+        }
+    }
+
+    //Đánh giá các nước đi
+    private int evaluateSimulationBoard() {
+        int score = 0;
+
+        // Đánh giá số lượng quân và điểm
+        int myPieces = 0, oppPieces = 0;
+        int myDots = 0, oppDots = 0;
+        int myThreeDots = 0, oppThreeDots = 0;
+        int chainPotentialScore = 0;
+        int opponentChainThreat = 0;
+        int positionScore = 0;  // Thêm điểm vị trí
+
+        for (int row = 0; row < GRID_SIZE; row++) {
+            for (int col = 0; col < GRID_SIZE; col++) {
+                CellState state = convertCodeToState(simulationGrid[row][col]);
+                if ((isRed && state.isRed()) || (!isRed && state.isBlue())) {
+                    myPieces++;
+                    int dots = getDotCount(state);
+                    myDots += dots;
+                    if (dots == 3) myThreeDots++;
+                    if (dots >= 2) {
+                        chainPotentialScore += evaluateChainPotential(simulationGrid, row, col, isRed);
+                    }
+
+                    // Đánh giá vị trí chiến lược
+                    positionScore += evaluatePosition(row, col, dots, isRed);
+                } else if ((isRed && state.isBlue()) || (!isRed && state.isRed())) {
+                    oppPieces++;
+                    int dots = getDotCount(state);
+                    oppDots += dots;
+                    if (dots == 3) {
+                        oppThreeDots++;
+                    }
+                    if (dots >= 2) {
+                        opponentChainThreat += evaluateOpponentChainThreat(simulationGrid, row, col, isRed);
+                    }
+                }
+            }
+        }
+
+        // Kiểm tra trạng thái kết thúc
+        if (myPieces == 0) return -100000;
+        if (oppPieces == 0) return 100000;
+
+        // Bản không có các số hạng chuỗi nổ
+        if (!chainTerms) {
+            myThreeDots = 0;
+            chainPotentialScore = 0;
+            opponentChainThreat = 0;
+        }
+
+        // Tính điểm tổng hợp với trọng số mới
+        score = (myPieces - oppPieces) * 200 +                    // Trọng số cho số lượng quân
+                (myDots - oppDots) * 180 +                        // Tăng trọng số cho tổng số điểm
+                (myThreeDots) * 1000 +                            // Tăng mạnh trọng số cho quân 3 điểm
+                chainPotentialScore * 750 -                       // Tăng trọng số khả năng tạo chuỗi nổ
+                opponentChainThreat * 500 +                       // Tăng trọng số cho mối đe dọa từ đối phương
+                positionScore * 300;                              // Thêm điểm vị trí chiến lược
+
+        // Tỷ lệ quân tương đối
+        if (oppPieces > 0) {
+            float pieceRatio = (float) myPieces / oppPieces;
+            if (pieceRatio > 1.5) {
+                score += 800;
+            }
+        }
+
+        // Điểm phạt khi bị đối thủ bao vây
+        int surroundedPenalty = evaluateSurroundedPieces(simulationGrid, isRed);
+        score -= surroundedPenalty * 250;
+
+        // Thêm điểm thưởng cho các tình huống đặc biệt
+        if (myPieces > oppPieces) {
+            score += 500;
+        }
+
+        if (myThreeDots > 0) {
+            score += 900; // Tăng điểm thưởng cho việc có quân 3 điểm
+        }
+
+        return score;
+    }
+
+    // Đánh giá vị trí chiến lược
+    private int evaluatePosition(int row, int col, int dots, boolean isRed) {
+        int posScore = 0;
+
+        // Vị trí góc có giá trị cao vì khó bị bao vây
+        if ((row == 0 || row == GRID_SIZE-1) && (col == 0 || col == GRID_SIZE-1)) {
+            posScore += 50;
+        }
+
+        // Vị trí cạnh có giá trị trung bình
+        else if (row == 0 || row == GRID_SIZE-1 || col == 0 || col == GRID_SIZE-1) {
+            posScore += 25;
+        }
+
+        // Vị trí trung tâm có giá trị cho việc kiểm soát bàn cờ
+        int center = GRID_SIZE / 2;
+        int distanceToCenter = Math.abs(row - center) + Math.abs(col - center);
+        if (distanceToCenter <= 1) {
+            posScore += 40;
+        }
+
+        // Quân 3 điểm ở vị trí tốt có giá trị rất cao
+        if (dots == 3) {
+            posScore += 30;
+
+            // Đặc biệt cao nếu ở vị trí có thể gây chuỗi nổ
+            int[][] directions = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}};
+            for (int[] dir : directions) {
+                int newRow = row + dir[0], newCol = col + dir[1];
+                if (isValidPosition(newRow, newCol)) {
+                    CellState neighborState = convertCodeToState(simulationGrid[newRow][newCol]);
+                    // Tăng giá trị nếu kế bên là quân cùng màu
+                    if ((isRed && neighborState.isRed()) || (!isRed && neighborState.isBlue())) {
+                        posScore += 40;
+                    }
+                }
+            }
+        }
+
+        return posScore;
+    }
+
+    //Đánh giá mức độ bị bao vây
+    private int evaluateSurroundedPieces(byte[][] grid, boolean isRed) {
+        int surroundedCount = 0;
+
+        for (int row = 0; row < GRID_SIZE; row++) {
+            for (int col = 0; col < GRID_SIZE; col++) {
+                CellState state = convertCodeToState(grid[row][col]);
+
+                // Chỉ xét quân của chúng ta
+                if ((isRed && state.isRed()) || (!isRed && state.isBlue())) {
+                    int opponentNeighbors = 0;
+                    int totalNeighbors = 0;
+
+                    int[][] directions = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}};
+                    for (int[] dir : directions) {
+                        int newRow = row + dir[0], newCol = col + dir[1];
+                        if (isValidPosition(newRow, newCol)) {
+                            totalNeighbors++;
+                            CellState neighborState = convertCodeToState(grid[newRow][newCol]);
+                            if ((isRed && neighborState.isBlue()) || (!isRed && neighborState.isRed())) {
+                                opponentNeighbors++;
+                            }
+                        }
+                    }
+
+                    // Nếu đa số hàng xóm là quân đối phương, quân này bị bao vây
+                    if (opponentNeighbors > totalNeighbors / 2) {
+                        surroundedCount++;
+                    }
+                }
+            }
+        }
+
+        return surroundedCount;
+    }
+
+
+    //Đánh giá khả năng tạo chuỗi nổ
+    private int evaluateChainPotential(byte[][] grid, int row, int col, boolean isRed) {
+        int chainScore = 0;
+        int[][] directions = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}};
+
+        // Đánh giá quân hiện tại
+        CellState currentState = convertCodeToState(grid[row][col]);
+        int currentDots = getDotCount(currentState);
+
+        // Quân càng nhiều điểm càng có khả năng tạo chuỗi nổ
+        chainScore += currentDots * 20;
+
+        // Đánh giá các quân xung quanh
+        for (int[] dir : directions) {
+            int newRow = row + dir[0];
+            int newCol = col + dir[1];
+
+            if (isValidPosition(newRow, newCol)) {
+                CellState neighborState = convertCodeToState(grid[newRow][newCol]);
+
+                // Tăng điểm cho chuỗi nổ tiềm năng với quân cùng màu
+                if ((isRed && neighborState.isRed()) || (!isRed && neighborState.isBlue())) {
+                    int neighborDots = getDotCount(neighborState);
+
+                    chainScore += 40 + neighborDots * 15;
+
+                    // Đặc biệt ưu tiên chuỗi có quân 3 điểm
+                    if (neighborDots == 3 || currentDots == 3) {
+                        chainScore += 100;
+                    }
+
+                    if ((currentDots == 2 && neighborDots == 3) ||
+                        (currentDots == 3 && neighborDots == 2) ||
+                        (currentDots == 2 && neighborDots == 2) ||
+                        (currentDots == 3 && neighborDots == 3)) {
+                        chainScore += 120;
+                    }
+                }
+
+                // Tăng điểm cho khả năng ảnh hưởng đến quân đối phương
+                if ((isRed && neighborState.isBlue()) || (!isRed && neighborState.isRed())) {
+                    chainScore += 60;
+
+                    // Nếu quân đối phương có nhiều điểm, gây ảnh hưởng có giá trị cao
+                    int oppDots = getDotCount(neighborState);
+                    if (oppDots >= 2) {
+                        chainScore += oppDots * 20;
+                    }
+                }
+            }
+        }
+
+        // Đánh giá chuỗi mở rộng hơn (kiểm tra các quân cách 2 ô)
+        if (currentDots >= 2) {
+            for (int[] dir1 : directions) {
+                for (int[] dir2 : directions) {
+                    int extendedRow = row + dir1[0] + dir2[0];
+                    int extendedCol = col + dir1[1] + dir2[1];
+
+                    if (isValidPosition(extendedRow, extendedCol)) {
+                        CellState extendedState = convertCodeToState(grid[extendedRow][extendedCol]);
+                        if ((isRed && extendedState.isRed() && getDotCount(extendedState) >= 2) ||
+                            (!isRed && extendedState.isBlue() && getDotCount(extendedState) >= 2)) {
+                            chainScore += 30;
+                        }
+                    }
+                }
+            }
+        }
+
+        return chainScore;
+    }
+
+    // Cải thiện đánh giá mối đe dọa từ đối phương
+    private int evaluateOpponentChainThreat(byte[][] grid, int row, int col, boolean isRed) {
+        int threatScore = 0;
+        int[][] directions = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}};
+
+        CellState currentState = convertCodeToState(grid[row][col]);
+        int currentDots = getDotCount(currentState);
+
+        // Quân đối phương càng nhiều điểm càng nguy hiểm
+        threatScore += currentDots * 30;
+
+        for (int[] dir : directions) {
+            int newRow = row + dir[0];
+            int newCol = col + dir[1];
+
+            if (isValidPosition(newRow, newCol)) {
+                CellState neighborState = convertCodeToState(grid[newRow][newCol]);
+
+                // Đánh giá mối đe dọa từ quân khác của đối phương
+                if ((isRed && neighborState.isBlue()) || (!isRed && neighborState.isRed())) {
+                    int neighborDots = getDotCount(neighborState);
+                    threatScore += 50 + neighborDots * 20;
+
+                    // Mối đe dọa cao với chuỗi 2-2, 2-3, 3-2, 3-3
+                    if ((currentDots == 2 && neighborDots == 2) ||
+                        (currentDots == 2 && neighborDots == 3) ||
+                        (currentDots == 3 && neighborDots == 2) ||
+                        (currentDots == 3 && neighborDots == 3)) {
+                        threatScore += 150;
+                    }
+
+                    // Đánh giá mối đe dọa từ quân 3 điểm đối phương (từ hàm evaluateThreeDotThreat)
+                    if (neighborDots == 3) {
+                        threatScore += 100;
+                    }
+                }
+
+                // Đánh giá mối đe dọa đến quân của chúng ta
+                if ((isRed && neighborState.isRed()) || (!isRed && neighborState.isBlue())) {
+                    threatScore += 40; // Quân đối phương gần quân của chúng ta
+                }
+            }
+        }
+
+        // Kiểm tra mẫu hình đe dọa đặc biệt: quân 3 điểm có thể gây chuỗi nổ
+        if (currentDots == 3) {
+            int threatCount = 0;
+            for (int[] dir : directions) {
+                int newRow = row + dir[0];
+                int newCol = col + dir[1];
+
+                if (isValidPosition(newRow, newCol)) {
+                    CellState neighborState = convertCodeToState(grid[newRow][newCol]);
+                    // Nếu hàng xóm cùng màu với đối phương
+                    if ((isRed && neighborState.isBlue()) || (!isRed && neighborState.isRed())) {
+                        threatCount++;
+                    }
+                }
+            }
+
+            // Nếu quân 3 điểm có ít nhất 2 quân liền kề cùng màu, tăng mạnh điểm đe dọa
+            if (threatCount >= 2) {
+                threatScore += 250;
+            }
+        }
+
+        return threatScore;
+    }
+
+    private int getDotCount(CellState state) {
+        switch (state) {
+            case RED_ONE:
+            case BLUE_ONE:
+                return 1;
+            case RED_TWO:
+            case BLUE_TWO:
+                return 2;
+            case RED_THREE:
+            case BLUE_THREE:
+                return 3;
+            case RED_FOUR:
+            case BLUE_FOUR:
+                return 4;
+            default:
+                return 0;
+        }
+    }
+
+    private boolean isValidPosition(int row, int col) {
+        return row >= 0 && row < GRID_SIZE && col >= 0 && col < GRID_SIZE;
+    }
+}
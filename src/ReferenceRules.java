@@ -0,0 +1,225 @@
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+
+// Luật chơi gốc của GameLogic (handleCellClick, explodeCell, isGameOver) giữ nguyên từng bước, chỉ bỏ phần giao diện:
+// không luồng, không sleep, không âm thanh, lưới là CellState thay cho Cell.
+// Chỉ dùng làm chuẩn so sánh cho BitBoard trong EngineBenchmark (chế độ reference), không dùng khi chơi.
+class ReferenceRules {
+    static final int GRID_SIZE = 5;
+
+    private boolean isRedTurn = true;
+    private boolean redHasMoved = false;
+    private boolean blueHasMoved = false;
+    private final CellState[][] grid = new CellState[GRID_SIZE][GRID_SIZE];
+
+    // Luật gốc không giới hạn chuỗi nổ (và có chuỗi không bao giờ dừng): dừng sau chừng này ô nổ,
+    // giống giới hạn của BitBoard, để bài kiểm tra không bị treo
+    int explosionLimit = Integer.MAX_VALUE;
+
+    // Thống kê của nước gần nhất: số ô nổ, số lần ô 4 điểm bị trúng lại và được đưa vào lớp sau lần nữa
+    int explosions;
+    int doubleEnqueues;
+    boolean limitHit;
+
+    ReferenceRules() {
+        reset();
+    }
+
+    ReferenceRules(ReferenceRules other) {
+        copyFrom(other);
+    }
+
+    void copyFrom(ReferenceRules other) {
+        isRedTurn = other.isRedTurn;
+        redHasMoved = other.redHasMoved;
+        blueHasMoved = other.blueHasMoved;
+        for (int row = 0; row < GRID_SIZE; row++) {
+            grid[row] = other.grid[row].clone();
+        }
+        explosionLimit = other.explosionLimit;
+    }
+
+    void reset() {
+        redHasMoved = false;
+        blueHasMoved = false;
+        isRedTurn = true;
+        for (int row = 0; row < GRID_SIZE; row++) {
+            for (int col = 0; col < GRID_SIZE; col++) {
+                grid[row][col] = CellState.EMPTY;
+            }
+        }
+    }
+
+    CellState getState(int row, int col) {
+        return grid[row][col];
+    }
+
+    boolean isRedTurn() {
+        return isRedTurn;
+    }
+
+    boolean isRedHasMoved() {
+        return redHasMoved;
+    }
+
+    boolean isBlueHasMoved() {
+        return blueHasMoved;
+    }
+
+    // handleCellClick gốc; trả về false nếu nước đi không hợp lệ (giao diện gốc bỏ qua cú nhấp đó)
+    boolean handleCellClick(int row, int col) {
+        explosions = 0;
+        doubleEnqueues = 0;
+        limitHit = false;
+        CellState state = grid[row][col];
+        if (state == CellState.EMPTY) {
+            if ((isRedTurn && !redHasMoved) || (!isRedTurn && !blueHasMoved)) {
+                grid[row][col] = isRedTurn ? CellState.RED_THREE : CellState.BLUE_THREE;
+                if (isRedTurn) {
+                    redHasMoved = true;
+                } else {
+                    blueHasMoved = true;
+                }
+                isRedTurn = !isRedTurn;
+                return true;
+            }
+            return false;
+        } else if ((isRedTurn && state.isRed()) || (!isRedTurn && state.isBlue())) {
+            CellState nextState = state.getNextState();
+            grid[row][col] = nextState;
+
+            if (nextState == CellState.RED_FOUR || nextState == CellState.BLUE_FOUR) {
+                explodeCell(row, col, nextState);
+            }
+            // Chỉ chuyển lượt sau khi nổ hoàn thành
+            isRedTurn = !isRedTurn;
+            return true;
+        }
+        return false;
+    }
+
+    private void explodeCell(int row, int col, CellState explodingState) {
+        Queue<int[]> queue = new LinkedList<>();
+        queue.add(new int[]{row, col});
+
+        while (!queue.isEmpty()) {
+            List<int[]> nextExplosions = new ArrayList<>();
+
+            int size = queue.size(); // xử lý theo "từng lớp" của nổ
+            for (int i = 0; i < size; i++) {
+                int[] cellPos = queue.poll();
+                int r = cellPos[0], c = cellPos[1];
+                if (explosions == explosionLimit) {
+                    limitHit = true;
+                    return;
+                }
+                explosions++;
+
+                grid[r][c] = CellState.EMPTY;
+
+                boolean isRed = explodingState.isRed();
+                int[][] directions = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}};
+
+                List<int[]> toBeUpdated = new ArrayList<>();
+
+                for (int[] dir : directions) {
+                    int newRow = r + dir[0], newCol = c + dir[1];
+
+                    if (isValidPosition(newRow, newCol)) {
+                        toBeUpdated.add(new int[]{newRow, newCol});
+                    }
+                }
+
+                for (int[] pos : toBeUpdated) {
+                    int newRow = pos[0], newCol = pos[1];
+                    CellState neighborState = grid[newRow][newCol];
+                    int neighborDots = getDotCount(neighborState);
+
+                    if (isOppositeColor(explodingState, neighborState)) {
+                        neighborDots += 1;
+                        grid[newRow][newCol] = isRed ? getStateByDotCount(neighborDots, true) : getStateByDotCount(neighborDots, false);
+                    } else if ((isRed && neighborState.isRed()) || (!isRed && neighborState.isBlue())) {
+                        grid[newRow][newCol] = neighborState.getNextState();
+                    } else if (neighborState == CellState.EMPTY) {
+                        grid[newRow][newCol] = isRed ? CellState.RED_ONE : CellState.BLUE_ONE;
+                    }
+
+                    if (grid[newRow][newCol] == CellState.RED_FOUR || grid[newRow][newCol] == CellState.BLUE_FOUR) {
+                        if (neighborState == grid[newRow][newCol]) {
+                            doubleEnqueues++;
+                        }
+                        nextExplosions.add(new int[]{newRow, newCol});
+                    }
+                }
+            }
+
+            queue.addAll(nextExplosions);
+        }
+    }
+
+    private boolean isValidPosition(int row, int col) {
+        return row >= 0 && row < grid.length && col >= 0 && col < grid[0].length;
+    }
+
+    private int getDotCount(CellState state) {
+        switch (state) {
+            case RED_ONE:
+            case BLUE_ONE:
+                return 1;
+            case RED_TWO:
+            case BLUE_TWO:
+                return 2;
+            case RED_THREE:
+            case BLUE_THREE:
+                return 3;
+            case RED_FOUR:
+            case BLUE_FOUR:
+                return 4;
+            default:
+                return 0;
+        }
+    }
+
+    private CellState getStateByDotCount(int dotCount, boolean isRed) {
+        switch (dotCount) {
+            case 1:
+                return isRed ? CellState.RED_ONE : CellState.BLUE_ONE;
+            case 2:
+                return isRed ? CellState.RED_TWO : CellState.BLUE_TWO;
+            case 3:
+                return isRed ? CellState.RED_THREE : CellState.BLUE_THREE;
+            case 4:
+                return isRed ? CellState.RED_FOUR : CellState.BLUE_FOUR;
+            default:
+                return CellState.EMPTY;
+        }
+    }
+
+    private boolean isOppositeColor(CellState s1, CellState s2) {
+        return (s1.isRed() && s2.isBlue()) || (s1.isBlue() && s2.isRed());
+    }
+
+    int count(boolean red) {
+        int count = 0;
+        for (int row = 0; row < GRID_SIZE; row++) {
+            for (int col = 0; col < GRID_SIZE; col++) {
+                CellState state = grid[row][col];
+                if (red ? state.isRed() : state.isBlue()) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    boolean isGameOver() {
+        if (!redHasMoved || !blueHasMoved) {
+            return false;
+        }
+        int redCount = count(true);
+        int blueCount = count(false);
+        return (redCount == 0 || blueCount == 0) && (redCount + blueCount > 1);
+    }
+}
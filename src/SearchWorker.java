@@ -0,0 +1,752 @@
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Một luồng tìm kiếm minimax alpha-beta sâu dần.
+// Mỗi worker có bàn cờ, bộ đếm nút và trạng thái riêng, chỉ dùng chung bảng chuyển vị,
+// nên nhiều worker có thể tìm song song trên cùng một thế cờ (Lazy SMP).
+class SearchWorker {
+    private static final int GRID_SIZE = BitBoard.SIZE;
+    // Điểm của ván thắng chắc chắn (ván đã kết thúc hoặc thắng theo bảng tàn cuộc),
+    // lớn hơn mọi điểm đánh giá; trừ đi số nước để ưu tiên thắng nhanh
+    static final int WIN_SCORE = 10_000_000;
+    // Ngưỡng của điểm thắng/thua chắc: WIN_SCORE trừ tối đa số nước của một lần tìm (ply + số nước trong bảng tàn cuộc)
+    static final int DECISIVE_SCORE = WIN_SCORE - 2 * BitBoard.MAX_PLY;
+
+    private final int id;
+    private final boolean isRed;
+    private final TranspositionTable transpositionTable;
+    private final BitBoard board = new BitBoard();
+    private Evaluator evaluator;
+    // Mạng đánh giá (NNUE) thay cho hàm đánh giá cổ điển nếu có, null thì dùng evaluator
+    private NeuralEvaluator neuralEvaluator;
+    private final MoveOrdering moveOrdering = new MoveOrdering();
+    // Nước đi (chỉ số ô) sinh ra cho từng ply, mỗi ply một đoạn CELLS phần tử, cấp phát một lần
+    private final int[] moveBuffer = new int[(BitBoard.MAX_PLY + 1) * BitBoard.CELLS];
+    private final int[] rootMoves = new int[BitBoard.CELLS];
+    private EndgameTablebase tablebase;
+    // Tìm kiếm biến chính (PVS) với cửa sổ rỗng và cửa sổ mong đợi ở gốc; tắt thì là alpha-beta cửa sổ đầy đủ
+    private boolean pvsEnabled = true;
+    // Nửa độ rộng ban đầu của cửa sổ mong đợi quanh điểm của vòng depth-2 (cùng tính chẵn lẻ độ sâu),
+    // nới gấp đôi mỗi lần điểm rơi ra ngoài. Chọn theo số nút của EngineBenchmark pvs với hàm đánh giá nhẹ
+    // và tìm tĩnh: 10k ít nút hơn 3k, 30k, 100k
+    static final int ASPIRATION_WINDOW = 10_000;
+    // Tìm tĩnh qua các nước nổ quân 3 điểm ở nút lá, tối đa QUIESCENCE_MAX_DEPTH nước
+    private boolean quiescenceEnabled = true;
+    static final int QUIESCENCE_MAX_DEPTH = 8;
+    private long quiescenceNodes;
+    private final int[] principalVariation = new int[BitBoard.MAX_PLY];
+    private int pvLength;
+    // Điểm tốt nhất của từng độ sâu đã tìm xong trong lần tìm hiện tại
+    private final int[] depthScores = new int[BitBoard.MAX_PLY + 1];
+    private long aspirationResearches;
+    // Giảm độ sâu cho nước xếp muộn (LMR), chỉ ở nút cửa sổ rỗng: nước thứ LMR_FULL_MOVES trở đi
+    // ở độ sâu >= LMR_MIN_DEPTH được tìm nông hơn với cửa sổ rỗng; vượt alpha (nút max) / dưới beta (nút min)
+    // thì tìm lại đủ sâu để xác nhận
+    private boolean lmrEnabled = false;
+    static final int LMR_MIN_DEPTH = 3;
+    static final int LMR_FULL_MOVES = 3;
+    private long lmrReductions;
+    private long lmrResearches;
+    // Cắt tỉa vô vọng (futility) và razoring gần lá: so điểm đánh giá tĩnh cộng biên với alpha/beta.
+    // Biên theo độ sâu còn lại, lấy quanh phân vị 95-99% độ dao động điểm sau một / hai nước yên tĩnh
+    private boolean futilityEnabled = false;
+    private boolean razoringEnabled = false;
+    private static final int[] FUTILITY_MARGIN = {0, 25_000, 50_000};
+    private static final int[] RAZOR_MARGIN = {0, 35_000, 70_000};
+    private long futilityPrunes;
+    private long razorCutoffs;
+
+    private AtomicBoolean stopFlag;
+    private long deadline;
+    private boolean searchAborted;
+    private int completedDepth;
+    private int bestScore;
+    private long nodesExplored;
+    private long tablebaseHits;
+
+    SearchWorker(int id, boolean isRed, TranspositionTable transpositionTable) {
+        this.id = id;
+        this.isRed = isRed;
+        this.transpositionTable = transpositionTable;
+        this.evaluator = new Evaluator(board, isRed, !quiescenceEnabled);
+    }
+
+    // Tìm sâu dần 1, 2, 3... tới maxDepth hoặc tới hạn thời gian / cờ dừng chung.
+    // Worker phụ (id > 0) bắt đầu lệch độ sâu và xoay thứ tự nước đi gốc để tìm các nhánh khác nhau.
+    Move search(BitBoard root, int maxDepth, long deadline, AtomicBoolean stopFlag) {
+        this.deadline = deadline;
+        this.stopFlag = stopFlag;
+        nodesExplored = 0;
+        tablebaseHits = 0;
+        aspirationResearches = 0;
+        quiescenceNodes = 0;
+        lmrReductions = 0;
+        lmrResearches = 0;
+        futilityPrunes = 0;
+        razorCutoffs = 0;
+        pvLength = 0;
+        completedDepth = 0;
+        bestScore = 0;
+        searchAborted = false;
+        board.copyFrom(root);
+        moveOrdering.newSearch();
+
+        int count = removeSymmetricMoves(rootMoves, generateMoves(false, rootMoves, 0));
+        if (count == 0) {
+            return null;
+        }
+        if (count == 1) {
+            principalVariation[pvLength++] = rootMoves[0];
+            return toMove(rootMoves[0]);
+        }
+        if (id > 0) {
+            rotate(rootMoves, count, id % count);
+        }
+
+        int bestMove = rootMoves[0];
+
+        int firstDepth = 1 + (id & 1);
+        for (int depth = firstDepth; depth <= maxDepth; depth++) {
+            // Cửa sổ mong đợi (aspiration) quanh điểm của vòng trước cùng tính chẵn lẻ độ sâu (depth-2).
+            // Từ khi có tìm tĩnh, vòng depth-1 đoán sát hơn (sai lệch trung vị 4k so với 12k) nhưng
+            // tâm depth-2 vẫn tìm ít nút hơn (độ sâu 12: tiết kiệm 9,6% so với 7,8%).
+            // Điểm thắng/thua chắc thì tìm đầy đủ.
+            int delta = ASPIRATION_WINDOW;
+            int windowAlpha = Integer.MIN_VALUE;
+            int windowBeta = Integer.MAX_VALUE;
+            int center = depth - 2 >= firstDepth ? depthScores[depth - 2] : bestScore;
+            if (pvsEnabled && completedDepth > 0 && Math.abs(center) < DECISIVE_SCORE) {
+                windowAlpha = center - delta;
+                windowBeta = center + delta;
+            }
+
+            int iterationBest;
+            int iterationScore;
+            while (true) {
+                iterationBest = TranspositionTable.NO_MOVE;
+                iterationScore = Integer.MIN_VALUE;
+                int alpha = windowAlpha;
+
+                // Áp dụng minimax với alpha-beta cho tất cả nước đi
+                for (int i = 0; i < count; i++) {
+                    int move = rootMoves[i];
+                    board.makeMove(move);
+                    int score;
+                    if (i == 0 || !pvsEnabled) {
+                        score = minimax(depth - 1, alpha, windowBeta, false);
+                    } else {
+                        score = minimax(depth - 1, alpha, alpha + 1, false);
+                        if (score > alpha && score < windowBeta && !searchAborted) {
+                            score = minimax(depth - 1, alpha, windowBeta, false);
+                        }
+                    }
+                    board.unmakeMove();
+                    if (searchAborted) {
+                        break;
+                    }
+
+                    if (score > iterationScore) {
+                        iterationScore = score;
+                        iterationBest = move;
+                    }
+                    alpha = Math.max(alpha, score);
+                    if (alpha >= windowBeta) {
+                        break;
+                    }
+                }
+                if (searchAborted) {
+                    break;
+                }
+
+                // Điểm rơi ra ngoài cửa sổ: nới rộng phía bị vượt (gấp đôi mỗi lần) rồi tìm lại
+                if (iterationScore <= windowAlpha && windowAlpha != Integer.MIN_VALUE) {
+                    aspirationResearches++;
+                    delta *= 2;
+                    windowAlpha = delta >= WIN_SCORE ? Integer.MIN_VALUE : iterationScore - delta;
+                } else if (iterationScore >= windowBeta && windowBeta != Integer.MAX_VALUE) {
+                    aspirationResearches++;
+                    delta *= 2;
+                    windowBeta = delta >= WIN_SCORE ? Integer.MAX_VALUE : iterationScore + delta;
+                } else {
+                    break;
+                }
+            }
+
+            // Vòng bị dừng giữa chừng thì bỏ, dùng kết quả của vòng đã xong gần nhất
+            if (searchAborted) {
+                break;
+            }
+            bestMove = iterationBest;
+            bestScore = iterationScore;
+            completedDepth = depth;
+            depthScores[depth] = bestScore;
+            extractPrincipalVariation(bestMove, depth);
+
+            // Nước tốt nhất của vòng trước được tìm đầu tiên ở vòng sau
+            int position = 0;
+            while (rootMoves[position] != iterationBest) {
+                position++;
+            }
+            System.arraycopy(rootMoves, 0, rootMoves, 1, position);
+            rootMoves[0] = iterationBest;
+
+            if (System.nanoTime() >= deadline || stopFlag.get()) {
+                break;
+            }
+        }
+
+        return toMove(bestMove);
+    }
+
+    // Biến chính (PV): nước tốt nhất ở gốc rồi lần theo nước tốt nhất trong bảng chuyển vị,
+    // tối đa depth nước, dừng khi thiếu entry hoặc nước không hợp lệ
+    private void extractPrincipalVariation(int first, int depth) {
+        pvLength = 0;
+        principalVariation[pvLength++] = first;
+        board.makeMove(first);
+        while (pvLength < depth && !board.isGameOver()) {
+            int symmetry = board.canonicalTransform();
+            long entry = transpositionTable.probe(board.hash(symmetry));
+            int move = entry == 0 ? TranspositionTable.NO_MOVE : TranspositionTable.moveOf(entry);
+            if (move == TranspositionTable.NO_MOVE) {
+                break;
+            }
+            move = Symmetry.transformCell(move, Symmetry.inverse(symmetry));
+            if (!board.isLegal(move)) {
+                break;
+            }
+            board.makeMove(move);
+            principalVariation[pvLength++] = move;
+        }
+        for (int i = 0; i < pvLength; i++) {
+            board.unmakeMove();
+        }
+    }
+
+    // Biến chính của vòng đã xong gần nhất, dạng chỉ số ô
+    int[] getPrincipalVariation() {
+        return java.util.Arrays.copyOf(principalVariation, pvLength);
+    }
+
+    long getAspirationResearches() {
+        return aspirationResearches;
+    }
+
+    void setPvsEnabled(boolean enabled) {
+        pvsEnabled = enabled;
+    }
+
+    private static Move toMove(int index) {
+        return new Move(index / GRID_SIZE, index % GRID_SIZE);
+    }
+
+    int getCompletedDepth() {
+        return completedDepth;
+    }
+
+    int getBestScore() {
+        return bestScore;
+    }
+
+    long getNodesExplored() {
+        return nodesExplored;
+    }
+
+    MoveOrdering getMoveOrdering() {
+        return moveOrdering;
+    }
+
+    void setTablebase(EndgameTablebase tablebase) {
+        this.tablebase = tablebase;
+    }
+
+    long getTablebaseHits() {
+        return tablebaseHits;
+    }
+
+    private int minimax(int depth, int alpha, int beta, boolean isMaximizing) {
+        nodesExplored++;
+
+        // Kiểm tra hạn thời gian và cờ dừng chung ngay trong cây tìm kiếm
+        if ((nodesExplored & 1023) == 0 && (System.nanoTime() >= deadline || stopFlag.get())) {
+            searchAborted = true;
+        }
+        if (searchAborted) {
+            return 0;
+        }
+        
+        if (board.isGameOver()) {
+            boolean won = board.ownMask(isRed) != 0;
+            return won ? WIN_SCORE - board.ply() : -WIN_SCORE + board.ply();
+        }
+
+        // Thế cờ ít quân: lấy kết quả chính xác từ bảng tàn cuộc nếu có
+        if (tablebase != null) {
+            int value = tablebase.probe(board);
+            if (value != EndgameTablebase.UNKNOWN) {
+                tablebaseHits++;
+                int distance = board.ply() + Math.abs(value);
+                boolean won = (value > 0) == (board.isRedTurn() == isRed);
+                return won ? WIN_SCORE - distance : -WIN_SCORE + distance;
+            }
+        }
+
+        if (depth == 0) {
+            return quiescenceEnabled ? quiesce(alpha, beta, isMaximizing, 0) : evaluate();
+        }
+
+        // Tra bảng chuyển vị theo khóa chuẩn hóa đối xứng: các thế cờ đối xứng dùng chung một entry,
+        // nước đi lưu theo hướng chuẩn và được chuyển về hướng của board khi đọc
+        int symmetry = board.canonicalTransform();
+        long key = board.hash(symmetry);
+        long entry = transpositionTable.probe(key);
+        int ttMove = TranspositionTable.NO_MOVE;
+        if (entry != 0) {
+            ttMove = TranspositionTable.moveOf(entry);
+            if (ttMove != TranspositionTable.NO_MOVE) {
+                ttMove = Symmetry.transformCell(ttMove, Symmetry.inverse(symmetry));
+            }
+            if (TranspositionTable.depthOf(entry) >= depth) {
+                int ttScore = scoreFromTable(TranspositionTable.scoreOf(entry), board.ply());
+                int bound = TranspositionTable.boundOf(entry);
+                if (bound == TranspositionTable.EXACT
+                        || (bound == TranspositionTable.LOWER && ttScore >= beta)
+                        || (bound == TranspositionTable.UPPER && ttScore <= alpha)) {
+                    transpositionTable.countCutoff();
+                    return ttScore;
+                }
+            }
+        }
+
+        // Gần lá, thế cờ yên (bên đi không có quân 3 điểm) và chưa có điểm thắng/thua chắc:
+        // cho phép razoring và cắt tỉa vô vọng dựa trên điểm đánh giá tĩnh
+        boolean selective = depth < FUTILITY_MARGIN.length && (futilityEnabled || razoringEnabled)
+                && !isDecisive(alpha) && !isDecisive(beta)
+                && (board.ownMask(board.isRedTurn()) & board.dotMask(3)) == 0;
+        int staticEval = selective ? evaluate() : 0;
+        if (selective && razoringEnabled) {
+            // Razoring: điểm tĩnh kém xa cửa sổ thì chỉ tìm tĩnh, vẫn nằm ngoài cửa sổ thì trả về luôn
+            if (isMaximizing && staticEval + RAZOR_MARGIN[depth] <= alpha) {
+                int score = quiescenceEnabled ? quiesce(alpha, beta, true, 0) : staticEval;
+                if (score <= alpha) {
+                    razorCutoffs++;
+                    return score;
+                }
+            } else if (!isMaximizing && staticEval - RAZOR_MARGIN[depth] >= beta) {
+                int score = quiescenceEnabled ? quiesce(alpha, beta, false, 0) : staticEval;
+                if (score >= beta) {
+                    razorCutoffs++;
+                    return score;
+                }
+            }
+        }
+        boolean futile = selective && futilityEnabled
+                && (isMaximizing ? staticEval + FUTILITY_MARGIN[depth] <= alpha
+                                 : staticEval - FUTILITY_MARGIN[depth] >= beta);
+
+        int ply = board.ply();
+        int offset = ply * BitBoard.CELLS;
+        int count = generateMoves(true, moveBuffer, offset);
+        if (count == 0) {
+            return evaluate();
+        }
+        // Chỉ giảm ở nút cửa sổ rỗng: ở nút PV (cửa sổ đầy đủ) LMR làm PVS tìm lại nhiều hơn số nút tiết kiệm được
+        boolean reduce = lmrEnabled && depth >= LMR_MIN_DEPTH && (long) beta - alpha == 1
+                && !isDecisive(alpha) && !isDecisive(beta);
+        boolean redToMove = board.isRedTurn();
+        moveOrdering.order(moveBuffer, offset, count, ttMove, ply, redToMove);
+
+        int alphaOrig = alpha;
+        int betaOrig = beta;
+        int bestScore;
+        int bestMove = TranspositionTable.NO_MOVE;
+
+        if (isMaximizing) {
+            int maxEval = Integer.MIN_VALUE;
+            for (int i = 0; i < count; i++) {
+                if (futile && i > 0) {
+                    // Cắt tỉa vô vọng: điểm tĩnh cộng biên vẫn không vượt alpha, bỏ các nước còn lại
+                    futilityPrunes += count - i;
+                    maxEval = Math.max(maxEval, staticEval + FUTILITY_MARGIN[depth]);
+                    break;
+                }
+                int index = moveBuffer[offset + i];
+                board.makeMove(index);
+                int eval = 0;
+                boolean fullDepth = true;
+                if (reduce && i >= LMR_FULL_MOVES) {
+                    // LMR: nước xếp muộn tìm nông hơn với cửa sổ rỗng, vượt alpha thì tìm lại đủ sâu để xác nhận
+                    lmrReductions++;
+                    eval = minimax(depth - 1 - reduction(depth, i), alpha, alpha + 1, false);
+                    fullDepth = eval > alpha && !searchAborted;
+                    if (fullDepth) {
+                        lmrResearches++;
+                    }
+                }
+                if (fullDepth) {
+                    if (i == 0 || !pvsEnabled) {
+                        eval = minimax(depth - 1, alpha, beta, false);
+                    } else {
+                        // PVS: các nước sau nước đầu chỉ cần chứng minh không tốt hơn alpha bằng cửa sổ rỗng,
+                        // vượt alpha thì mới tìm lại với cửa sổ đầy đủ
+                        eval = minimax(depth - 1, alpha, alpha + 1, false);
+                        if (eval > alpha && eval < beta && !searchAborted) {
+                            eval = minimax(depth - 1, alpha, beta, false);
+                        }
+                    }
+                }
+                
+                // Khôi phục trạng thái
+                board.unmakeMove();
+                if (searchAborted) {
+                    return 0;
+                }
+
+                if (eval > maxEval) {
+                    maxEval = eval;
+                    bestMove = index;
+                }
+                alpha = Math.max(alpha, eval);
+                if (beta <= alpha) {
+                    moveOrdering.recordCutoff(index, i, depth, ply, redToMove);
+                    break; // Cắt tỉa beta
+                }
+            }
+            bestScore = maxEval;
+        } else {
+            int minEval = Integer.MAX_VALUE;
+            for (int i = 0; i < count; i++) {
+                if (futile && i > 0) {
+                    futilityPrunes += count - i;
+                    minEval = Math.min(minEval, staticEval - FUTILITY_MARGIN[depth]);
+                    break;
+                }
+                int index = moveBuffer[offset + i];
+                board.makeMove(index);
+                int eval = 0;
+                boolean fullDepth = true;
+                if (reduce && i >= LMR_FULL_MOVES) {
+                    lmrReductions++;
+                    eval = minimax(depth - 1 - reduction(depth, i), beta - 1, beta, true);
+                    fullDepth = eval < beta && !searchAborted;
+                    if (fullDepth) {
+                        lmrResearches++;
+                    }
+                }
+                if (fullDepth) {
+                    if (i == 0 || !pvsEnabled) {
+                        eval = minimax(depth - 1, alpha, beta, true);
+                    } else {
+                        eval = minimax(depth - 1, beta - 1, beta, true);
+                        if (eval < beta && eval > alpha && !searchAborted) {
+                            eval = minimax(depth - 1, alpha, beta, true);
+                        }
+                    }
+                }
+                
+                // Khôi phục trạng thái
+                board.unmakeMove();
+                if (searchAborted) {
+                    return 0;
+                }
+
+                if (eval < minEval) {
+                    minEval = eval;
+                    bestMove = index;
+                }
+                beta = Math.min(beta, eval);
+                if (beta <= alpha) {
+                    moveOrdering.recordCutoff(index, i, depth, ply, redToMove);
+                    break; // Cắt tỉa alpha
+                }
+            }
+            bestScore = minEval;
+        }
+
+        int bound = bestScore <= alphaOrig ? TranspositionTable.UPPER
+                : bestScore >= betaOrig ? TranspositionTable.LOWER
+                : TranspositionTable.EXACT;
+        if (bestMove != TranspositionTable.NO_MOVE) {
+            bestMove = Symmetry.transformCell(bestMove, symmetry);
+        }
+        transpositionTable.store(key, depth, scoreToTable(bestScore, board.ply()), bound, bestMove);
+        return bestScore;
+    }
+
+    // Điểm thắng/thua chắc tính theo số nước từ gốc tìm kiếm; trong bảng chuyển vị lưu theo số nước
+    // tính từ chính nút được lưu, để entry vẫn đúng khi gặp lại thế cờ ở ply khác hoặc từ gốc khác
+    private static int scoreToTable(int score, int ply) {
+        if (!isDecisive(score)) {
+            return score;
+        }
+        return score > 0 ? score + ply : score - ply;
+    }
+
+    private static int scoreFromTable(int score, int ply) {
+        if (!isDecisive(score)) {
+            return score;
+        }
+        return score > 0 ? score - ply : score + ply;
+    }
+
+    // Số ply giảm cho nước thứ i: nước càng muộn và cây càng sâu thì giảm càng nhiều
+    private static int reduction(int depth, int i) {
+        return depth >= 6 && i >= 8 ? 2 : 1;
+    }
+
+    // Điểm thắng/thua chắc (không tính cận vô hạn của cửa sổ đầy đủ)
+    private static boolean isDecisive(int score) {
+        return score != Integer.MIN_VALUE && score != Integer.MAX_VALUE
+                && Math.abs(score) >= DECISIVE_SCORE;
+    }
+
+    // Tìm tĩnh (quiescence) ở nút lá: chỉ thử các nước nổ quân 3 điểm của bên đang đi tới khi thế cờ yên,
+    // để điểm đánh giá không bị sai vì chuỗi nổ ngay sau chân trời tìm kiếm.
+    // Bên đi luôn có thể "đứng yên" (stand pat) với điểm đánh giá hiện tại; giới hạn QUIESCENCE_MAX_DEPTH nước.
+    // Không dùng bảng chuyển vị. qDepth = 0 là chính nút lá của minimax (đã được đếm).
+    private int quiesce(int alpha, int beta, boolean isMaximizing, int qDepth) {
+        if (qDepth > 0) {
+            nodesExplored++;
+            quiescenceNodes++;
+            if ((nodesExplored & 1023) == 0 && (System.nanoTime() >= deadline || stopFlag.get())) {
+                searchAborted = true;
+            }
+            if (searchAborted) {
+                return 0;
+            }
+            if (board.isGameOver()) {
+                boolean won = board.ownMask(isRed) != 0;
+                return won ? WIN_SCORE - board.ply() : -WIN_SCORE + board.ply();
+            }
+        }
+
+        int standPat = evaluate();
+        long threes = board.ownMask(board.isRedTurn()) & board.dotMask(3);
+        if (threes == 0 || qDepth >= QUIESCENCE_MAX_DEPTH) {
+            return standPat;
+        }
+
+        int best = standPat;
+        if (isMaximizing) {
+            if (standPat >= beta) {
+                return standPat;
+            }
+            alpha = Math.max(alpha, standPat);
+            for (long m = threes; m != 0; m &= m - 1) {
+                board.makeMove(Long.numberOfTrailingZeros(m));
+                int eval = quiesce(alpha, beta, false, qDepth + 1);
+                board.unmakeMove();
+                if (searchAborted) {
+                    return 0;
+                }
+                best = Math.max(best, eval);
+                alpha = Math.max(alpha, eval);
+                if (alpha >= beta) {
+                    break;
+                }
+            }
+        } else {
+            if (standPat <= alpha) {
+                return standPat;
+            }
+            beta = Math.min(beta, standPat);
+            for (long m = threes; m != 0; m &= m - 1) {
+                board.makeMove(Long.numberOfTrailingZeros(m));
+                int eval = quiesce(alpha, beta, true, qDepth + 1);
+                board.unmakeMove();
+                if (searchAborted) {
+                    return 0;
+                }
+                best = Math.min(best, eval);
+                beta = Math.min(beta, eval);
+                if (alpha >= beta) {
+                    break;
+                }
+            }
+        }
+        return best;
+    }
+
+    long getQuiescenceNodes() {
+        return quiescenceNodes;
+    }
+
+    // Có tìm tĩnh thì dùng hàm đánh giá không đoán chuỗi nổ
+    void setQuiescenceEnabled(boolean enabled) {
+        if (enabled != quiescenceEnabled) {
+            quiescenceEnabled = enabled;
+            evaluator = new Evaluator(board, isRed, !enabled);
+        }
+    }
+
+    void setLateMoveReductions(boolean enabled) {
+        lmrEnabled = enabled;
+    }
+
+    void setFutilityPruning(boolean enabled) {
+        futilityEnabled = enabled;
+    }
+
+    void setRazoring(boolean enabled) {
+        razoringEnabled = enabled;
+    }
+
+    long getLmrReductions() {
+        return lmrReductions;
+    }
+
+    long getLmrResearches() {
+        return lmrResearches;
+    }
+
+    long getFutilityPrunes() {
+        return futilityPrunes;
+    }
+
+    long getRazorCutoffs() {
+        return razorCutoffs;
+    }
+
+    void setNeuralNetwork(NeuralNetwork network) {
+        neuralEvaluator = network == null ? null : new NeuralEvaluator(network, board, isRed);
+    }
+
+    private int evaluate() {
+        return neuralEvaluator != null ? neuralEvaluator.evaluate() : evaluator.evaluate();
+    }
+
+    private boolean isEmptyAt(int index) {
+        return (board.occupied() & (1L << index)) == 0;
+    }
+
+    // Các góc theo thứ tự trên-trái, trên-phải, dưới-trái, dưới-phải
+    private static final int[] CORNERS = {0, GRID_SIZE - 1, (GRID_SIZE - 1) * GRID_SIZE, GRID_SIZE * GRID_SIZE - 1};
+
+     //Tìm tất cả các nước đi có thể cho AI trong bất kỳ trạng thái nào, ghi chỉ số ô vào moves từ vị trí offset.
+     // Trả về số nước; không cấp phát bộ nhớ.
+     // isSimulation true nếu đang trong mô phỏng, false nếu đang tìm nước đi thực tế (board vừa nạp từ giao diện)
+
+    private int generateMoves(boolean isSimulation, int[] moves, int offset) {
+        int count = offset;
+
+        // Xác định trạng thái và dữ liệu hiện tại
+        boolean isCurrentRedTurn = board.isRedTurn();
+        boolean isRedHasMoved = board.isRedMoved();
+        boolean isBlueHasMoved = board.isBlueMoved();
+
+        // 1. Ưu tiên nước đi nổ từ quân 3 điểm (quân có 3 điểm)
+        long ownThrees = board.ownMask(isCurrentRedTurn) & board.dotMask(3);
+        if (ownThrees != 0) {
+            moves[offset] = Long.numberOfTrailingZeros(ownThrees);
+            return 1; // Ưu tiên cao nhất, trả về ngay
+        }
+
+        // 2. Xử lý nước đi đầu tiên của mỗi màu
+        if ((isCurrentRedTurn && !isRedHasMoved) || (!isCurrentRedTurn && !isBlueHasMoved)) {
+            int center = GRID_SIZE / 2 * GRID_SIZE + GRID_SIZE / 2;
+
+            // Nếu trong mô phỏng và đối thủ đã di chuyển, ưu tiên các vị trí xa đối thủ
+            if (isSimulation && ((!isCurrentRedTurn && isRedHasMoved) || (isCurrentRedTurn && isBlueHasMoved))) {
+                // Tìm vị trí quân của đối thủ
+                long opponent = board.ownMask(!isCurrentRedTurn);
+                if (opponent != 0) {
+                    int opponentIndex = Long.numberOfTrailingZeros(opponent);
+                    int opponentRow = opponentIndex / GRID_SIZE;
+                    int opponentCol = opponentIndex % GRID_SIZE;
+
+                    // Ưu tiên các góc xa quân đối thủ
+                    for (int corner : CORNERS) {
+                        if (isEmptyAt(corner) && distance(corner, opponentRow, opponentCol) >= 3) {
+                            moves[count++] = corner;
+                        }
+                    }
+
+                    // Nếu không có góc phù hợp, tìm các vị trí cách xa đối thủ
+                    if (count == offset) {
+                        for (long m = ~board.occupied() & BitBoard.FULL; m != 0; m &= m - 1) {
+                            int index = Long.numberOfTrailingZeros(m);
+                            if (distance(index, opponentRow, opponentCol) >= 3) { // Vị trí cách xa đối thủ
+                                moves[count++] = index;
+                            }
+                        }
+                    }
+
+                    if (count > offset) {
+                        return count - offset;
+                    }
+                }
+            }
+
+            // Nếu không có thông tin về đối thủ hoặc vẫn chưa tìm được vị trí chiến lược
+            // Ưu tiên vị trí trung tâm và các góc
+            if (isEmptyAt(center)) {
+                moves[count++] = center;
+            }
+            for (int corner : CORNERS) {
+                if (isEmptyAt(corner)) {
+                    moves[count++] = corner;
+                }
+            }
+            if (count > offset) {
+                return count - offset;
+            }
+
+            // Nếu không có vị trí chiến lược, thêm tất cả các ô trống
+            for (long m = ~board.occupied() & BitBoard.FULL; m != 0; m &= m - 1) {
+                moves[count++] = Long.numberOfTrailingZeros(m);
+            }
+            return count - offset;
+        }
+
+        // 3. Xử lý các nước đi tiếp theo - cho cả quân 1 điểm và 2 điểm
+        // Ưu tiên quân 2 điểm, sau đó đến quân 1 điểm
+        long own = board.ownMask(isCurrentRedTurn);
+        for (long m = own & board.dotMask(2); m != 0; m &= m - 1) {
+            moves[count++] = Long.numberOfTrailingZeros(m);
+        }
+        for (long m = own & board.dotMask(1); m != 0; m &= m - 1) {
+            moves[count++] = Long.numberOfTrailingZeros(m);
+        }
+        return count - offset;
+    }
+
+    // Thế cờ gốc có đối xứng (vd. bàn trống): giữ một nước cho mỗi nhóm nước cho thế cờ đối xứng nhau,
+    // là nước có chỉ số ô nhỏ nhất. Danh sách nước đi luôn kín dưới các phép giữ nguyên thế cờ.
+    private int removeSymmetricMoves(int[] moves, int count) {
+        int stabilizer = Symmetry.stabilizer(board);
+        if (stabilizer == 0) {
+            return count;
+        }
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+            boolean smallest = true;
+            for (int t = 1; t < Symmetry.COUNT && smallest; t++) {
+                smallest = (stabilizer & (1 << t)) == 0 || Symmetry.transformCell(move, t) >= move;
+            }
+            if (smallest) {
+                moves[kept++] = move;
+            }
+        }
+        return kept;
+    }
+
+    // Khoảng cách Manhattan từ ô index tới (row, col)
+    private static int distance(int index, int row, int col) {
+        return Math.abs(index / GRID_SIZE - row) + Math.abs(index % GRID_SIZE - col);
+    }
+
+    // Xoay count phần tử đầu của moves sang phải distance vị trí (như Collections.rotate)
+    private static void rotate(int[] moves, int count, int distance) {
+        reverse(moves, 0, count - 1);
+        reverse(moves, 0, distance - 1);
+        reverse(moves, distance, count - 1);
+    }
+
+    private static void reverse(int[] moves, int from, int to) {
+        for (; from < to; from++, to--) {
+            int move = moves[from];
+            moves[from] = moves[to];
+            moves[to] = move;
+        }
+    }
+}
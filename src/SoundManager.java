@@ -1,14 +1,18 @@
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.util.HashMap;
 import java.util.Map;
 import javax.sound.sampled.*;
 
+// Âm thanh của ván cờ, gọi trực tiếp trên luồng giao diện: nội dung file được đọc sẵn vào bộ nhớ
+// và Clip.start() phát không chặn, nên không cần luồng riêng cho mỗi lần phát
 public class SoundManager {
     private static final String SCORE_SOUND = "sounds/purchase.wav";
     private static final String EXPLOSION_SOUND = "sounds/purchase.wav";
     
-    private static Map<String, AudioInputStream> soundStreams = new HashMap<>();
+    private static Map<String, byte[]> soundData = new HashMap<>();
     
     static {
         try {
@@ -16,20 +20,18 @@ public class SoundManager {
             File explosionFile = new File(EXPLOSION_SOUND);
             
             if (scoreFile.exists()) {
-                AudioInputStream scoreStream = AudioSystem.getAudioInputStream(scoreFile);
-                soundStreams.put("score", scoreStream);
+                soundData.put("score", Files.readAllBytes(scoreFile.toPath()));
             } else {
                 System.err.println("Sound file not found: " + SCORE_SOUND);
             }
             
             if (explosionFile.exists()) {
-                AudioInputStream explosionStream = AudioSystem.getAudioInputStream(explosionFile);
-                soundStreams.put("explosion", explosionStream);
+                soundData.put("explosion", Files.readAllBytes(explosionFile.toPath()));
             } else {
                 System.err.println("Sound file not found: " + EXPLOSION_SOUND);
             }
             
-        } catch (UnsupportedAudioFileException | IOException e) {
+        } catch (IOException e) {
             System.err.println("Error loading sound files: " + e.getMessage());
         }
     }
@@ -44,11 +46,11 @@ public class SoundManager {
     
     private static void playSound(String soundName) {
         try {
-            if (soundStreams.containsKey(soundName)) {
+            byte[] data = soundData.get(soundName);
+            if (data != null) {
                 Clip clip = AudioSystem.getClip();
 
-                File soundFile = new File(soundName.equals("score") ? SCORE_SOUND : EXPLOSION_SOUND);
-                AudioInputStream inputStream = AudioSystem.getAudioInputStream(soundFile);
+                AudioInputStream inputStream = AudioSystem.getAudioInputStream(new ByteArrayInputStream(data));
                 
                 clip.open(inputStream);
                 clip.start();
@@ -59,7 +61,9 @@ public class SoundManager {
                     }
                 });
             }
-        } catch (LineUnavailableException | IOException | UnsupportedAudioFileException e) {
+        } catch (LineUnavailableException | IOException | UnsupportedAudioFileException
+                | IllegalArgumentException e) {
+            // IllegalArgumentException: máy không có thiết bị âm thanh phù hợp
             System.err.println("Error playing sound: " + e.getMessage());
         }
     }
@@ -0,0 +1,112 @@
+// 8 phép đối xứng của bàn cờ vuông (4 phép quay, có hoặc không lật), lưu dạng bảng hoán vị ô.
+// Thế cờ chuẩn (canonical) là hướng cho khóa Zobrist nhỏ nhất trong 8 hướng.
+public final class Symmetry {
+    public static final int COUNT = 8;
+    public static final int IDENTITY = 0;
+
+    private static final int SIZE = BitBoard.SIZE;
+    // PERMUTATIONS[t][i]: ô i chuyển tới ô nào dưới phép t
+    private static final int[][] PERMUTATIONS = new int[COUNT][BitBoard.CELLS];
+    private static final int[] INVERSE = new int[COUNT];
+    // Biến đổi mask theo từng byte: MASK_TABLES[t][k][b] là ảnh của byte b ở vị trí byte k
+    private static final int MASK_BYTES = (BitBoard.CELLS + 7) / 8;
+    private static final long[][][] MASK_TABLES = new long[COUNT][MASK_BYTES][256];
+
+    static {
+        for (int t = 0; t < COUNT; t++) {
+            for (int row = 0; row < SIZE; row++) {
+                for (int col = 0; col < SIZE; col++) {
+                    int r = row, c = t >= 4 ? SIZE - 1 - col : col;   // Lật ngang
+                    for (int k = 0; k < (t & 3); k++) {              // Quay 90 độ
+                        int rotated = c;
+                        c = SIZE - 1 - r;
+                        r = rotated;
+                    }
+                    PERMUTATIONS[t][row * SIZE + col] = r * SIZE + c;
+                }
+            }
+        }
+        for (int t = 0; t < COUNT; t++) {
+            for (int u = 0; u < COUNT; u++) {
+                boolean inverse = true;
+                for (int i = 0; i < BitBoard.CELLS && inverse; i++) {
+                    inverse = PERMUTATIONS[u][PERMUTATIONS[t][i]] == i;
+                }
+                if (inverse) {
+                    INVERSE[t] = u;
+                    break;
+                }
+            }
+        }
+        for (int t = 0; t < COUNT; t++) {
+            for (int k = 0; k < MASK_BYTES; k++) {
+                for (int b = 0; b < 256; b++) {
+                    long image = 0;
+                    for (int bit = 0; bit < 8 && k * 8 + bit < BitBoard.CELLS; bit++) {
+                        if ((b & (1 << bit)) != 0) {
+                            image |= 1L << PERMUTATIONS[t][k * 8 + bit];
+                        }
+                    }
+                    MASK_TABLES[t][k][b] = image;
+                }
+            }
+        }
+    }
+
+    private Symmetry() {
+    }
+
+    // Bảng hoán vị của phép t (chỉ đọc)
+    public static int[] permutation(int t) {
+        return PERMUTATIONS[t];
+    }
+
+    public static int transformCell(int index, int t) {
+        return PERMUTATIONS[t][index];
+    }
+
+    public static int inverse(int t) {
+        return INVERSE[t];
+    }
+
+    // Ảnh của tập ô mask dưới phép t, tra bảng theo từng byte
+    public static long transform(long mask, int t) {
+        long[][] tables = MASK_TABLES[t];
+        long image = 0;
+        for (int k = 0; k < MASK_BYTES; k++) {
+            image |= tables[k][(int) (mask >>> (8 * k)) & 0xFF];
+        }
+        return image;
+    }
+
+    // Thế cờ có giữ nguyên dưới phép t không (so sánh chính xác các mặt phẳng bit)
+    public static boolean isInvariant(BitBoard board, int t) {
+        return transform(board.red, t) == board.red
+                && transform(board.blue, t) == board.blue
+                && transform(board.ones, t) == board.ones
+                && transform(board.twos, t) == board.twos
+                && transform(board.threes, t) == board.threes
+                && transform(board.fours, t) == board.fours;
+    }
+
+    // Các phép t != IDENTITY giữ nguyên thế cờ, dạng mặt nạ bit (bit t); 0 nếu thế cờ không đối xứng
+    public static int stabilizer(BitBoard board) {
+        int mask = 0;
+        for (int t = 1; t < COUNT; t++) {
+            if (isInvariant(board, t)) {
+                mask |= 1 << t;
+            }
+        }
+        return mask;
+    }
+
+    // Phép đưa thế cờ về hướng chuẩn
+    public static int canonicalTransform(BitBoard board) {
+        return board.canonicalTransform();
+    }
+
+    // Khóa Zobrist của thế cờ ở hướng chuẩn: giống nhau cho mọi thế cờ đối xứng với nhau
+    public static long canonicalKey(BitBoard board) {
+        return board.hash(board.canonicalTransform());
+    }
+}
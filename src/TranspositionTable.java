@@ -0,0 +1,162 @@
+import java.util.concurrent.atomic.LongAdder;
+
+// Bảng chuyển vị kích thước cố định cho tìm kiếm của AIPlayer.
+// Mỗi bucket có 2 ô: ô đầu ưu tiên độ sâu, ô sau luôn bị ghi đè.
+// Mỗi entry gói trong một long: điểm (32 bit), độ sâu, loại cận, nước đi tốt nhất và tuổi.
+// Bảng dùng chung giữa các luồng tìm kiếm không cần khóa: ô khóa lưu (key ^ data),
+// nên một entry bị ghi dở bởi luồng khác sẽ không khớp khóa và được coi như không có.
+public class TranspositionTable {
+    public static final int EXACT = 0;
+    public static final int LOWER = 1;   // Điểm thật >= điểm lưu (cắt beta)
+    public static final int UPPER = 2;   // Điểm thật <= điểm lưu (không vượt alpha)
+    public static final int NO_MOVE = -1;
+
+    private static final long VALID = 1L << 58;
+
+    private final long[] keys;
+    private final long[] data;
+    private final int bucketMask;
+    private int age;
+
+    // Thống kê để chọn kích thước bảng
+    private final LongAdder probes = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder cutoffs = new LongAdder();
+    private final LongAdder stores = new LongAdder();
+    private final LongAdder overwrites = new LongAdder();
+
+    public TranspositionTable(int sizeBits) {
+        int entries = 1 << sizeBits;
+        keys = new long[entries];
+        data = new long[entries];
+        bucketMask = (entries >>> 1) - 1;
+    }
+
+    // Gọi mỗi lần bắt đầu tìm nước đi mới; entry của lượt cũ được ưu tiên thay thế
+    public void newSearch() {
+        age = (age + 1) & 0xFF;
+    }
+
+    public void clear() {
+        java.util.Arrays.fill(keys, 0);
+        java.util.Arrays.fill(data, 0);
+        age = 0;
+        resetStats();
+    }
+
+    // Trả về entry đã gói, hoặc 0 nếu không có
+    public long probe(long key) {
+        probes.increment();
+        int slot = ((int) key & bucketMask) << 1;
+        for (int i = slot; i < slot + 2; i++) {
+            long entry = data[i];
+            if (entry != 0 && (keys[i] ^ entry) == key) {
+                hits.increment();
+                return entry;
+            }
+        }
+        return 0;
+    }
+
+    public void store(long key, int depth, int score, int bound, int move) {
+        stores.increment();
+        int slot = ((int) key & bucketMask) << 1;
+        long entry = pack(depth, score, bound, move);
+        long old = data[slot];
+        boolean sameKey = (keys[slot] ^ old) == key;
+        if (old == 0 || sameKey || depth >= depthOf(old) || ageOf(old) != age) {
+            if (old != 0 && !sameKey) {
+                overwrites.increment();
+            }
+        } else {
+            slot++;
+            old = data[slot];
+            if (old != 0 && (keys[slot] ^ old) != key) {
+                overwrites.increment();
+            }
+        }
+        keys[slot] = key ^ entry;
+        data[slot] = entry;
+    }
+
+    public void countCutoff() {
+        cutoffs.increment();
+    }
+
+    private long pack(int depth, int score, int bound, int move) {
+        return VALID
+                | ((long) age << 50)
+                | ((long) (move + 1) << 42)
+                | ((long) bound << 40)
+                | ((long) depth << 32)
+                | (score & 0xFFFFFFFFL);
+    }
+
+    public static int scoreOf(long entry) {
+        return (int) entry;
+    }
+
+    public static int depthOf(long entry) {
+        return (int) (entry >>> 32) & 0xFF;
+    }
+
+    public static int boundOf(long entry) {
+        return (int) (entry >>> 40) & 0x3;
+    }
+
+    public static int moveOf(long entry) {
+        return ((int) (entry >>> 42) & 0xFF) - 1;
+    }
+
+    private static int ageOf(long entry) {
+        return (int) (entry >>> 50) & 0xFF;
+    }
+
+    public int size() {
+        return keys.length;
+    }
+
+    public void resetStats() {
+        probes.reset();
+        hits.reset();
+        cutoffs.reset();
+        stores.reset();
+        overwrites.reset();
+    }
+
+    public long getProbes() {
+        return probes.sum();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getCutoffs() {
+        return cutoffs.sum();
+    }
+
+    public long getStores() {
+        return stores.sum();
+    }
+
+    public long getOverwrites() {
+        return overwrites.sum();
+    }
+
+    public double getHitRate() {
+        long total = getProbes();
+        return total == 0 ? 0 : (double) getHits() / total;
+    }
+
+    public double getCutoffRate() {
+        long total = getProbes();
+        return total == 0 ? 0 : (double) getCutoffs() / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("TT[%d entries] probes=%d hit=%.1f%% cutoff=%.1f%% stores=%d overwrites=%d",
+                keys.length, getProbes(), getHitRate() * 100, getCutoffRate() * 100, getStores(), getOverwrites());
+    }
+}
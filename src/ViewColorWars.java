@@ -9,9 +9,9 @@ import javax.swing.*;
 
 
 public class ViewColorWars extends JPanel {
-    private static final int GRID_SIZE = 5;
-    private static final int CELL_SIZE = 80;
     private static final int PADDING = 20;
+    // Cạnh của panel bàn cờ theo kích thước bàn (colorwars.size)
+    private static final int BOARD_PANEL_SIZE = GameLogic.panelSize(GameLogic.configuredSize());
     private JLabel turnLabel;
     private JPanel scorePanel;
     private JLabel scoreRed;
@@ -22,7 +22,7 @@ public class ViewColorWars extends JPanel {
     private final Color blueTeamColor = new Color(0, 188, 212);
     private final Color redTeamColor = new Color(255, 82, 82);
     private GameLogic gameLogic;
-    private AIPlayer aiPlayer;
+    private ComputerPlayer aiPlayer;
     private Timer activationTimer;
     private Timer watchdogTimer;
     private ExecutorService aiExecutor;
@@ -66,7 +66,7 @@ public class ViewColorWars extends JPanel {
             @Override
             protected void paintComponent(Graphics g) {
                 super.paintComponent(g);
-                boolean isRedTurn = gameLogic != null ? gameLogic.isRedTurn() : true;
+                boolean isRedTurn = gameLogic != null ? gameLogic.isShownRedTurn() : true;
                 g.setColor(isRedTurn ? redBgColor : blueBgColor);
                 g.fillRect(0, 0, getWidth(), getHeight());
             }
@@ -130,8 +130,8 @@ public class ViewColorWars extends JPanel {
 
         infoPanel.setBounds(
                 PADDING,
-                PADDING + GRID_SIZE * (CELL_SIZE + 15) + 10,
-                GRID_SIZE * (CELL_SIZE + 15) - 10,
+                PADDING + BOARD_PANEL_SIZE + 10,
+                BOARD_PANEL_SIZE - 10,
                 50
         );
         mainPanel.add(infoPanel);
@@ -141,29 +141,29 @@ public class ViewColorWars extends JPanel {
         gameLogic.setBounds(
                 PADDING,
                 PADDING,
-                GRID_SIZE * (CELL_SIZE + 15),
-                GRID_SIZE * (CELL_SIZE + 15)
+                BOARD_PANEL_SIZE,
+                BOARD_PANEL_SIZE
         );
         mainPanel.add(gameLogic);
 
         // Thêm mainPanel vào layeredPane ở lớp mặc định
-        mainPanel.setBounds(0, 0, PADDING * 2 + GRID_SIZE * (CELL_SIZE + 15), 
-                           PADDING * 2 + GRID_SIZE * (CELL_SIZE + 15) + 70);
+        mainPanel.setBounds(0, 0, PADDING * 2 + BOARD_PANEL_SIZE, 
+                           PADDING * 2 + BOARD_PANEL_SIZE + 70);
         layeredPane.add(mainPanel, JLayeredPane.DEFAULT_LAYER);
 
         // Khởi tạo gameOverScreen
         gameOverScreen = new GameOverScreen("", () -> resetGame(), parentFrame);
-        gameOverScreen.setBounds(0, 0, PADDING * 2 + GRID_SIZE * (CELL_SIZE + 15),
-                                PADDING * 2 + GRID_SIZE * (CELL_SIZE + 15) + 70);
+        gameOverScreen.setBounds(0, 0, PADDING * 2 + BOARD_PANEL_SIZE,
+                                PADDING * 2 + BOARD_PANEL_SIZE + 70);
         gameOverScreen.setVisible(false);
         layeredPane.add(gameOverScreen, JLayeredPane.POPUP_LAYER);
 
-        setPreferredSize(new Dimension(PADDING * 2 + GRID_SIZE * (CELL_SIZE + 15), 
-                PADDING * 2 + GRID_SIZE * (CELL_SIZE + 15) + 70));
+        setPreferredSize(new Dimension(PADDING * 2 + BOARD_PANEL_SIZE, 
+                PADDING * 2 + BOARD_PANEL_SIZE + 70));
         
         // Khởi tạo AI nếu chơi với máy
         if (isPlayWithBot) {
-            aiPlayer = new AIPlayer(gameLogic, isAIRed);
+            aiPlayer = ComputerPlayer.create(gameLogic, isAIRed);
             
 
             if (isAIRed) {
@@ -180,7 +180,7 @@ public class ViewColorWars extends JPanel {
 
     private void cleanup() {
         if (aiPlayer != null) {
-            aiPlayer.deactivate();
+            aiPlayer.shutdown();
         }
 
         stopExistingTimers();
@@ -252,6 +252,8 @@ public class ViewColorWars extends JPanel {
 
         boolean isAITurn = (isAIRed && gameLogic.isRedTurn()) || (!isAIRed && !gameLogic.isRedTurn());
         if (!isAITurn) {
+            // Lượt người chơi: AI suy nghĩ trước các nước trả lời
+            aiPlayer.startPondering();
             return;
         }
 
@@ -325,8 +327,8 @@ public class ViewColorWars extends JPanel {
         
         // Tạo và thêm gameOverScreen mới
         gameOverScreen = new GameOverScreen(winner, () -> resetGame(), parentFrame);
-        gameOverScreen.setBounds(0, 0, PADDING * 2 + GRID_SIZE * (CELL_SIZE + 15),
-                                PADDING * 2 + GRID_SIZE * (CELL_SIZE + 15) + 70);
+        gameOverScreen.setBounds(0, 0, PADDING * 2 + BOARD_PANEL_SIZE,
+                                PADDING * 2 + BOARD_PANEL_SIZE + 70);
         layeredPane.add(gameOverScreen, JLayeredPane.POPUP_LAYER);
         
         // Hiển thị gameOverScreen và cập nhật giao diện
@@ -350,7 +352,8 @@ public class ViewColorWars extends JPanel {
         // Optionally randomize starting player again for variety
         if (aiPlayer != null) {
             isAIRed = random.nextBoolean();
-            aiPlayer = new AIPlayer(gameLogic, isAIRed);
+            aiPlayer.shutdown();
+            aiPlayer = ComputerPlayer.create(gameLogic, isAIRed);
         }
         
         gameLogic.resetGame();
@@ -6,8 +6,8 @@ public class ViewMenuGame extends JFrame {
     private final CardLayout cardLayout;
     private final JPanel mainPanel;
     private ViewColorWars gamePanel;
-    private static final int WINDOW_WIDTH = 2 * 20 + 5 * (80 + 15);  // 2*PADDING + GRID_SIZE*(CELL_SIZE + 15)
-    private static final int WINDOW_HEIGHT = 2 * 20 + 5 * (80 + 15) + 70;  // 2*PADDING + GRID_SIZE*(CELL_SIZE + 15) + 70
+    private static final int WINDOW_WIDTH = 2 * 20 + GameLogic.panelSize(GameLogic.configuredSize());  // 2*PADDING + panel bàn cờ
+    private static final int WINDOW_HEIGHT = WINDOW_WIDTH + 70;  // + thanh thông tin
     private final Color backgroundColor = new Color(255, 164, 128);
     private final Color buttonColor = new Color(255, 200, 170);
     private final Color textColor = new Color(80, 40, 0);